@@ -0,0 +1,104 @@
+package fi.ilariel.languageconverter;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+
+/**
+ * Wall clock time of converting a one line file with the CLI in a new JVM, which is mostly JVM startup and class
+ * loading. The JVM runs with only the C1 compiler since a short run never reaches C2. Compares picking the converter
+ * with a mode and by name through the registry, with and without an AppCDS archive of the classes the CLI loads. The
+ * archive needs Java 13 or later and a jar class path, like the one "gradlew jmh" runs from, otherwise the runs fall
+ * back to the default class data sharing.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 20)
+@Fork(1)
+public class StartupBenchmark {
+
+  private static final String LINE = "cq cq de oh2xx\n";
+
+  @Param({"-m", "-c morse-encode"})
+  public String converter;
+
+  @Param({"false", "true"})
+  public boolean appCds;
+
+  private File input;
+  private File output;
+  private File archive;
+  private List<String> jvm;
+
+  @Setup
+  public void setup()
+      throws IOException, InterruptedException {
+    input = File.createTempFile("startup", ".txt");
+    output = File.createTempFile("startup", ".morse");
+    Files.write(input.toPath(), LINE.getBytes(StandardCharsets.UTF_8));
+    jvm = new ArrayList<>(Arrays.asList(Paths.get(System.getProperty("java.home"), "bin", "java").toString(),
+        "-cp", System.getProperty("java.class.path"), "-XX:TieredStopAtLevel=1"));
+    if (appCds) {
+      archive = File.createTempFile("startup", ".jsa");
+      archive.delete();
+      //A dry run writes the classes it loads to the archive
+      List<String> dump = new ArrayList<>(jvm);
+      dump.add("-XX:ArchiveClassesAtExit=" + archive);
+      if (run(dump) == 0 && archive.exists()) {
+        jvm.add("-XX:SharedArchiveFile=" + archive);
+      }
+    }
+  }
+
+  @TearDown
+  public void tearDown() {
+    input.delete();
+    output.delete();
+    if (archive != null) {
+      archive.delete();
+    }
+  }
+
+  @Benchmark
+  public int convert()
+      throws IOException, InterruptedException {
+    int exitCode = run(jvm);
+    if (exitCode != 0) {
+      throw new IllegalStateException("CLI exited with " + exitCode);
+    }
+    return exitCode;
+  }
+
+  private int run(List<String> jvmCommand)
+      throws IOException, InterruptedException {
+    List<String> command = new ArrayList<>(jvmCommand);
+    command.add(CLIApplication.class.getName());
+    command.addAll(Arrays.asList(converter.split(" ")));
+    command.add(input.getPath());
+    command.add(output.getPath());
+    return new ProcessBuilder(command).redirectErrorStream(true).redirectOutput(ProcessBuilder.Redirect.DISCARD)
+        .start().waitFor();
+  }
+}
@@ -0,0 +1,137 @@
+package fi.ilariel.languageconverter.metrics;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import fi.ilariel.languageconverter.converter.ConversionException;
+import fi.ilariel.languageconverter.converter.MetricsListener;
+import fi.ilariel.languageconverter.morse.MorseByteConverter;
+import fi.ilariel.languageconverter.morse.MorseConverter;
+
+
+/**
+ * Cost of metrics on {@link MorseConverter} and {@link MorseByteConverter}. "NONE" is the default listener and should
+ * match the throughput of the converters before metrics existed, "COUNTERS" measures every read, write and chunk into
+ * {@link ConverterMetrics}.
+ * Compare the two with "gradlew jmh -PjmhInclude=MetricsBenchmark".
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MetricsBenchmark {
+
+  private static final int TEXT_LENGTH = 1024 * 1024;
+
+  @Param({"NONE", "COUNTERS"})
+  public String listener;
+
+  private MetricsListener metrics;
+  private String text;
+  private String morse;
+  private byte[] textBytes;
+  private byte[] morseBytes;
+
+  @Setup
+  public void setup()
+      throws ConversionException, IOException {
+    metrics = "NONE".equals(listener) ? MetricsListener.NONE : new ConverterMetrics();
+    StringBuilder builder = new StringBuilder(TEXT_LENGTH);
+    String words = "the quick brown fox jumps over the lazy dog 1234567890\n";
+    while (builder.length() < TEXT_LENGTH) {
+      builder.append(words);
+    }
+    text = builder.toString();
+    StringWriter writer = new StringWriter();
+    try (MorseConverter converter = new MorseConverter(new BufferedReader(new StringReader(text)), writer,
+        MorseConverter.Mode.TEXT_TO_MORSE)) {
+      converter.convert();
+    }
+    morse = writer.toString();
+    textBytes = text.getBytes(StandardCharsets.UTF_8);
+    morseBytes = morse.getBytes(StandardCharsets.UTF_8);
+  }
+
+  @Benchmark
+  public void encode()
+      throws ConversionException {
+    convert(text, MorseConverter.Mode.TEXT_TO_MORSE);
+  }
+
+  @Benchmark
+  public void decode()
+      throws ConversionException {
+    convert(morse, MorseConverter.Mode.MORSE_TO_TEXT);
+  }
+
+  @Benchmark
+  public void encodeBytes()
+      throws ConversionException {
+    convert(textBytes, MorseConverter.Mode.TEXT_TO_MORSE);
+  }
+
+  @Benchmark
+  public void decodeBytes()
+      throws ConversionException {
+    convert(morseBytes, MorseConverter.Mode.MORSE_TO_TEXT);
+  }
+
+  private void convert(String input, MorseConverter.Mode mode)
+      throws ConversionException {
+    MorseConverter converter = new MorseConverter(new BufferedReader(new StringReader(input)), NULL_WRITER, mode);
+    converter.setMetricsListener(metrics);
+    converter.convert();
+  }
+
+  private void convert(byte[] input, MorseConverter.Mode mode)
+      throws ConversionException {
+    MorseByteConverter converter = new MorseByteConverter(new ByteArrayInputStream(input), NULL_OUTPUT, mode);
+    converter.setMetricsListener(metrics);
+    converter.convert();
+  }
+
+  private static final Writer NULL_WRITER = new Writer() {
+    @Override
+    public void write(char[] buffer, int offset, int length) {
+    }
+
+    @Override
+    public void flush() {
+    }
+
+    @Override
+    public void close() {
+    }
+  };
+
+  private static final OutputStream NULL_OUTPUT = new OutputStream() {
+    @Override
+    public void write(int b) {
+    }
+
+    @Override
+    public void write(byte[] buffer, int offset, int length) {
+    }
+  };
+}
@@ -0,0 +1,138 @@
+package fi.ilariel.languageconverter.morse;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import fi.ilariel.languageconverter.converter.ConversionException;
+
+
+/**
+ * Rendering speed of {@link MorseAudioWriter} and decoding speed of {@link MorseAudioReader}. Besides ops/s the results
+ * contain a "samples" counter, samples rendered or decoded per second, which divided by the sample rate tells how many
+ * times faster than real time the audio is processed.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AudioBenchmark {
+
+  private static final String LINE = "cq cq de oh2xx the quick brown fox jumps over the lazy dog 0123456789?\n";
+
+  @Param({"8000", "44100"})
+  public int sampleRate;
+
+  @Param({"20", "40"})
+  public int wpm;
+
+  private MorseAudioFormat format;
+  private String text;
+  private String morse;
+  private byte[] wav;
+
+  @Setup
+  public void setup()
+      throws ConversionException, IOException {
+    format = MorseAudioFormat.builder().wpm(wpm).sampleRate(sampleRate).build();
+    StringBuilder builder = new StringBuilder();
+    for (int i = 0; i < 10; i++) {
+      builder.append(LINE);
+    }
+    text = builder.toString();
+    morse = MorseCodec.INSTANCE.encode(text);
+    ByteArrayOutputStream audio = new ByteArrayOutputStream();
+    try (MorseAudioWriter writer = new MorseAudioWriter(audio, format)) {
+      writer.write(morse);
+    }
+    wav = audio.toByteArray();
+  }
+
+  @Benchmark
+  public long renderMorse(Counters counters)
+      throws IOException {
+    try (MorseAudioWriter writer = new MorseAudioWriter(NullOutputStream.INSTANCE, format)) {
+      writer.write(morse);
+      counters.samples += writer.getSamples();
+      return writer.getSamples();
+    }
+  }
+
+  @Benchmark
+  public long renderText(Counters counters)
+      throws ConversionException, IOException {
+    MorseAudioWriter writer = new MorseAudioWriter(NullOutputStream.INSTANCE, format);
+    try (MorseConverter converter = new MorseConverter(new BufferedReader(new StringReader(text)), writer,
+        MorseConverter.Mode.TEXT_TO_MORSE)) {
+      converter.convert();
+    }
+    counters.samples += writer.getSamples();
+    return writer.getSamples();
+  }
+
+  @Benchmark
+  public int decodeAudio(Counters counters)
+      throws IOException {
+    char[] buffer = new char[8192];
+    int decoded = 0;
+    try (MorseAudioReader reader = new MorseAudioReader(new ByteArrayInputStream(wav))) {
+      int read;
+      while ((read = reader.read(buffer)) != -1) {
+        decoded += read;
+      }
+      counters.samples += reader.getSamples();
+    }
+    return decoded;
+  }
+
+  /**
+   * Samples rendered or decoded, reported per second by JMH
+   */
+  @State(Scope.Thread)
+  @AuxCounters(AuxCounters.Type.OPERATIONS)
+  public static class Counters {
+
+    public long samples;
+
+    @Setup(Level.Iteration)
+    public void reset() {
+      samples = 0;
+    }
+  }
+
+  /**
+   * Stream that drops everything, so the measurements show rendering and not disk writes
+   */
+  static final class NullOutputStream extends OutputStream {
+
+    static final NullOutputStream INSTANCE = new NullOutputStream();
+
+    @Override
+    public void write(int b) {
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) {
+    }
+  }
+}
@@ -0,0 +1,124 @@
+package fi.ilariel.languageconverter.morse;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import fi.ilariel.languageconverter.converter.ConversionException;
+
+
+/**
+ * Compares the table driven codec used by {@link MorseConverter} with the old switch and regex implementation, and
+ * the in-memory codec with and without a {@link MorseWordCache} on repetitive traffic
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CodecBenchmark {
+
+  private static final String SAMPLE = "The quick brown fox jumps over the lazy dog 1234567890, me@mail.com? a/b. ";
+  private static final int TEXT_LENGTH = 64 * 1024;
+  //Repetitive radio traffic for the word cache, callsigns, Q-codes and boilerplate
+  private static final String[] TRAFFIC = {"CQ", "DE", "OH2XX", "OH1AB", "SM5ZZ", "K", "QTH", "QRZ?", "QSL", "73", "TNX",
+      "FER", "QSO", "RST", "599", "UR", "NAME", "HR", "ES", "HELSINKI", "BK", "TU", "SK"};
+
+  private String text;
+  private String morse;
+  private String traffic;
+  private String trafficMorse;
+  private MorseCodec cachedCodec;
+
+  @Setup
+  public void setup()
+      throws ConversionException {
+    StringBuilder builder = new StringBuilder(TEXT_LENGTH);
+    while (builder.length() < TEXT_LENGTH) {
+      builder.append(SAMPLE);
+    }
+    text = builder.toString();
+    morse = LegacyMorseCodec.encode(text);
+
+    builder.setLength(0);
+    Random random = new Random(1);
+    while (builder.length() < TEXT_LENGTH) {
+      builder.append(TRAFFIC[random.nextInt(TRAFFIC.length)]).append(' ');
+    }
+    traffic = builder.toString();
+    trafficMorse = MorseCodec.INSTANCE.encode(traffic);
+    cachedCodec = new MorseCodec(MorseAlphabet.DEFAULT, new MorseWordCache(4096, 1024 * 1024));
+  }
+
+  @Benchmark
+  public String legacyEncode()
+      throws ConversionException {
+    return LegacyMorseCodec.encode(text);
+  }
+
+  @Benchmark
+  public String tableEncode()
+      throws ConversionException, IOException {
+    return convert(text, MorseConverter.Mode.TEXT_TO_MORSE);
+  }
+
+  @Benchmark
+  public String legacyDecode()
+      throws ConversionException {
+    return LegacyMorseCodec.decode(morse);
+  }
+
+  @Benchmark
+  public String tableDecode()
+      throws ConversionException, IOException {
+    return convert(morse, MorseConverter.Mode.MORSE_TO_TEXT);
+  }
+
+  @Benchmark
+  public String codecEncode()
+      throws ConversionException {
+    return MorseCodec.INSTANCE.encode(traffic);
+  }
+
+  @Benchmark
+  public String cachedEncode()
+      throws ConversionException {
+    return cachedCodec.encode(traffic);
+  }
+
+  @Benchmark
+  public String codecDecode()
+      throws ConversionException {
+    return MorseCodec.INSTANCE.decode(trafficMorse);
+  }
+
+  @Benchmark
+  public String cachedDecode()
+      throws ConversionException {
+    return cachedCodec.decode(trafficMorse);
+  }
+
+  private static String convert(String input, MorseConverter.Mode mode)
+      throws ConversionException, IOException {
+    StringWriter writer = new StringWriter(input.length() * 4);
+    try (MorseConverter converter = new MorseConverter(new BufferedReader(new StringReader(input)), writer, mode)) {
+      converter.convert();
+    }
+    return writer.toString();
+  }
+}
@@ -0,0 +1,260 @@
+package fi.ilariel.languageconverter.morse;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import fi.ilariel.languageconverter.converter.ByteTranscoder;
+import fi.ilariel.languageconverter.converter.ConversionException;
+
+
+/**
+ * Throughput of {@link MorseConverter#convert()}, {@link MorseCodec} and the direct buffer {@link MorseByteConverter}
+ * transcoders in both directions over differently shaped inputs. The noisy decodes flip every 50th dit or dah and
+ * compare replacing the invalid symbols with correcting them.
+ * Besides ops/s the results contain "chars" and "bytes" counters (input characters and UTF-8 bytes per second) from
+ * which ns/char and MB/s follow. Run with the gc profiler (enabled in build.gradle) to see gc.alloc.rate.norm.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConversionBenchmark {
+
+  private static final int NOISE_INTERVAL = 50;
+
+  @Param({"SHORT_MESSAGE", "LONG_LINE", "MANY_SHORT_LINES", "PUNCTUATION"})
+  public InputShape shape;
+
+  private String text;
+  private String morse;
+  private String noisyMorse;
+  private long morseBytes;
+  private ByteBuffer textBuffer;
+  private ByteBuffer morseBuffer;
+  private ByteBuffer outputBuffer;
+
+  @Setup
+  public void setup()
+      throws ConversionException, IOException {
+    text = shape.generate();
+    morse = convert(text, MorseConverter.Mode.TEXT_TO_MORSE);
+    for (int i = 0; i < morse.length(); i++) {
+      //Dits and dahs are three bytes, everything else is ASCII
+      morseBytes += morse.charAt(i) < 0x80 ? 1 : 3;
+    }
+    noisyMorse = addNoise(morse);
+    textBuffer = directBuffer(text.getBytes(StandardCharsets.UTF_8));
+    morseBuffer = directBuffer(morse.getBytes(StandardCharsets.UTF_8));
+    outputBuffer = ByteBuffer.allocateDirect(64 * 1024);
+  }
+
+  @Benchmark
+  public void encode(Counters counters)
+      throws ConversionException, IOException {
+    convert(text, MorseConverter.Mode.TEXT_TO_MORSE, NullWriter.INSTANCE);
+    counters.add(text.length(), text.length());
+  }
+
+  @Benchmark
+  public void decode(Counters counters)
+      throws ConversionException, IOException {
+    convert(morse, MorseConverter.Mode.MORSE_TO_TEXT, NullWriter.INSTANCE);
+    counters.add(morse.length(), morseBytes);
+  }
+
+  @Benchmark
+  public void decodeNoisyReplacing(Counters counters)
+      throws ConversionException, IOException {
+    convert(noisyMorse, MorseConverter.Mode.MORSE_TO_TEXT, NullWriter.INSTANCE, DecodeErrorPolicy.replace('?'));
+    counters.add(morse.length(), morseBytes);
+  }
+
+  @Benchmark
+  public void decodeNoisyCorrecting(Counters counters)
+      throws ConversionException, IOException {
+    convert(noisyMorse, MorseConverter.Mode.MORSE_TO_TEXT, NullWriter.INSTANCE, DecodeErrorPolicy.correct(true, 0));
+    counters.add(morse.length(), morseBytes);
+  }
+
+  @Benchmark
+  public String encodeWithCodec(Counters counters)
+      throws ConversionException {
+    counters.add(text.length(), text.length());
+    return MorseCodec.INSTANCE.encode(text);
+  }
+
+  @Benchmark
+  public String decodeWithCodec(Counters counters)
+      throws ConversionException {
+    counters.add(morse.length(), morseBytes);
+    return MorseCodec.INSTANCE.decode(morse);
+  }
+
+  @Benchmark
+  public void encodeDirectBytes(Counters counters)
+      throws ConversionException {
+    transcode(textBuffer, MorseConverter.Mode.TEXT_TO_MORSE);
+    counters.add(text.length(), text.length());
+  }
+
+  @Benchmark
+  public void decodeDirectBytes(Counters counters)
+      throws ConversionException {
+    transcode(morseBuffer, MorseConverter.Mode.MORSE_TO_TEXT);
+    counters.add(morse.length(), morseBytes);
+  }
+
+  private void transcode(ByteBuffer input, MorseConverter.Mode mode)
+      throws ConversionException {
+    ByteTranscoder transcoder = MorseByteConverter.newTranscoder(mode);
+    input.rewind();
+    outputBuffer.clear();
+    while (transcoder.transcode(input, outputBuffer, true)) {
+      outputBuffer.clear();
+    }
+    outputBuffer.clear();
+    transcoder.finish(outputBuffer);
+  }
+
+  private static String addNoise(String morse) {
+    char[] chars = morse.toCharArray();
+    int elements = 0;
+    for (int i = 0; i < chars.length; i++) {
+      if ((chars[i] == MorseConverter.MORSE_DIT || chars[i] == MorseConverter.MORSE_DAH)
+          && ++elements % NOISE_INTERVAL == 0) {
+        chars[i] = chars[i] == MorseConverter.MORSE_DIT ? MorseConverter.MORSE_DAH : MorseConverter.MORSE_DIT;
+      }
+    }
+    return new String(chars);
+  }
+
+  private static ByteBuffer directBuffer(byte[] bytes) {
+    ByteBuffer buffer = ByteBuffer.allocateDirect(bytes.length);
+    buffer.put(bytes).flip();
+    return buffer;
+  }
+
+  static String convert(String input, MorseConverter.Mode mode)
+      throws ConversionException, IOException {
+    StringWriter writer = new StringWriter();
+    convert(input, mode, writer);
+    return writer.toString();
+  }
+
+  private static void convert(String input, MorseConverter.Mode mode, Writer writer)
+      throws ConversionException, IOException {
+    convert(input, mode, writer, DecodeErrorPolicy.failFast());
+  }
+
+  private static void convert(String input, MorseConverter.Mode mode, Writer writer, DecodeErrorPolicy errorPolicy)
+      throws ConversionException, IOException {
+    try (MorseConverter converter = new MorseConverter(new BufferedReader(new StringReader(input)), writer, mode,
+        errorPolicy)) {
+      converter.convert();
+    }
+  }
+
+  /**
+   * Input shapes. Each generates plain text that the benchmarks use as is or encode to Morse first
+   */
+  public enum InputShape {
+    SHORT_MESSAGE {
+      @Override
+      String generate() {
+        return "sos sos de oh2xx";
+      }
+    },
+    LONG_LINE {
+      @Override
+      String generate() {
+        return repeat("the quick brown fox jumps over the lazy dog 0123456789 ", 64 * 1024, "");
+      }
+    },
+    MANY_SHORT_LINES {
+      @Override
+      String generate() {
+        return repeat("cq cq de oh2xx k", 64 * 1024, "\n");
+      }
+    },
+    PUNCTUATION {
+      @Override
+      String generate() {
+        return repeat("me@mail.com, a/b? 1.2,3@4/5? ", 64 * 1024, "");
+      }
+    };
+
+    abstract String generate();
+
+    private static String repeat(String piece, int length, String separator) {
+      StringBuilder builder = new StringBuilder(length + piece.length());
+      while (builder.length() < length) {
+        builder.append(piece).append(separator);
+      }
+      return builder.toString();
+    }
+  }
+
+  /**
+   * Input characters and UTF-8 bytes converted, reported per second by JMH
+   */
+  @State(Scope.Thread)
+  @AuxCounters(AuxCounters.Type.OPERATIONS)
+  public static class Counters {
+
+    public long chars;
+    public long bytes;
+
+    @Setup(Level.Iteration)
+    public void reset() {
+      chars = 0;
+      bytes = 0;
+    }
+
+    void add(long inputChars, long inputBytes) {
+      chars += inputChars;
+      bytes += inputBytes;
+    }
+  }
+
+  /**
+   * Writer that drops everything, so the output side doesn't dominate the measurements
+   */
+  static final class NullWriter extends Writer {
+
+    static final NullWriter INSTANCE = new NullWriter();
+
+    @Override
+    public void write(char[] cbuf, int off, int len) {
+    }
+
+    @Override
+    public void flush() {
+    }
+
+    @Override
+    public void close() {
+    }
+  }
+}
@@ -0,0 +1,94 @@
+package fi.ilariel.languageconverter.morse;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import fi.ilariel.languageconverter.converter.ConversionException;
+
+
+/**
+ * File to file conversion of a large generated corpus, the way the CLI does it. Each operation is one full pass over
+ * the corpus, so the score divided by the corpus size gives the end to end throughput. The Morse corpus is roughly
+ * ten times larger than the text one.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = "-Xmx512m")
+public class LargeCorpusBenchmark {
+
+  private static final String LINE = "cq cq de oh2xx the quick brown fox jumps over the lazy dog, me@mail.com 0123456789?";
+
+  @Param({"128"})
+  public int textMegabytes;
+
+  private File textFile;
+  private File morseFile;
+  private File outputFile;
+
+  @Setup
+  public void setup()
+      throws ConversionException, IOException {
+    textFile = File.createTempFile("corpus", ".txt");
+    morseFile = File.createTempFile("corpus", ".morse");
+    outputFile = File.createTempFile("corpus", ".out");
+
+    long size = textMegabytes * 1024L * 1024L;
+    try (Writer writer = Files.newBufferedWriter(textFile.toPath(), StandardCharsets.UTF_8)) {
+      for (long written = 0; written < size; written += LINE.length() + 1) {
+        writer.write(LINE);
+        writer.write('\n');
+      }
+    }
+    convert(textFile, morseFile, MorseConverter.Mode.TEXT_TO_MORSE);
+  }
+
+  @TearDown
+  public void tearDown() {
+    textFile.delete();
+    morseFile.delete();
+    outputFile.delete();
+  }
+
+  @Benchmark
+  public void encodeFile()
+      throws ConversionException, IOException {
+    convert(textFile, outputFile, MorseConverter.Mode.TEXT_TO_MORSE);
+  }
+
+  @Benchmark
+  public void decodeFile()
+      throws ConversionException, IOException {
+    convert(morseFile, outputFile, MorseConverter.Mode.MORSE_TO_TEXT);
+  }
+
+  private static void convert(File input, File output, MorseConverter.Mode mode)
+      throws ConversionException, IOException {
+    BufferedReader reader = Files.newBufferedReader(input.toPath(), StandardCharsets.UTF_8);
+    BufferedWriter writer = Files.newBufferedWriter(output.toPath(), StandardCharsets.UTF_8);
+    try (MorseConverter converter = new MorseConverter(reader, writer, mode)) {
+      converter.convert();
+    }
+  }
+}
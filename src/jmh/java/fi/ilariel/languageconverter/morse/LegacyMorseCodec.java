@@ -0,0 +1,331 @@
+package fi.ilariel.languageconverter.morse;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import fi.ilariel.languageconverter.converter.ConversionException;
+
+import static fi.ilariel.languageconverter.morse.MorseConverter.*;
+
+
+/**
+ * The switch and regex based codec MorseConverter used before the lookup tables. Kept only as a baseline for the
+ * benchmarks
+ */
+final class LegacyMorseCodec {
+
+  private static final String WORD_SEPARATOR = " ";
+
+  private LegacyMorseCodec() {
+  }
+
+  static String encode(String text)
+      throws ConversionException {
+    StringBuilder builder = new StringBuilder();
+    boolean first = true;
+    for (char ch : text.toCharArray()) {
+      if (!first) {
+        builder.append(MORSE_CODE_CHARACTER_SEPARATOR);
+      } else {
+        first = false;
+      }
+      builder.append(letterToMorse(ch));
+    }
+    return builder.toString();
+  }
+
+  static String decode(String morse)
+      throws ConversionException {
+    StringBuilder builder = new StringBuilder();
+    Matcher matcher = Pattern.compile("( |[" + MORSE_DIT + MORSE_DAH + "]+)|(\\.)").matcher(morse);
+    boolean delimiter = false;
+    while (matcher.find()) {
+      String match = matcher.group(1);
+      if (match != null) {
+        delimiter = false;
+        builder.append(morseToLetter(match));
+      } else {
+        if (delimiter) {
+          throw new ConversionException(MORSE_DELIMIT_EXCEPTION_MESSAGE);
+        }
+        delimiter = true;
+      }
+    }
+    return builder.toString();
+  }
+
+  private static char morseToLetter(String morse)
+      throws ConversionException {
+    char morseString;
+    switch (morse) {
+      case MORSE_A:
+        morseString = 'A';
+        break;
+      case MORSE_B:
+        morseString = 'B';
+        break;
+      case MORSE_C:
+        morseString = 'C';
+        break;
+      case MORSE_D:
+        morseString = 'D';
+        break;
+      case MORSE_E:
+        morseString = 'E';
+        break;
+      case MORSE_F:
+        morseString = 'F';
+        break;
+      case MORSE_G:
+        morseString = 'G';
+        break;
+      case MORSE_H:
+        morseString = 'H';
+        break;
+      case MORSE_I:
+        morseString = 'I';
+        break;
+      case MORSE_J:
+        morseString = 'J';
+        break;
+      case MORSE_K:
+        morseString = 'K';
+        break;
+      case MORSE_L:
+        morseString = 'L';
+        break;
+      case MORSE_M:
+        morseString = 'M';
+        break;
+      case MORSE_N:
+        morseString = 'N';
+        break;
+      case MORSE_O:
+        morseString = 'O';
+        break;
+      case MORSE_P:
+        morseString = 'P';
+        break;
+      case MORSE_Q:
+        morseString = 'Q';
+        break;
+      case MORSE_R:
+        morseString = 'R';
+        break;
+      case MORSE_S:
+        morseString = 'S';
+        break;
+      case MORSE_T:
+        morseString = 'T';
+        break;
+      case MORSE_U:
+        morseString = 'U';
+        break;
+      case MORSE_V:
+        morseString = 'V';
+        break;
+      case MORSE_W:
+        morseString = 'W';
+        break;
+      case MORSE_X:
+        morseString = 'X';
+        break;
+      case MORSE_Y:
+        morseString = 'Y';
+        break;
+      case MORSE_Z:
+        morseString = 'Z';
+        break;
+      case MORSE_DOT:
+        morseString = '.';
+        break;
+      case MORSE_COMMA:
+        morseString = ',';
+        break;
+      case MORSE_QUESTION_MARK:
+        morseString = '?';
+        break;
+      case MORSE_SLASH:
+        morseString = '/';
+        break;
+      case MORSE_AT_SIGN:
+        morseString = '@';
+        break;
+      case MORSE_1:
+        morseString = '1';
+        break;
+      case MORSE_2:
+        morseString = '2';
+        break;
+      case MORSE_3:
+        morseString = '3';
+        break;
+      case MORSE_4:
+        morseString = '4';
+        break;
+      case MORSE_5:
+        morseString = '5';
+        break;
+      case MORSE_6:
+        morseString = '6';
+        break;
+      case MORSE_7:
+        morseString = '7';
+        break;
+      case MORSE_8:
+        morseString = '8';
+        break;
+      case MORSE_9:
+        morseString = '9';
+        break;
+      case MORSE_0:
+        morseString = '0';
+        break;
+      case WORD_SEPARATOR:
+        morseString = ' ';
+        break;
+      default:
+        throw new ConversionException(morse + " is not a valid Morse code sequence");
+    }
+
+    return morseString;
+  }
+
+  private static String letterToMorse(char ch)
+      throws ConversionException {
+    String morseString;
+
+    switch (Character.toUpperCase(ch)) {
+      case 'A':
+        morseString = MORSE_A;
+        break;
+      case 'B':
+        morseString = MORSE_B;
+        break;
+      case 'C':
+        morseString = MORSE_C;
+        break;
+      case 'D':
+        morseString = MORSE_D;
+        break;
+      case 'E':
+        morseString = MORSE_E;
+        break;
+      case 'F':
+        morseString = MORSE_F;
+        break;
+      case 'G':
+        morseString = MORSE_G;
+        break;
+      case 'H':
+        morseString = MORSE_H;
+        break;
+      case 'I':
+        morseString = MORSE_I;
+        break;
+      case 'J':
+        morseString = MORSE_J;
+        break;
+      case 'K':
+        morseString = MORSE_K;
+        break;
+      case 'L':
+        morseString = MORSE_L;
+        break;
+      case 'M':
+        morseString = MORSE_M;
+        break;
+      case 'N':
+        morseString = MORSE_N;
+        break;
+      case 'O':
+        morseString = MORSE_O;
+        break;
+      case 'P':
+        morseString = MORSE_P;
+        break;
+      case 'Q':
+        morseString = MORSE_Q;
+        break;
+      case 'R':
+        morseString = MORSE_R;
+        break;
+      case 'S':
+        morseString = MORSE_S;
+        break;
+      case 'T':
+        morseString = MORSE_T;
+        break;
+      case 'U':
+        morseString = MORSE_U;
+        break;
+      case 'V':
+        morseString = MORSE_V;
+        break;
+      case 'W':
+        morseString = MORSE_W;
+        break;
+      case 'X':
+        morseString = MORSE_X;
+        break;
+      case 'Y':
+        morseString = MORSE_Y;
+        break;
+      case 'Z':
+        morseString = MORSE_Z;
+        break;
+      case '.':
+        morseString = MORSE_DOT;
+        break;
+      case ',':
+        morseString = MORSE_COMMA;
+        break;
+      case '?':
+        morseString = MORSE_QUESTION_MARK;
+        break;
+      case '/':
+        morseString = MORSE_SLASH;
+        break;
+      case '@':
+        morseString = MORSE_AT_SIGN;
+        break;
+      case '1':
+        morseString = MORSE_1;
+        break;
+      case '2':
+        morseString = MORSE_2;
+        break;
+      case '3':
+        morseString = MORSE_3;
+        break;
+      case '4':
+        morseString = MORSE_4;
+        break;
+      case '5':
+        morseString = MORSE_5;
+        break;
+      case '6':
+        morseString = MORSE_6;
+        break;
+      case '7':
+        morseString = MORSE_7;
+        break;
+      case '8':
+        morseString = MORSE_8;
+        break;
+      case '9':
+        morseString = MORSE_9;
+        break;
+      case '0':
+        morseString = MORSE_0;
+        break;
+      case ' ':
+        morseString = WORD_SEPARATOR;
+        break;
+      default:
+        throw new ConversionException("Conversion for " + ch + "is not supported");
+    }
+
+    return morseString;
+  }
+}
@@ -0,0 +1,103 @@
+package fi.ilariel.languageconverter.morse;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import fi.ilariel.languageconverter.converter.ByteTranscoder;
+import fi.ilariel.languageconverter.converter.ConversionException;
+
+
+/**
+ * Decoding speed of a megabyte of UTF-8 Morse code with the old regex codec, the char codec and the byte decoder that
+ * walks symbol boundaries with {@link MorseScanner}. The "bytes" counter is UTF-8 Morse code decoded per second, so
+ * the implementations can be compared as throughput.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ScanBenchmark {
+
+  private static final String SAMPLE = "The quick brown fox jumps over the lazy dog 1234567890, me@mail.com? a/b. ";
+  private static final int MORSE_BYTES = 1024 * 1024;
+
+  @Param({"heap", "direct"})
+  public String buffers;
+
+  private String morse;
+  private ByteBuffer input;
+  private ByteBuffer output;
+
+  @Setup
+  public void setup()
+      throws ConversionException {
+    StringBuilder builder = new StringBuilder();
+    while (builder.length() < MORSE_BYTES / 4) {
+      builder.append(SAMPLE);
+    }
+    morse = MorseCodec.INSTANCE.encode(builder);
+    byte[] bytes = morse.getBytes(StandardCharsets.UTF_8);
+    boolean direct = "direct".equals(buffers);
+    input = direct ? ByteBuffer.allocateDirect(bytes.length) : ByteBuffer.allocate(bytes.length);
+    input.put(bytes).flip();
+    output = direct ? ByteBuffer.allocateDirect(bytes.length) : ByteBuffer.allocate(bytes.length);
+  }
+
+  @Benchmark
+  public String regexDecode(Counters counters)
+      throws ConversionException {
+    counters.bytes += input.limit();
+    return LegacyMorseCodec.decode(morse);
+  }
+
+  @Benchmark
+  public String charDecode(Counters counters)
+      throws ConversionException {
+    counters.bytes += input.limit();
+    return MorseCodec.INSTANCE.decode(morse);
+  }
+
+  @Benchmark
+  public int scanDecode(Counters counters)
+      throws ConversionException {
+    input.rewind();
+    output.clear();
+    ByteTranscoder transcoder = MorseByteConverter.newTranscoder(MorseConverter.Mode.MORSE_TO_TEXT);
+    transcoder.transcode(input, output, true);
+    transcoder.finish(output);
+    counters.bytes += input.limit();
+    return output.position();
+  }
+
+  /**
+   * Bytes of Morse code decoded, reported per second by JMH
+   */
+  @State(Scope.Thread)
+  @AuxCounters(AuxCounters.Type.OPERATIONS)
+  public static class Counters {
+
+    public long bytes;
+
+    @Setup(Level.Iteration)
+    public void reset() {
+      bytes = 0;
+    }
+  }
+}
@@ -1,21 +1,56 @@
 package fi.ilariel.languageconverter;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
 import java.io.BufferedReader;
 import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.FileNotFoundException;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
+import javax.management.JMException;
+
+import fi.ilariel.languageconverter.batch.BatchConversion;
+import fi.ilariel.languageconverter.batch.BatchResult;
+import fi.ilariel.languageconverter.converter.Compression;
 import fi.ilariel.languageconverter.converter.ConversionException;
+import fi.ilariel.languageconverter.converter.ConverterProvider;
+import fi.ilariel.languageconverter.converter.ConverterRegistry;
 import fi.ilariel.languageconverter.converter.LanguageConverter;
+import fi.ilariel.languageconverter.metrics.ConverterMetrics;
+import fi.ilariel.languageconverter.morse.BinaryMorse;
+import fi.ilariel.languageconverter.morse.BinaryMorseReader;
+import fi.ilariel.languageconverter.morse.BinaryMorseWriter;
+import fi.ilariel.languageconverter.morse.DecodeError;
+import fi.ilariel.languageconverter.morse.DecodeErrorPolicy;
+import fi.ilariel.languageconverter.morse.MappedMorseConversion;
+import fi.ilariel.languageconverter.morse.MorseAudioFormat;
+import fi.ilariel.languageconverter.morse.MorseAudioReader;
+import fi.ilariel.languageconverter.morse.MorseAudioWriter;
 import fi.ilariel.languageconverter.morse.MorseConverter;
+import fi.ilariel.languageconverter.morse.MorseConverterProvider;
+import fi.ilariel.languageconverter.morse.MorseIndex;
+import fi.ilariel.languageconverter.morse.MorseIndexWriter;
+import fi.ilariel.languageconverter.morse.MorseRangeDecoder;
+import fi.ilariel.languageconverter.morse.ParallelMorseConverter;
+import fi.ilariel.languageconverter.morse.RecordMorseConverter;
+import fi.ilariel.languageconverter.server.ConversionServer;
 
 
 /**
@@ -26,8 +61,26 @@ public class CLIApplication {
   private static final int MODE_ARG = 0;
   private static final int INPUT_FILE_ARG = 1;
   private static final int OUTPUT_FILE_ARG = 2;
+  private static final int TCP_PORT_ARG = 1;
+  private static final int HTTP_PORT_ARG = 2;
+  private static final int DEFAULT_SERVER_THREADS = 64;
+  private static final String SERVER_MODE = "-s";
+  private static final int BATCH_CONVERSION_ARG = 1;
+  private static final int BATCH_OUTPUT_DIRECTORY_ARG = 2;
   private static final char TO_MORSE = 'm';
   private static final char TO_ENGLISH = 'e';
+  private static final String PACK_MODE = "-p";
+  private static final String UNPACK_MODE = "-u";
+  private static final String INDEX_MODE = "-i";
+  private static final String RANGE_MODE = "-r";
+  private static final int RANGE_START_ARG = 1;
+  private static final int RANGE_END_ARG = 2;
+  private static final int RANGE_INPUT_FILE_ARG = 3;
+  private static final int RANGE_OUTPUT_FILE_ARG = 4;
+  private static final String AUDIO_MODE = "-w";
+  private static final String LIST_MODE = "-l";
+  private static final int NAMED_INPUT_FILE_ARG = 0;
+  private static final int NAMED_OUTPUT_FILE_ARG = 1;
 
   static boolean isValidInputFile(File inputFile, StringBuilder errorMessage) {
     boolean isValid = false;
@@ -57,95 +110,588 @@ public class CLIApplication {
     return isValid;
   }
 
-  public static void main(String[] args) {
-
-    StringBuilder errorMessage = new StringBuilder();
-    MorseConverter.Mode mode = null;
+  public static void main(String[] arguments) {
 
     //Print instructions when no arguments
-    if (args.length == 0) {
+    if (arguments.length == 0) {
+      printInstructions();
+      return;
+    }
+
+    //Option errors are reported by each mode, the modes that don't use options run anyway
+    CLIOptions options = CLIOptions.parse(arguments);
+    StringBuilder errorMessage = new StringBuilder(options.getErrors());
+    String[] args = options.getArguments();
+    String modeArg = args.length > 0 ? args[MODE_ARG] : "";
+    if (options.getConverterName() != null && args.length == 2) {
+      runNamed(args, options, errorMessage);
+    } else if (args.length == 1 && LIST_MODE.equals(modeArg)) {
+      runList();
+      return;
+    } else if (args.length == 3 && SERVER_MODE.equals(modeArg)) {
+      runServer(args[TCP_PORT_ARG], args[HTTP_PORT_ARG], options.getThreads(DEFAULT_SERVER_THREADS));
+      return;
+    } else if (args.length == 3 && (PACK_MODE.equals(modeArg) || UNPACK_MODE.equals(modeArg))) {
+      runPack(args, PACK_MODE.equals(modeArg), errorMessage);
+    } else if (args.length == 3 && AUDIO_MODE.equals(modeArg)) {
+      runAudio(args, options.getAudioFormat(), errorMessage);
+    } else if (args.length == 2 && INDEX_MODE.equals(modeArg)) {
+      runIndex(args, errorMessage);
+    } else if (args.length == 5 && RANGE_MODE.equals(modeArg)) {
+      runRange(args, options, errorMessage);
+    } else if (options.isBatch()) {
+      runBatch(args, options, errorMessage);
+      return;
+    } else if (args.length == 3) {
+      runConversion(args, options, errorMessage);
+      return;
+    } else {
+      printInstructions();
+      return;
+    }
+
+    if (errorMessage.length() > 0) {
+      System.err.print(errorMessage);
+    }
+  }
+
+  /**
+   * @return the mode of the letter of a -m or -e argument, null for any other letter
+   */
+  private static MorseConverter.Mode parseMode(char mode) {
+    switch (mode) {
+      case TO_MORSE:
+        return MorseConverter.Mode.TEXT_TO_MORSE;
+      case TO_ENGLISH:
+        return MorseConverter.Mode.MORSE_TO_TEXT;
+      default:
+        return null;
+    }
+  }
+
+  /**
+   * Converts the input file to the output file, which is the default mode. Invalid options and modes are printed to
+   * stderr with the instructions, the other errors to stdout
+   */
+  private static void runConversion(String[] args, CLIOptions options, StringBuilder errorMessage) {
+    String modeArg = args[MODE_ARG];
+    MorseConverter.Mode mode = null;
+    if (modeArg.length() > 1 && modeArg.startsWith("-")) {
+      mode = parseMode(modeArg.charAt(1));
+      if (mode == null) {
+        errorMessage.append(String.format("%c is not a valid mode\n", modeArg.charAt(1)));
+      }
+    }
+    if (mode == null) {
+      errorMessage.append("Conversion mode not specified. Refer to instructions for available modes");
+    }
+    if (errorMessage.length() > 0) {
+      System.err.print(errorMessage);
       printInstructions();
       return;
     }
 
-    //We expect 3 arguments in specified order. "Mode, input, output"
-    if (args.length == 3) {
-      //Check if we have defined a mode for translation
-      String arg = args[MODE_ARG];
-      if (arg.startsWith("-")) {
+    convert(args, mode, options, errorMessage);
+    if (errorMessage.length() > 0) {
+      System.out.print(errorMessage);
+    }
+  }
+
+  /**
+   * Converts with the mode and options, adding anything that fails to the error message
+   */
+  private static void convert(String[] args, MorseConverter.Mode mode, CLIOptions options,
+      StringBuilder errorMessage) {
+    File inputFile = new File(args[INPUT_FILE_ARG]);
+    File outputFile = new File(args[OUTPUT_FILE_ARG]);
+    boolean encoding = mode == MorseConverter.Mode.TEXT_TO_MORSE;
+    Compression outputCompression = Compression.ofName(outputFile.getName());
+    if (!outputCompression.isSupported()) {
+      errorMessage.append(String.format("Output file \"%s\": %s compression is not supported\n",
+          outputFile.getPath(), outputCompression.name().toLowerCase(Locale.ROOT)));
+      return;
+    }
+    if (outputCompression != Compression.NONE
+        && (options.isMappedIo() || options.isIndex() || options.isAudio() && encoding)) {
+      errorMessage.append("Compressed output can't be used with -nio, -index or -audio\n");
+      return;
+    }
+    if (!isValidInputFile(inputFile, errorMessage) || !isValidOuputFile(outputFile, errorMessage)) {
+      return;
+    }
+
+    DecodeErrorPolicy errorPolicy = options.getErrorPolicy();
+    if (options.isMappedIo()) {
+      if (isUncompressed(inputFile, errorMessage)) {
         try {
-          char commandPrefix = arg.charAt(1);
-          switch (commandPrefix) {
-            case TO_MORSE:
-              if (mode == null) {
-                mode = MorseConverter.Mode.TEXT_TO_MORSE;
-              }
-              break;
-            case TO_ENGLISH:
-              if (mode == null) {
-                mode = MorseConverter.Mode.MORSE_TO_TEXT;
-              }
-              break;
-            default:
-              throw new IllegalArgumentException(commandPrefix + " is not a valid mode\n");
-          }
+          MappedMorseConversion.convert(inputFile, outputFile, mode, errorPolicy, options.getAlphabet());
+        } catch (ConversionException e) {
+          appendConversionError(e, errorMessage);
         }
-        catch (IllegalArgumentException e) {
-          errorMessage.append(e.getMessage());
+        printDecodeErrors(errorPolicy);
+      }
+      return;
+    }
+
+    BufferedReader inputReader;
+    BufferedWriter outputWriter;
+    InputStream inputStream = null;
+    try {
+      inputStream = Compression.openInput(inputFile);
+      inputReader = new BufferedReader(openReader(inputStream, mode, options));
+      outputWriter = new BufferedWriter(openWriter(outputFile, mode, options));
+    } catch (IOException e) {
+      //An output that can't be created isn't reported, only failures to read the input are
+      if (!(e instanceof FileNotFoundException)) {
+        errorMessage.append(String.format("Input file \"%s\": %s\n", inputFile.getPath(), e.getMessage()));
+      }
+      try {
+        if (inputStream != null) {
+          inputStream.close();
         }
+      } catch (IOException closeFailure) {
+        //Already reporting the failure
       }
+      return;
+    }
 
-      if (mode == null) {
-        errorMessage.append("Conversion mode not specified. Refer to instructions for available modes");
+    MetricsReporter reporter = options.getMetricsInterval() > 0
+        ? new MetricsReporter(options.getMetricsInterval()) : null;
+    LanguageConverter converter;
+    if (options.isLines()) {
+      converter = new RecordMorseConverter(inputReader, outputWriter, mode, options.getThreads(),
+          options.getAlphabet());
+    } else if (options.getThreads() > 1) {
+      converter = new ParallelMorseConverter(inputReader, outputWriter, mode, options.getThreads(),
+          options.getAlphabet());
+    } else {
+      converter = new MorseConverter(inputReader, outputWriter, mode, errorPolicy, options.getAlphabet());
+    }
+    try (converter) {
+      if (reporter != null) {
+        converter.setMetricsListener(reporter.metrics);
+      }
+      converter.convert();
+      if (options.isLines()) {
+        printRecordErrors((RecordMorseConverter) converter);
       }
+    } catch (IOException e) {
+      e.printStackTrace();
+    } catch (ConversionException e) {
+      appendConversionError(e, errorMessage);
+    }
+    if (reporter != null) {
+      reporter.stop();
+    }
+    printDecodeErrors(errorPolicy);
+  }
+
+  private static Reader openReader(InputStream inputStream, MorseConverter.Mode mode, CLIOptions options)
+      throws IOException {
+    if (mode == MorseConverter.Mode.TEXT_TO_MORSE) {
+      return new InputStreamReader(inputStream, StandardCharsets.UTF_8);
+    }
+    if (options.isAudio()) {
+      return new MorseAudioReader(new BufferedInputStream(inputStream), options.getTone());
+    }
+    if (options.isBinary()) {
+      return new BinaryMorseReader(new BufferedInputStream(inputStream));
+    }
+    return new InputStreamReader(inputStream, StandardCharsets.UTF_8);
+  }
 
-      //If we have had an error we want to exit and print the error message(s)
-      if (errorMessage.length() > 0) {
-        System.err.print(errorMessage.toString());
-        printInstructions();
-        return;
+  private static Writer openWriter(File outputFile, MorseConverter.Mode mode, CLIOptions options)
+      throws IOException {
+    boolean encoding = mode == MorseConverter.Mode.TEXT_TO_MORSE;
+    if (encoding && options.isAudio()) {
+      return new MorseAudioWriter(outputFile.toPath(), options.getAudioFormat());
+    }
+    OutputStream outputStream = Compression.openOutput(outputFile);
+    if (encoding && options.isBinary()) {
+      return new BinaryMorseWriter(new BufferedOutputStream(outputStream));
+    }
+    Writer writer = new OutputStreamWriter(outputStream, StandardCharsets.UTF_8);
+    if (encoding && options.isIndex()) {
+      return new MorseIndexWriter(writer, MorseIndex.sidecarOf(outputFile.toPath()));
+    }
+    return writer;
+  }
+
+  /**
+   * Built in converters are registered directly, so only other names load service providers
+   */
+  private static ConverterRegistry newRegistry() {
+    return new ConverterRegistry()
+        .register(new MorseConverterProvider(MorseConverter.Mode.TEXT_TO_MORSE))
+        .register(new MorseConverterProvider(MorseConverter.Mode.MORSE_TO_TEXT));
+  }
+
+  /**
+   * Named converters take only the input and output file
+   */
+  private static void runNamed(String[] args, CLIOptions options, StringBuilder errorMessage) {
+    File inputFile = new File(args[NAMED_INPUT_FILE_ARG]);
+    File outputFile = new File(args[NAMED_OUTPUT_FILE_ARG]);
+    if (errorMessage.length() > 0 || !isValidInputFile(inputFile, errorMessage)
+        || !isValidOuputFile(outputFile, errorMessage)) {
+      return;
+    }
+    String name = options.getConverterName();
+    ConverterProvider provider = newRegistry().get(name);
+    if (provider == null) {
+      errorMessage.append(String.format("No converter named \"%s\", list them with -l\n", name));
+      return;
+    }
+    MetricsReporter reporter = options.getMetricsInterval() > 0
+        ? new MetricsReporter(options.getMetricsInterval()) : null;
+    try (Reader input = new BufferedReader(new InputStreamReader(Compression.openInput(inputFile),
+        StandardCharsets.UTF_8));
+        Writer output = new BufferedWriter(new OutputStreamWriter(Compression.openOutput(outputFile),
+            StandardCharsets.UTF_8));
+        LanguageConverter converter = provider.newConverter(input, output)) {
+      if (reporter != null) {
+        converter.setMetricsListener(reporter.metrics);
       }
+      converter.convert();
+    } catch (IOException e) {
+      errorMessage.append(String.format("Converting \"%s\" failed: %s\n", inputFile.getPath(), e.getMessage()));
+    } catch (ConversionException e) {
+      appendConversionError(e, errorMessage);
+    }
+    if (reporter != null) {
+      reporter.stop();
+    }
+  }
 
-      File inputFile = new File(args[INPUT_FILE_ARG]);
-      File outputFile = new File(args[OUTPUT_FILE_ARG]);
+  private static void runList() {
+    for (ConverterProvider provider : newRegistry().getProviders()) {
+      System.out.print(String.format("%-16s %s\n", provider.getName(), provider.getDescription()));
+    }
+  }
 
-      if (isValidInputFile(inputFile, errorMessage) && isValidOuputFile(outputFile, errorMessage)) {
-        InputStream inputStream = null;
-        OutputStream outputStream = null;
-        BufferedReader inputReader = null;
-        BufferedWriter outputWriter = null;
-        try {
-          inputStream = new FileInputStream(inputFile);
-          inputReader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+  /**
+   * Server mode takes ports instead of files
+   */
+  private static void runServer(String tcpPort, String httpPort, int threads) {
+    ConversionServer server;
+    try {
+      server = new ConversionServer(Integer.parseInt(tcpPort), Integer.parseInt(httpPort), threads);
+    } catch (NumberFormatException e) {
+      System.err.print(String.format("Ports \"%s\" and \"%s\" are not valid\n", tcpPort, httpPort));
+      printInstructions();
+      return;
+    }
 
-          outputStream = new FileOutputStream(outputFile);
-          outputWriter = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
-        } catch (FileNotFoundException e) {
-          //This shouldn't happen to be honest
-        }
-        if (inputReader != null && outputWriter != null) {
-          try (LanguageConverter converter = new MorseConverter(inputReader, outputWriter, mode)) {
-            converter.convert();
-          } catch (IOException e) {
-            e.printStackTrace();
-          } catch (ConversionException e) {
-            errorMessage.append(e.getMessage());
-          }
-        }
+    try {
+      server.start();
+    } catch (IOException e) {
+      System.err.print(String.format("Server couldn't start: %s\n", e.getMessage()));
+      server.stop();
+      return;
+    }
+    Runtime.getRuntime().addShutdownHook(new Thread(server::stop));
+    System.out.print(String.format("Listening on localhost, TCP port %d and HTTP port %d\n", server.getTcpPort(),
+        server.getHttpPort()));
+  }
+
+  /**
+   * Batch mode converts any number of inputs to an output directory, one file per thread by default
+   */
+  private static void runBatch(String[] args, CLIOptions options, StringBuilder errorMessage) {
+    if (errorMessage.length() > 0) {
+      System.err.print(errorMessage);
+      printInstructions();
+      return;
+    }
+    String modeArg = args[BATCH_CONVERSION_ARG];
+    MorseConverter.Mode mode = modeArg.length() == 2 ? parseMode(modeArg.charAt(1)) : null;
+    if (mode == null) {
+      System.err.print(String.format("%s is not a valid mode\n", modeArg));
+      printInstructions();
+      return;
+    }
+    Path outputDirectory = Paths.get(args[BATCH_OUTPUT_DIRECTORY_ARG]);
+    if (Files.exists(outputDirectory) && !Files.isDirectory(outputDirectory)) {
+      System.err.print(String.format("Output directory \"%s\" exists and is not a directory\n", outputDirectory));
+      return;
+    }
+    if (options.isAudio() && mode != MorseConverter.Mode.MORSE_TO_TEXT) {
+      System.err.print("Batch mode can only decode audio, use -b -e -audio\n");
+      return;
+    }
+
+    long start = System.nanoTime();
+    BatchConversion conversion = new BatchConversion(mode, outputDirectory,
+        options.getThreads(Runtime.getRuntime().availableProcessors()), options::newErrorPolicy);
+    conversion.setAlphabet(options.getAlphabet());
+    if (options.isAudio()) {
+      conversion.setAudioInput(options.getTone());
+    }
+    MetricsReporter reporter = options.getMetricsInterval() > 0
+        ? new MetricsReporter(options.getMetricsInterval()) : null;
+    if (reporter != null) {
+      conversion.setMetricsListener(reporter.metrics);
+    }
+    List<BatchResult> results = conversion.convert(Arrays.asList(args).subList(CLIOptions.BATCH_FIRST_INPUT_ARG,
+        args.length));
+    if (reporter != null) {
+      reporter.stop();
+    }
+
+    int failed = 0;
+    long bytes = 0;
+    for (BatchResult result : results) {
+      if (result.isSuccess()) {
+        bytes += result.getInputSize();
+        System.out.print(String.format("OK      %s -> %s (%d bytes, %d ms%s)\n", result.getInput(), result.getOutput(),
+            result.getInputSize(), TimeUnit.NANOSECONDS.toMillis(result.getNanos()),
+            result.getDecodeErrors() > 0 ? String.format(", %d invalid sequences replaced", result.getDecodeErrors())
+                : ""));
+      } else {
+        failed++;
+        System.out.print(String.format("FAILED  %s: %s\n", result.getInput(), describeFailure(result.getFailure())));
+      }
+    }
+    System.out.print(String.format("%d files converted, %d failed, %d bytes in %d ms\n", results.size() - failed,
+        failed, bytes, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)));
+  }
+
+  /**
+   * Packing converts between UTF-8 and binary Morse code without decoding it
+   */
+  private static void runPack(String[] args, boolean pack, StringBuilder errorMessage) {
+    File inputFile = new File(args[INPUT_FILE_ARG]);
+    File outputFile = new File(args[OUTPUT_FILE_ARG]);
+    if (!isValidInputFile(inputFile, errorMessage) || !isValidOuputFile(outputFile, errorMessage)) {
+      return;
+    }
+    try (InputStream input = new BufferedInputStream(Compression.openInput(inputFile));
+        OutputStream output = new BufferedOutputStream(Compression.openOutput(outputFile))) {
+      if (pack) {
+        BinaryMorse.pack(new InputStreamReader(input, StandardCharsets.UTF_8), output);
+      } else {
+        BinaryMorse.unpack(input, new OutputStreamWriter(output, StandardCharsets.UTF_8));
       }
+    } catch (IOException e) {
+      errorMessage.append(String.format("Packing \"%s\" failed: %s\n", inputFile.getPath(), e.getMessage()));
+      return;
+    }
+    System.err.print(String.format("%d bytes to %d bytes\n", inputFile.length(), outputFile.length()));
+  }
 
-      if (errorMessage.length() > 0) {
-        System.out.print(errorMessage);
+  /**
+   * Audio mode renders a Morse code file as a WAV file
+   */
+  private static void runAudio(String[] args, MorseAudioFormat format, StringBuilder errorMessage) {
+    File inputFile = new File(args[INPUT_FILE_ARG]);
+    File outputFile = new File(args[OUTPUT_FILE_ARG]);
+    if (errorMessage.length() > 0 || !isValidInputFile(inputFile, errorMessage)
+        || !isValidOuputFile(outputFile, errorMessage)) {
+      return;
+    }
+    long start = System.nanoTime();
+    long samples;
+    try (Reader input = new BufferedReader(new InputStreamReader(Compression.openInput(inputFile),
+        StandardCharsets.UTF_8));
+        MorseAudioWriter output = new MorseAudioWriter(outputFile.toPath(), format)) {
+      char[] buffer = new char[8192];
+      int read;
+      while ((read = input.read(buffer)) != -1) {
+        output.write(buffer, 0, read);
       }
+      samples = output.getSamples();
+    } catch (IOException e) {
+      errorMessage.append(String.format("Rendering \"%s\" failed: %s\n", inputFile.getPath(), e.getMessage()));
+      return;
+    }
+    long millis = Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    System.err.print(String.format("%d samples, %d s of audio at %s in %d ms (%d samples/s)\n", samples,
+        samples / format.getSampleRate(), format, millis, samples * 1000 / millis));
+  }
+
+  /**
+   * Indexing an existing Morse code file writes its sidecar index
+   */
+  private static void runIndex(String[] args, StringBuilder errorMessage) {
+    Path inputFile = Paths.get(args[INPUT_FILE_ARG]);
+    if (!isValidInputFile(inputFile.toFile(), errorMessage)) {
+      return;
+    }
+    try {
+      MorseIndex.build(inputFile, MorseIndex.DEFAULT_INTERVAL).write(MorseIndex.sidecarOf(inputFile));
+    } catch (IOException e) {
+      errorMessage.append(String.format("Indexing \"%s\" failed: %s\n", inputFile, e.getMessage()));
+    }
+  }
+
+  /**
+   * Range mode decodes part of the text of an indexed Morse code file
+   */
+  private static void runRange(String[] args, CLIOptions options, StringBuilder errorMessage) {
+    long start = parseOffset(args[RANGE_START_ARG], "Range start", errorMessage);
+    long end = parseOffset(args[RANGE_END_ARG], "Range end", errorMessage);
+    File inputFile = new File(args[RANGE_INPUT_FILE_ARG]);
+    File outputFile = new File(args[RANGE_OUTPUT_FILE_ARG]);
+    if (end < start) {
+      errorMessage.append("Range end is before its start\n");
+    }
+    if (errorMessage.length() > 0 || !isValidInputFile(inputFile, errorMessage)
+        || !isValidOuputFile(outputFile, errorMessage)) {
+      return;
+    }
+    DecodeErrorPolicy errorPolicy = options.getErrorPolicy();
+    try (Writer output = new BufferedWriter(new OutputStreamWriter(Compression.openOutput(outputFile),
+        StandardCharsets.UTF_8))) {
+      long startTime = System.nanoTime();
+      MorseRangeDecoder decoder = new MorseRangeDecoder(inputFile.toPath(), MorseIndex.open(inputFile.toPath()),
+          options.getAlphabet());
+      long written = decoder.decode(start, end, output, errorPolicy);
+      System.err.print(String.format("%d characters in %d ms\n", written,
+          TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime)));
+    } catch (IOException e) {
+      errorMessage.append(String.format("Reading \"%s\" failed: %s\n", inputFile.getPath(), e.getMessage()));
+    } catch (ConversionException e) {
+      appendConversionError(e, errorMessage);
+    }
+    printDecodeErrors(errorPolicy);
+  }
+
+  /**
+   * Memory mapped conversion reads the file as is, so it can't decompress it
+   */
+  private static boolean isUncompressed(File inputFile, StringBuilder errorMessage) {
+    try {
+      if (Compression.ofContent(inputFile) == Compression.NONE) {
+        return true;
+      }
+      errorMessage.append("Compressed input can't be used with -nio\n");
+    } catch (IOException e) {
+      errorMessage.append(String.format("Input file \"%s\": %s\n", inputFile.getPath(), e.getMessage()));
+    }
+    return false;
+  }
+
+  private static String describeFailure(Exception failure) {
+    StringBuilder description = new StringBuilder();
+    if (failure instanceof ConversionException) {
+      appendConversionError((ConversionException) failure, description);
     } else {
-      printInstructions();
+      description.append(failure.getClass().getSimpleName()).append(' ').append(failure.getMessage());
+    }
+    return description.toString();
+  }
+
+  private static long parseOffset(String value, String name, StringBuilder errorMessage) {
+    long number;
+    try {
+      number = Long.parseLong(value);
+    } catch (NumberFormatException e) {
+      number = -1;
+    }
+    if (number < 0) {
+      errorMessage.append(String.format("%s \"%s\" is not a valid offset\n", name, value));
+      number = 0;
     }
+    return number;
+  }
+
+  private static void appendConversionError(ConversionException e, StringBuilder errorMessage) {
+    if (e.getLine() != ConversionException.UNKNOWN_POSITION) {
+      errorMessage.append(String.format("Line %d, offset %d: ", e.getLine(), e.getOffset()));
+    }
+    errorMessage.append(e.getMessage());
+  }
+
+  private static void printDecodeErrors(DecodeErrorPolicy errorPolicy) {
+    if (errorPolicy.getErrorCount() == 0) {
+      return;
+    }
+    for (DecodeError error : errorPolicy.getErrors()) {
+      System.err.println(error);
+    }
+    if (errorPolicy.isCorrecting()) {
+      System.err.print(String.format("%d invalid sequences corrected with %.0f %% mean confidence\n",
+          errorPolicy.getCorrectedCount(), errorPolicy.getMeanConfidence() * 100));
+      return;
+    }
+    System.err.print(String.format("%d invalid sequences replaced with '%c'\n", errorPolicy.getErrorCount(),
+        CLIOptions.ERROR_REPLACEMENT));
+  }
+
+  private static void printRecordErrors(RecordMorseConverter converter) {
+    if (converter.getFailedRecords() == 0) {
+      return;
+    }
+    for (ConversionException error : converter.getRecordErrors()) {
+      StringBuilder description = new StringBuilder();
+      appendConversionError(error, description);
+      System.err.println(description);
+    }
+    System.err.print(String.format("%d lines couldn't be converted and were left empty\n",
+        converter.getFailedRecords()));
   }
 
   private static void printInstructions() {
     //Print instructions
     System.out.print("Usage: morsetool\n" + "First specify mode and then enter input file path and output file path\n"
-        + "-m, English to Morse code\n" + "-e, Morse to English\n");
+        + "-m, English to Morse code\n" + "-e, Morse to English\n"
+        + "-s <tcp port> <http port>, run a local conversion server instead. POST to /encode or /decode over HTTP\n"
+        + "-b -m|-e <output directory> <input>..., convert many files in one run. Inputs are files, directories,"
+        + " glob patterns or @manifest files listing one input per line\n"
+        + "-p <morse file> <binary file>, pack UTF-8 Morse code to the compact binary format\n"
+        + "-u <binary file> <morse file>, unpack binary Morse code to UTF-8\n"
+        + "-i <morse file>, write a sidecar index for a UTF-8 Morse code file\n"
+        + "-r <start> <end> <morse file> <output file>, decode characters from start to end of the text, seeking with"
+        + " the index of the file\n"
+        + "-w <morse file> <wav file>, render Morse code as audio\n"
+        + "-c <name> <input file> <output file>, convert with a named converter, e.g. morse-encode or morse-decode."
+        + " Converters of other jars on the class path are found as services\n"
+        + "-l, list the named converters\n"
+        + "Inputs compressed with gzip are decompressed and outputs named *.gz are compressed while converting\n"
+        + "Options:\n" + "-t <count>, convert in parallel using count threads\n"
+        + "-nio, convert memory mapped UTF-8 bytes directly\n"
+        + "-binary, write Morse code with -m and read it with -e in the compact binary format\n"
+        + "-index, write a sidecar index for the Morse code written with -m\n"
+        + "-lines, convert every line on its own and keep line endings. Invalid lines are left empty and listed,"
+        + " the other lines are converted\n"
+        + "-audio, render the Morse code written with -m as a WAV file, or decode WAV recordings with -e. The tone"
+        + " of recordings is found from the audio unless given with -tone\n"
+        + "-wpm <words>, -farnsworth <words>, -tone <Hz>, -rate <samples>, character speed (default 20), overall"
+        + " speed with Farnsworth timing, tone (default 600) and sample rate (default 44100) of audio\n"
+        + "-alphabet itu|<file>, convert with the ITU alphabet with extended punctuation or an alphabet file that has a"
+        + " letter and its dits and dahs on each line\n"
+        + "-metrics <seconds>, print conversion metrics to stderr every given seconds and at the end. The metrics"
+        + " are also published over JMX\n"
+        + "-errors fail|replace|report|correct, stop at invalid Morse code (default), replace it with '?', replace it"
+        + " and list the first " + CLIOptions.MAX_REPORTED_ERRORS + " errors or write the nearest letter and list the"
+        + " first corrections with their confidence\n");
   }
-}
 
+  /**
+   * Prints metrics periodically while a conversion runs
+   */
+  private static final class MetricsReporter {
+
+    private final ConverterMetrics metrics = new ConverterMetrics();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "metrics-reporter");
+      thread.setDaemon(true);
+      return thread;
+    });
+
+    MetricsReporter(long intervalSeconds) {
+      try {
+        metrics.register();
+      } catch (JMException e) {
+        System.err.print(String.format("Metrics are not available over JMX: %s\n", e.getMessage()));
+      }
+      scheduler.scheduleAtFixedRate(() -> System.err.print(metrics.dump()), intervalSeconds, intervalSeconds,
+          TimeUnit.SECONDS);
+    }
+
+    void stop() {
+      scheduler.shutdownNow();
+      System.err.print(metrics.dump());
+    }
+  }
+}
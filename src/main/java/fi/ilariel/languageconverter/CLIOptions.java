@@ -0,0 +1,291 @@
+package fi.ilariel.languageconverter;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+import fi.ilariel.languageconverter.morse.DecodeErrorPolicy;
+import fi.ilariel.languageconverter.morse.MorseAlphabet;
+import fi.ilariel.languageconverter.morse.MorseAudioFormat;
+
+
+/**
+ * Options of {@link CLIApplication}. Options may be given anywhere on the command line, the other arguments are kept
+ * in order as the positional arguments of the mode. Invalid values and options that can't be used together are
+ * collected as errors instead of failing on the first one.
+ */
+final class CLIOptions {
+
+  private static final String BATCH_MODE = "-b";
+  static final int BATCH_FIRST_INPUT_ARG = 3;
+  private static final String THREADS_OPTION = "-t";
+  private static final String MAPPED_IO_OPTION = "-nio";
+  private static final String ERRORS_OPTION = "-errors";
+  private static final String ERRORS_FAIL = "fail";
+  private static final String ERRORS_REPLACE = "replace";
+  private static final String ERRORS_REPORT = "report";
+  private static final String ERRORS_CORRECT = "correct";
+  static final char ERROR_REPLACEMENT = '?';
+  static final int MAX_REPORTED_ERRORS = 100;
+  private static final String METRICS_OPTION = "-metrics";
+  private static final String BINARY_OPTION = "-binary";
+  private static final String INDEX_OPTION = "-index";
+  private static final String ALPHABET_OPTION = "-alphabet";
+  private static final String ITU_ALPHABET = "itu";
+  private static final String AUDIO_OPTION = "-audio";
+  private static final String WPM_OPTION = "-wpm";
+  private static final String FARNSWORTH_OPTION = "-farnsworth";
+  private static final String TONE_OPTION = "-tone";
+  private static final String SAMPLE_RATE_OPTION = "-rate";
+  private static final String LINES_OPTION = "-lines";
+  private static final String CONVERTER_OPTION = "-c";
+
+  private final StringBuilder errors = new StringBuilder();
+  private final List<String> arguments = new ArrayList<>();
+  private int threads = 1;
+  private boolean mappedIo;
+  private String errorHandling = ERRORS_FAIL;
+  private DecodeErrorPolicy errorPolicy = DecodeErrorPolicy.failFast();
+  private long metricsInterval;
+  private boolean binary;
+  private boolean index;
+  private MorseAlphabet alphabet = MorseAlphabet.DEFAULT;
+  private boolean audio;
+  private MorseAudioFormat audioFormat = MorseAudioFormat.DEFAULT;
+  private int tone;
+  private boolean lines;
+  private String converterName;
+
+  private CLIOptions() {
+  }
+
+  /**
+   * @param commandLine arguments given to the application
+   */
+  static CLIOptions parse(String[] commandLine) {
+    CLIOptions options = new CLIOptions();
+    options.parseOptions(commandLine);
+    options.checkCombinations();
+    return options;
+  }
+
+  private void parseOptions(String[] commandLine) {
+    MorseAudioFormat.Builder audioFormatBuilder = MorseAudioFormat.builder();
+    for (int i = 0; i < commandLine.length; i++) {
+      String option = commandLine[i];
+      boolean hasValue = i + 1 < commandLine.length;
+      if (THREADS_OPTION.equals(option) && hasValue) {
+        threads = parsePositive(commandLine[++i], "Thread count");
+      } else if (MAPPED_IO_OPTION.equals(option)) {
+        mappedIo = true;
+      } else if (BINARY_OPTION.equals(option)) {
+        binary = true;
+      } else if (INDEX_OPTION.equals(option)) {
+        index = true;
+      } else if (AUDIO_OPTION.equals(option)) {
+        audio = true;
+      } else if (LINES_OPTION.equals(option)) {
+        lines = true;
+      } else if (CONVERTER_OPTION.equals(option) && hasValue) {
+        converterName = commandLine[++i];
+      } else if (WPM_OPTION.equals(option) && hasValue) {
+        audioFormatBuilder.wpm(parsePositive(commandLine[++i], "Speed"));
+      } else if (FARNSWORTH_OPTION.equals(option) && hasValue) {
+        audioFormatBuilder.farnsworth(parsePositive(commandLine[++i], "Farnsworth speed"));
+      } else if (TONE_OPTION.equals(option) && hasValue) {
+        tone = parsePositive(commandLine[++i], "Tone");
+        audioFormatBuilder.frequency(tone);
+      } else if (SAMPLE_RATE_OPTION.equals(option) && hasValue) {
+        audioFormatBuilder.sampleRate(parsePositive(commandLine[++i], "Sample rate"));
+      } else if (ALPHABET_OPTION.equals(option) && hasValue) {
+        alphabet = parseAlphabet(commandLine[++i]);
+      } else if (METRICS_OPTION.equals(option) && hasValue) {
+        metricsInterval = parsePositive(commandLine[++i], "Metrics interval");
+      } else if (ERRORS_OPTION.equals(option) && hasValue) {
+        errorHandling = commandLine[++i];
+        errorPolicy = parseErrorPolicy(errorHandling, errors);
+      } else {
+        arguments.add(option);
+      }
+    }
+    try {
+      audioFormat = audioFormatBuilder.build();
+    } catch (IllegalArgumentException e) {
+      errors.append(e.getMessage()).append('\n');
+    }
+  }
+
+  private void checkCombinations() {
+    boolean batch = isBatch();
+    if (mappedIo && (threads > 1 || batch)) {
+      errors.append("Option -nio can't be used with -t or -b\n");
+    }
+    if (mappedIo && metricsInterval > 0) {
+      errors.append("Option -metrics can't be used with -nio\n");
+    }
+    if (binary && (mappedIo || batch)) {
+      errors.append("Option -binary can't be used with -nio or -b\n");
+    }
+    if (index && (binary || mappedIo || batch)) {
+      errors.append("Option -index can't be used with -binary, -nio or -b, binary files are always indexed\n");
+    }
+    if (!errorPolicy.isFailFast() && threads > 1 && !batch) {
+      errors.append("Parallel conversion always fails fast, option -errors can't be used with -t\n");
+    }
+    if (audio && (binary || index || mappedIo)) {
+      errors.append("Option -audio can't be used with -binary, -index or -nio\n");
+    }
+    if (lines && (binary || index || mappedIo || audio || batch)) {
+      errors.append("Option -lines can't be used with -binary, -index, -nio, -audio or -b\n");
+    }
+    if (lines && !errorPolicy.isFailFast()) {
+      errors.append("Option -lines always skips invalid lines, option -errors can't be used with it\n");
+    }
+    if (converterName != null && (threads > 1 || mappedIo || binary || index || audio || lines || batch
+        || alphabet != MorseAlphabet.DEFAULT || !errorPolicy.isFailFast())) {
+      errors.append("Option -c only takes -metrics, named converters use their defaults\n");
+    }
+  }
+
+  /**
+   * @return invalid options, one per line, empty if there are none
+   */
+  String getErrors() {
+    return errors.toString();
+  }
+
+  /**
+   * @return the arguments that are not options, in order
+   */
+  String[] getArguments() {
+    return arguments.toArray(new String[0]);
+  }
+
+  /**
+   * @return true if the arguments are a batch mode and its conversion, output directory and inputs
+   */
+  boolean isBatch() {
+    return arguments.size() > BATCH_FIRST_INPUT_ARG && BATCH_MODE.equals(arguments.get(0));
+  }
+
+  /**
+   * @return thread count given with -t, 1 if not given
+   */
+  int getThreads() {
+    return threads;
+  }
+
+  /**
+   * @return thread count given with -t or the default when it is not given
+   */
+  int getThreads(int defaultThreads) {
+    return threads > 1 ? threads : defaultThreads;
+  }
+
+  boolean isMappedIo() {
+    return mappedIo;
+  }
+
+  /**
+   * @return the policy for a single conversion. Policies collect errors, so use {@link #newErrorPolicy()} for each
+   * conversion of a batch
+   */
+  DecodeErrorPolicy getErrorPolicy() {
+    return errorPolicy;
+  }
+
+  /**
+   * @return a new policy of the kind given with -errors
+   */
+  DecodeErrorPolicy newErrorPolicy() {
+    return parseErrorPolicy(errorHandling, new StringBuilder());
+  }
+
+  /**
+   * @return seconds between printed metrics, 0 for no metrics
+   */
+  long getMetricsInterval() {
+    return metricsInterval;
+  }
+
+  boolean isBinary() {
+    return binary;
+  }
+
+  boolean isIndex() {
+    return index;
+  }
+
+  MorseAlphabet getAlphabet() {
+    return alphabet;
+  }
+
+  boolean isAudio() {
+    return audio;
+  }
+
+  MorseAudioFormat getAudioFormat() {
+    return audioFormat;
+  }
+
+  /**
+   * @return tone of recordings given with -tone, 0 to find it from the audio
+   */
+  int getTone() {
+    return tone;
+  }
+
+  boolean isLines() {
+    return lines;
+  }
+
+  /**
+   * @return name given with -c, null if not given
+   */
+  String getConverterName() {
+    return converterName;
+  }
+
+  private int parsePositive(String value, String name) {
+    int number;
+    try {
+      number = Integer.parseInt(value);
+    } catch (NumberFormatException e) {
+      number = 0;
+    }
+    if (number < 1) {
+      errors.append(String.format("%s \"%s\" is not a positive number\n", name, value));
+      number = 1;
+    }
+    return number;
+  }
+
+  private MorseAlphabet parseAlphabet(String value) {
+    if (ITU_ALPHABET.equals(value)) {
+      return MorseAlphabet.itu();
+    }
+    try {
+      return MorseAlphabet.load(Paths.get(value));
+    } catch (IOException e) {
+      errors.append(e.getMessage()).append('\n');
+      return MorseAlphabet.DEFAULT;
+    }
+  }
+
+  private static DecodeErrorPolicy parseErrorPolicy(String value, StringBuilder errors) {
+    switch (value) {
+      case ERRORS_FAIL:
+        return DecodeErrorPolicy.failFast();
+      case ERRORS_REPLACE:
+        return DecodeErrorPolicy.replace(ERROR_REPLACEMENT);
+      case ERRORS_REPORT:
+        return DecodeErrorPolicy.collect(ERROR_REPLACEMENT, MAX_REPORTED_ERRORS);
+      case ERRORS_CORRECT:
+        return DecodeErrorPolicy.correct(true, MAX_REPORTED_ERRORS);
+      default:
+        errors.append(String.format("Error handling \"%s\" is not valid\n", value));
+        return DecodeErrorPolicy.failFast();
+    }
+  }
+}
@@ -0,0 +1,225 @@
+package fi.ilariel.languageconverter.batch;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Semaphore;
+import java.util.function.Supplier;
+
+import fi.ilariel.languageconverter.converter.ConversionException;
+import fi.ilariel.languageconverter.converter.MetricsListener;
+import fi.ilariel.languageconverter.morse.DecodeErrorPolicy;
+import fi.ilariel.languageconverter.morse.MorseAlphabet;
+import fi.ilariel.languageconverter.morse.MorseAudioReader;
+import fi.ilariel.languageconverter.morse.MorseByteConverter;
+import fi.ilariel.languageconverter.morse.MorseConverter;
+
+
+/**
+ * Converts many files in one process. Each file is a task on a work stealing {@link ForkJoinPool} and tasks are
+ * submitted largest file first, so small files fill the gaps at the end instead of the run waiting for one big file.
+ * Files are streamed through {@link MorseByteConverter} with fixed size buffers and at most a few unfinished tasks per
+ * thread are submitted at a time, so the memory used for converting depends on the number of threads. A new task is
+ * submitted whenever any task finishes, so a big file never holds back the small ones. Only the paths, sizes and
+ * results of the files are kept for the whole run. A failing file doesn't stop the others.
+ * Outputs keep the path of the file relative to the directory or glob it was found with, or just the file name.
+ * Decoded audio recordings get a ".txt" suffix. An output that is one of the inputs fails that file instead of
+ * truncating the input before it is read.
+ */
+public class BatchConversion {
+
+  private static final String AUDIO_OUTPUT_SUFFIX = ".txt";
+  //Unfinished tasks per thread, enough to keep the workers busy while the next ones are submitted
+  private static final int MAX_PENDING_PER_THREAD = 2;
+
+  private final MorseConverter.Mode mode;
+  private final Path outputDirectory;
+  private final int threads;
+  private final Supplier<DecodeErrorPolicy> errorPolicies;
+  private MetricsListener metrics = MetricsListener.NONE;
+  private MorseAlphabet alphabet = MorseAlphabet.DEFAULT;
+  private boolean audio;
+  private int frequency;
+
+  /**
+   * @param mode {@link MorseConverter.Mode}
+   * @param outputDirectory directory for the converted files, created if needed
+   * @param threads number of files converted at a time
+   */
+  public BatchConversion(MorseConverter.Mode mode, Path outputDirectory, int threads) {
+    this(mode, outputDirectory, threads, DecodeErrorPolicy::failFast);
+  }
+
+  /**
+   * @param errorPolicies gives a new {@link DecodeErrorPolicy} for every file
+   */
+  public BatchConversion(MorseConverter.Mode mode, Path outputDirectory, int threads,
+      Supplier<DecodeErrorPolicy> errorPolicies) {
+    if (threads < 1) {
+      throw new IllegalArgumentException("Thread count must be positive");
+    }
+    this.mode = mode;
+    this.outputDirectory = outputDirectory;
+    this.threads = threads;
+    this.errorPolicies = errorPolicies;
+  }
+
+  /**
+   * @param metrics receives measurements of every file, {@link MetricsListener#NONE} to measure nothing
+   */
+  public void setMetricsListener(MetricsListener metrics) {
+    this.metrics = metrics;
+  }
+
+  /**
+   * @param alphabet letters and symbols to convert with, see {@link MorseAlphabet}
+   */
+  public void setAlphabet(MorseAlphabet alphabet) {
+    this.alphabet = alphabet;
+  }
+
+  /**
+   * Decodes the inputs as WAV recordings of Morse code with {@link MorseAudioReader}, only when decoding
+   * @param frequency tone of the recordings in Hz or 0 to find it from each recording
+   */
+  public void setAudioInput(int frequency) {
+    if (mode != MorseConverter.Mode.MORSE_TO_TEXT) {
+      throw new IllegalStateException("Audio can only be decoded");
+    }
+    this.audio = true;
+    this.frequency = frequency;
+  }
+
+  /**
+   * Converts the files of the inputs
+   * @param inputs files, directories, glob patterns or "@manifest" files with one input per line
+   * @return results of all found files in input order
+   */
+  public List<BatchResult> convert(List<String> inputs) {
+    List<BatchInput> files = BatchInput.expand(inputs);
+    BatchResult[] results = new BatchResult[files.size()];
+
+    Integer[] largestFirst = new Integer[files.size()];
+    for (int i = 0; i < largestFirst.length; i++) {
+      largestFirst[i] = i;
+    }
+    Arrays.sort(largestFirst, Comparator.comparingLong((Integer i) -> files.get(i).size).reversed());
+
+    //FIFO mode, so the workers take the submitted tasks in the given order
+    ForkJoinPool pool = new ForkJoinPool(threads, ForkJoinPool.defaultForkJoinWorkerThreadFactory, null, true);
+    try {
+      Set<Path> sources = realPaths(files);
+      Set<Path> outputs = new HashSet<>();
+      //A permit for every unfinished task, released by the task itself whichever task finishes first
+      int maxPending = threads * MAX_PENDING_PER_THREAD;
+      Semaphore pending = new Semaphore(maxPending);
+      for (int index : largestFirst) {
+        BatchInput file = files.get(index);
+        //Absolute so that every output has a parent directory, even "." with a file name
+        Path output = outputDirectory.toAbsolutePath()
+            .resolve(audio ? file.relative + AUDIO_OUTPUT_SUFFIX : file.relative.toString()).normalize();
+        if (file.failure != null) {
+          results[index] = new BatchResult(file.source, null, 0, 0, 0, file.failure);
+        } else if (!outputs.add(output)) {
+          results[index] = new BatchResult(file.source, output, file.size, 0, 0,
+              new FileAlreadyExistsException(output.toString(), null, "Another input has the same output"));
+        } else if (isInput(output, sources)) {
+          results[index] = new BatchResult(file.source, output, file.size, 0, 0,
+              new FileAlreadyExistsException(output.toString(), null, "Output would overwrite an input"));
+        } else {
+          pending.acquireUninterruptibly();
+          try {
+            pool.execute(() -> {
+              try {
+                results[index] = convert(file, output);
+              } finally {
+                pending.release();
+              }
+            });
+          } catch (RuntimeException e) {
+            pending.release();
+            throw e;
+          }
+        }
+      }
+      //All permits are back once every task has finished
+      pending.acquireUninterruptibly(maxPending);
+    } finally {
+      pool.shutdown();
+    }
+    return Arrays.asList(results);
+  }
+
+  /**
+   * @return real paths of the inputs, symbolic links and relative paths resolved
+   */
+  private static Set<Path> realPaths(List<BatchInput> files) {
+    Set<Path> paths = new HashSet<>();
+    for (BatchInput file : files) {
+      if (file.failure == null) {
+        try {
+          paths.add(file.source.toRealPath());
+        } catch (IOException e) {
+          //Reported when the file is opened
+        }
+      }
+    }
+    return paths;
+  }
+
+  private static boolean isInput(Path output, Set<Path> sources) {
+    try {
+      return Files.exists(output) && sources.contains(output.toRealPath());
+    } catch (IOException e) {
+      return false;
+    }
+  }
+
+  private BatchResult convert(BatchInput file, Path output) {
+    long start = System.nanoTime();
+    DecodeErrorPolicy errorPolicy = errorPolicies.get();
+    Exception failure = null;
+    try {
+      Files.createDirectories(output.getParent());
+      try (InputStream in = Files.newInputStream(file.source);
+          OutputStream out = Files.newOutputStream(output)) {
+        if (audio) {
+          decodeAudio(in, out, errorPolicy);
+        } else {
+          MorseByteConverter converter = new MorseByteConverter(in, out, mode, errorPolicy, alphabet);
+          converter.setMetricsListener(metrics);
+          converter.convert();
+        }
+      }
+    } catch (ConversionException | IOException | RuntimeException e) {
+      //Anything thrown fails only this file, the other tasks keep going
+      failure = e;
+    }
+    return new BatchResult(file.source, output, file.size, errorPolicy.getErrorCount(), System.nanoTime() - start,
+        failure);
+  }
+
+  private void decodeAudio(InputStream in, OutputStream out, DecodeErrorPolicy errorPolicy)
+      throws ConversionException, IOException {
+    BufferedReader reader = new BufferedReader(new MorseAudioReader(new BufferedInputStream(in), frequency));
+    BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+    try (MorseConverter converter = new MorseConverter(reader, writer, mode, errorPolicy, alphabet)) {
+      converter.setMetricsListener(metrics);
+      converter.convert();
+    }
+  }
+}
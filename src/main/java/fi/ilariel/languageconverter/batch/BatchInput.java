@@ -0,0 +1,127 @@
+package fi.ilariel.languageconverter.batch;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+
+/**
+ * A file found for a batch conversion. Inputs are given as files, directories that are searched recursively, glob
+ * patterns like "logs/**&#47;*.txt" or "@manifest" files listing one input per line.
+ */
+final class BatchInput {
+
+  private static final char MANIFEST_PREFIX = '@';
+  private static final char MANIFEST_COMMENT = '#';
+  private static final String GLOB_CHARACTERS = "*?[{";
+
+  final Path source;
+  //Path of the output relative to the output directory
+  final Path relative;
+  final long size;
+  //Set if the input couldn't be read
+  final Exception failure;
+
+  private BatchInput(Path source, Path relative, long size, Exception failure) {
+    this.source = source;
+    this.relative = relative;
+    this.size = size;
+    this.failure = failure;
+  }
+
+  /**
+   * @return files of the inputs in the given order. Inputs that can't be read are returned with a failure
+   */
+  static List<BatchInput> expand(List<String> specs) {
+    List<BatchInput> inputs = new ArrayList<>();
+    for (String spec : specs) {
+      if (spec.isEmpty()) {
+        inputs.add(new BatchInput(Paths.get(spec), Paths.get(spec), 0,
+            new NoSuchFileException(spec, null, "Input is empty")));
+      } else if (spec.charAt(0) == MANIFEST_PREFIX) {
+        expandManifest(Paths.get(spec.substring(1)), inputs);
+      } else {
+        expand(spec, inputs);
+      }
+    }
+    return inputs;
+  }
+
+  private static void expandManifest(Path manifest, List<BatchInput> inputs) {
+    Path directory = manifest.toAbsolutePath().getParent();
+    try (BufferedReader reader = Files.newBufferedReader(manifest, StandardCharsets.UTF_8)) {
+      String line = reader.readLine();
+      while (line != null) {
+        line = line.trim();
+        if (!line.isEmpty() && line.charAt(0) != MANIFEST_COMMENT) {
+          expand(directory.resolve(line).toString(), inputs);
+        }
+        line = reader.readLine();
+      }
+    } catch (IOException e) {
+      inputs.add(new BatchInput(manifest, manifest.getFileName(), 0, e));
+    }
+  }
+
+  private static void expand(String spec, List<BatchInput> inputs) {
+    int glob = indexOfGlob(spec);
+    if (glob >= 0) {
+      //The pattern starts from the last directory without glob characters
+      int separator = Math.max(spec.lastIndexOf('/', glob),
+          spec.lastIndexOf(FileSystems.getDefault().getSeparator(), glob));
+      Path base = Paths.get(separator >= 0 ? spec.substring(0, separator + 1) : ".");
+      PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + spec.substring(separator + 1));
+      walk(base, spec, file -> matcher.matches(base.relativize(file)), inputs);
+    } else {
+      Path path = Paths.get(spec);
+      if (Files.isDirectory(path)) {
+        walk(path, spec, file -> true, inputs);
+      } else {
+        add(path, path.getFileName(), inputs);
+      }
+    }
+  }
+
+  private static void walk(Path base, String spec, Predicate<Path> filter, List<BatchInput> inputs) {
+    List<Path> files = new ArrayList<>();
+    try (Stream<Path> paths = Files.walk(base)) {
+      paths.filter(Files::isRegularFile).filter(filter).sorted().forEach(files::add);
+    } catch (IOException e) {
+      inputs.add(new BatchInput(base, base.getFileName(), 0, e));
+      return;
+    }
+    if (files.isEmpty()) {
+      inputs.add(new BatchInput(base, base.getFileName(), 0, new NoSuchFileException(spec, null, "No files found")));
+    }
+    for (Path file : files) {
+      add(file, base.relativize(file), inputs);
+    }
+  }
+
+  private static void add(Path file, Path relative, List<BatchInput> inputs) {
+    try {
+      inputs.add(new BatchInput(file, relative, Files.size(file), null));
+    } catch (IOException e) {
+      inputs.add(new BatchInput(file, relative, 0, e));
+    }
+  }
+
+  private static int indexOfGlob(String spec) {
+    for (int i = 0; i < spec.length(); i++) {
+      if (GLOB_CHARACTERS.indexOf(spec.charAt(i)) >= 0) {
+        return i;
+      }
+    }
+    return -1;
+  }
+}
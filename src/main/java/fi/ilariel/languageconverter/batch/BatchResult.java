@@ -0,0 +1,69 @@
+package fi.ilariel.languageconverter.batch;
+
+import java.nio.file.Path;
+
+
+/**
+ * Outcome of converting one file in a {@link BatchConversion}
+ */
+public final class BatchResult {
+
+  private final Path input;
+  private final Path output;
+  private final long inputSize;
+  private final long decodeErrors;
+  private final long nanos;
+  private final Exception failure;
+
+  BatchResult(Path input, Path output, long inputSize, long decodeErrors, long nanos, Exception failure) {
+    this.input = input;
+    this.output = output;
+    this.inputSize = inputSize;
+    this.decodeErrors = decodeErrors;
+    this.nanos = nanos;
+    this.failure = failure;
+  }
+
+  public boolean isSuccess() {
+    return failure == null;
+  }
+
+  public Path getInput() {
+    return input;
+  }
+
+  /**
+   * @return output file or null if the input couldn't be read
+   */
+  public Path getOutput() {
+    return output;
+  }
+
+  /**
+   * @return size of the input in bytes
+   */
+  public long getInputSize() {
+    return inputSize;
+  }
+
+  /**
+   * @return number of invalid sequences replaced by a lenient decode error policy
+   */
+  public long getDecodeErrors() {
+    return decodeErrors;
+  }
+
+  /**
+   * @return time spent converting the file in nanoseconds
+   */
+  public long getNanos() {
+    return nanos;
+  }
+
+  /**
+   * @return the reason the file was not converted or null on success
+   */
+  public Exception getFailure() {
+    return failure;
+  }
+}
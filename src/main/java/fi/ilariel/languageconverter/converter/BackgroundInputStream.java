@@ -0,0 +1,153 @@
+package fi.ilariel.languageconverter.converter;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+
+/**
+ * Reads a stream ahead on its own thread, e.g. to decompress the next chunks of a file while the current one is
+ * converted. A fixed set of buffers goes around between the threads, so memory use doesn't depend on the input.
+ */
+final class BackgroundInputStream extends InputStream {
+
+  private static final int BUFFERS = 4;
+  //Handed over after the last buffer of the source
+  private static final Chunk END = new Chunk(0);
+
+  private final InputStream source;
+  private final BlockingQueue<Chunk> empty = new ArrayBlockingQueue<>(BUFFERS);
+  private final BlockingQueue<Chunk> filled = new ArrayBlockingQueue<>(BUFFERS + 1);
+  private final Thread thread;
+  private volatile IOException failure;
+  private Chunk current;
+  private int position;
+  private boolean ended;
+
+  BackgroundInputStream(InputStream source, int bufferSize, String name) {
+    this.source = source;
+    for (int i = 0; i < BUFFERS; i++) {
+      empty.add(new Chunk(bufferSize));
+    }
+    thread = new Thread(this::readAhead, name);
+    thread.setDaemon(true);
+    thread.start();
+  }
+
+  @Override
+  public int read()
+      throws IOException {
+    if (!nextChunk()) {
+      return -1;
+    }
+    return current.data[position++] & 0xFF;
+  }
+
+  @Override
+  public int read(byte[] buffer, int offset, int length)
+      throws IOException {
+    if (length == 0) {
+      return 0;
+    }
+    if (!nextChunk()) {
+      return -1;
+    }
+    int n = Math.min(length, current.length - position);
+    System.arraycopy(current.data, position, buffer, offset, n);
+    position += n;
+    return n;
+  }
+
+  @Override
+  public int available() {
+    return current != null ? current.length - position : 0;
+  }
+
+  @Override
+  public void close()
+      throws IOException {
+    thread.interrupt();
+    try {
+      thread.join();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    source.close();
+  }
+
+  /**
+   * @return false at the end of the source
+   */
+  private boolean nextChunk()
+      throws IOException {
+    if (current != null && position < current.length) {
+      return true;
+    }
+    if (ended) {
+      return false;
+    }
+    if (current != null) {
+      empty.add(current);
+      current = null;
+    }
+    Chunk chunk;
+    try {
+      chunk = filled.take();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while waiting for input");
+    }
+    if (chunk == END) {
+      ended = true;
+      if (failure != null) {
+        throw failure;
+      }
+      return false;
+    }
+    current = chunk;
+    position = 0;
+    return true;
+  }
+
+  private void readAhead() {
+    try {
+      int read = 0;
+      while (read != -1) {
+        Chunk chunk = empty.take();
+        chunk.length = 0;
+        read = source.read(chunk.data);
+        while (read != -1 && chunk.length + read < chunk.data.length) {
+          chunk.length += read;
+          read = source.read(chunk.data, chunk.length, chunk.data.length - chunk.length);
+        }
+        if (read != -1) {
+          chunk.length += read;
+        }
+        if (chunk.length > 0) {
+          filled.put(chunk);
+        } else {
+          empty.put(chunk);
+        }
+      }
+      filled.put(END);
+    } catch (IOException e) {
+      failure = e;
+      //The filled queue has room for the end after all buffers
+      filled.add(END);
+    } catch (InterruptedException e) {
+      //Closed before the end of the source
+    }
+  }
+
+  private static final class Chunk {
+
+    final byte[] data;
+    int length;
+
+    Chunk(int size) {
+      data = new byte[size];
+    }
+  }
+}
@@ -0,0 +1,171 @@
+package fi.ilariel.languageconverter.converter;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+
+/**
+ * Writes a stream on its own thread, e.g. to compress the converted output while the next part is converted. Writes
+ * fill a buffer that is handed over to the thread once full. A failure of the target is thrown by the next write or
+ * by {@link #close()}.
+ */
+final class BackgroundOutputStream extends OutputStream {
+
+  private static final int BUFFERS = 4;
+  //Handed over after the last buffer, the thread closes the target when it gets it
+  private static final Chunk END = new Chunk(0);
+
+  private final OutputStream target;
+  private final BlockingQueue<Chunk> empty = new ArrayBlockingQueue<>(BUFFERS);
+  private final BlockingQueue<Chunk> filled = new ArrayBlockingQueue<>(BUFFERS + 1);
+  private final Thread thread;
+  private volatile IOException failure;
+  private Chunk current;
+  private boolean closed;
+
+  BackgroundOutputStream(OutputStream target, int bufferSize, String name) {
+    this.target = target;
+    for (int i = 0; i < BUFFERS; i++) {
+      empty.add(new Chunk(bufferSize));
+    }
+    thread = new Thread(this::writeBehind, name);
+    thread.setDaemon(true);
+    thread.start();
+  }
+
+  @Override
+  public void write(int b)
+      throws IOException {
+    write(new byte[] {(byte) b}, 0, 1);
+  }
+
+  @Override
+  public void write(byte[] buffer, int offset, int length)
+      throws IOException {
+    checkOpen();
+    while (length > 0) {
+      if (current == null) {
+        current = take(empty);
+        current.length = 0;
+      }
+      int n = Math.min(length, current.data.length - current.length);
+      System.arraycopy(buffer, offset, current.data, current.length, n);
+      current.length += n;
+      offset += n;
+      length -= n;
+      if (current.length == current.data.length) {
+        handOver();
+      }
+    }
+  }
+
+  /**
+   * Hands the buffered bytes to the thread without waiting for them to be written
+   */
+  @Override
+  public void flush()
+      throws IOException {
+    checkOpen();
+    if (current != null && current.length > 0) {
+      handOver();
+    }
+  }
+
+  @Override
+  public void close()
+      throws IOException {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    try {
+      if (current != null && current.length > 0) {
+        filled.put(current);
+      }
+      current = null;
+      filled.put(END);
+      thread.join();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      thread.interrupt();
+      throw new InterruptedIOException("Interrupted while finishing output");
+    }
+    if (failure != null) {
+      throw failure;
+    }
+  }
+
+  private void checkOpen()
+      throws IOException {
+    if (closed) {
+      throw new IOException("Stream closed");
+    }
+    if (failure != null) {
+      throw failure;
+    }
+  }
+
+  private void handOver()
+      throws InterruptedIOException {
+    try {
+      filled.put(current);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while writing output");
+    }
+    current = null;
+  }
+
+  private static Chunk take(BlockingQueue<Chunk> queue)
+      throws InterruptedIOException {
+    try {
+      return queue.take();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while writing output");
+    }
+  }
+
+  private void writeBehind() {
+    try {
+      Chunk chunk = filled.take();
+      while (chunk != END) {
+        //After a failure the buffers are only returned, so the writing thread never blocks
+        if (failure == null) {
+          try {
+            target.write(chunk.data, 0, chunk.length);
+          } catch (IOException e) {
+            failure = e;
+          }
+        }
+        empty.put(chunk);
+        chunk = filled.take();
+      }
+      target.close();
+    } catch (IOException e) {
+      if (failure == null) {
+        failure = e;
+      }
+    } catch (InterruptedException e) {
+      //Abandoned by an interrupted close
+      try {
+        target.close();
+      } catch (IOException closeFailure) {
+        //Already failing
+      }
+    }
+  }
+
+  private static final class Chunk {
+
+    final byte[] data;
+    int length;
+
+    Chunk(int size) {
+      data = new byte[size];
+    }
+  }
+}
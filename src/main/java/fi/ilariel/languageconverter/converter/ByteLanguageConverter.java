@@ -0,0 +1,38 @@
+package fi.ilariel.languageconverter.converter;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+
+/**
+ * Byte stream counterpart of {@link LanguageConverter} for UTF-8 encoded input and output
+ */
+public abstract class ByteLanguageConverter implements Closeable, AutoCloseable {
+
+  protected final InputStream input;
+  protected final OutputStream output;
+  protected MetricsListener metrics = MetricsListener.NONE;
+
+  public ByteLanguageConverter(InputStream input, OutputStream output) {
+    this.input = input;
+    this.output = output;
+  }
+
+  /**
+   * @param metrics receives measurements of the conversion, {@link MetricsListener#NONE} to measure nothing
+   */
+  public void setMetricsListener(MetricsListener metrics) {
+    this.metrics = metrics;
+  }
+
+  @Override
+  public void close()
+      throws IOException {
+    input.close();
+    output.close();
+  }
+
+  public abstract void convert() throws ConversionException;
+}
@@ -0,0 +1,39 @@
+package fi.ilariel.languageconverter.converter;
+
+import java.nio.ByteBuffer;
+
+
+/**
+ * Stateful conversion between UTF-8 encoded byte buffers, a companion to {@link LanguageConverter} for callers that
+ * already have bytes. Input can be fed in pieces of any size, partial characters at the end of a piece are left in the
+ * input buffer for the next call. Heap and direct buffers are both supported.
+ * A transcoder converts one stream and is not thread safe.
+ */
+public interface ByteTranscoder {
+
+  /**
+   * Room the output buffer must have left for {@link #finish(ByteBuffer)}, one character of up to three bytes
+   */
+  int FINISH_OUTPUT_SIZE = 3;
+  /**
+   * Most bytes of a partial character {@link #transcode(ByteBuffer, ByteBuffer, boolean)} leaves in the input
+   */
+  int MAX_PENDING_INPUT = 3;
+
+  /**
+   * Converts as much of the input as fits in the output
+   * @param endOfInput true if there is no more input after this buffer
+   * @return true if conversion stopped because the output buffer is full
+   * @throws ConversionException if the input can't be converted
+   */
+  boolean transcode(ByteBuffer in, ByteBuffer out, boolean endOfInput)
+      throws ConversionException;
+
+  /**
+   * Writes out whatever is still pending after the last input
+   * @param out buffer with at least {@link #FINISH_OUTPUT_SIZE} bytes left
+   * @throws ConversionException if the pending input can't be converted
+   */
+  void finish(ByteBuffer out)
+      throws ConversionException;
+}
@@ -0,0 +1,191 @@
+package fi.ilariel.languageconverter.converter;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+
+/**
+ * Bounded buffer of characters between two threads of a {@link ConversionPipeline}. One thread writes to
+ * {@link #getWriter()} and blocks while the buffer is full, the other reads from {@link #getReader()} and blocks while
+ * it is empty. Closing the writer ends the input of the reader once the buffer is drained. Unlike
+ * {@link java.io.PipedReader} both ends move whole arrays under one lock and wake each other up instead of polling.
+ */
+final class CharRingBuffer {
+
+  private final char[] buffer;
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Condition notEmpty = lock.newCondition();
+  private final Condition notFull = lock.newCondition();
+  private final Writer writer = new RingWriter();
+  private final Reader reader = new RingReader();
+  //Guarded by the lock
+  private int head;
+  private int count;
+  private boolean writerClosed;
+  private boolean readerClosed;
+  private boolean aborted;
+
+  /**
+   * @param capacity most characters held between the writer and the reader
+   */
+  CharRingBuffer(int capacity) {
+    if (capacity < 1) {
+      throw new IllegalArgumentException("Buffer capacity must be positive");
+    }
+    buffer = new char[capacity];
+  }
+
+  Writer getWriter() {
+    return writer;
+  }
+
+  Reader getReader() {
+    return reader;
+  }
+
+  /**
+   * Fails the reads and writes of both ends, so that neither keeps waiting for a thread that has stopped
+   */
+  void abort() {
+    lock.lock();
+    try {
+      aborted = true;
+      notEmpty.signalAll();
+      notFull.signalAll();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private int put(char[] cbuf, int off, int len)
+      throws IOException {
+    lock.lock();
+    try {
+      while (count == buffer.length && !readerClosed && !aborted) {
+        await(notFull);
+      }
+      if (aborted) {
+        throw new AbortedException();
+      }
+      if (writerClosed || readerClosed) {
+        throw new IOException("Pipe closed");
+      }
+      int n = Math.min(len, buffer.length - count);
+      int tail = (head + count) % buffer.length;
+      int first = Math.min(n, buffer.length - tail);
+      System.arraycopy(cbuf, off, buffer, tail, first);
+      System.arraycopy(cbuf, off + first, buffer, 0, n - first);
+      count += n;
+      notEmpty.signal();
+      return n;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private int take(char[] cbuf, int off, int len)
+      throws IOException {
+    lock.lock();
+    try {
+      while (count == 0 && !writerClosed && !readerClosed && !aborted) {
+        await(notEmpty);
+      }
+      if (aborted) {
+        throw new AbortedException();
+      }
+      if (readerClosed) {
+        throw new IOException("Pipe closed");
+      }
+      if (count == 0) {
+        return -1;
+      }
+      int n = Math.min(len, count);
+      int first = Math.min(n, buffer.length - head);
+      System.arraycopy(buffer, head, cbuf, off, first);
+      System.arraycopy(buffer, 0, cbuf, off + first, n - first);
+      head = (head + n) % buffer.length;
+      count -= n;
+      notFull.signal();
+      return n;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private void closeEnd(boolean writerEnd) {
+    lock.lock();
+    try {
+      if (writerEnd) {
+        writerClosed = true;
+        notEmpty.signalAll();
+      } else {
+        readerClosed = true;
+        notFull.signalAll();
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private static void await(Condition condition)
+      throws InterruptedIOException {
+    try {
+      condition.await();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while waiting for the pipeline");
+    }
+  }
+
+  /**
+   * Thrown to a stage when another stage of the pipeline has failed, so the pipeline can report the original error
+   */
+  static final class AbortedException extends IOException {
+
+    private static final long serialVersionUID = 1L;
+
+    AbortedException() {
+      super("Another stage of the pipeline failed");
+    }
+  }
+
+  private final class RingWriter extends Writer {
+
+    @Override
+    public void write(char[] cbuf, int off, int len)
+        throws IOException {
+      while (len > 0) {
+        int n = put(cbuf, off, len);
+        off += n;
+        len -= n;
+      }
+    }
+
+    @Override
+    public void flush() {
+    }
+
+    @Override
+    public void close() {
+      closeEnd(true);
+    }
+  }
+
+  private final class RingReader extends Reader {
+
+    @Override
+    public int read(char[] cbuf, int off, int len)
+        throws IOException {
+      return len == 0 ? 0 : take(cbuf, off, len);
+    }
+
+    @Override
+    public void close() {
+      closeEnd(false);
+    }
+  }
+}
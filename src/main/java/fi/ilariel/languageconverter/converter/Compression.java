@@ -0,0 +1,143 @@
+package fi.ilariel.languageconverter.converter;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+
+/**
+ * Compression of input and output files. Inputs are recognized by their first bytes and outputs by their file name
+ * extension. Compressed files are (de)compressed on a thread of their own while the calling thread converts, so
+ * archives don't have to be unpacked to disk first.
+ */
+public enum Compression {
+  NONE(null, new byte[0]),
+  GZIP(".gz", new byte[] {0x1F, (byte) 0x8B}),
+  //Recognized so that archives fail with a clear message, the JDK has no zstd codec
+  ZSTD(".zst", new byte[] {0x28, (byte) 0xB5, 0x2F, (byte) 0xFD});
+
+  private static final int BUFFER_SIZE = 64 * 1024;
+  private static final int MAX_MAGIC_LENGTH = 4;
+
+  private final String extension;
+  private final byte[] magic;
+
+  Compression(String extension, byte[] magic) {
+    this.extension = extension;
+    this.magic = magic;
+  }
+
+  /**
+   * @return the compression of a file with the given name, {@link #NONE} for unknown extensions
+   */
+  public static Compression ofName(String fileName) {
+    String name = fileName.toLowerCase(Locale.ROOT);
+    for (Compression compression : values()) {
+      if (compression.extension != null && name.endsWith(compression.extension)) {
+        return compression;
+      }
+    }
+    return NONE;
+  }
+
+  /**
+   * @return the compression whose magic bytes start the file, {@link #NONE} if none does
+   */
+  public static Compression ofContent(File file)
+      throws IOException {
+    try (InputStream input = new FileInputStream(file)) {
+      return ofContent(readStart(input));
+    }
+  }
+
+  private static byte[] readStart(InputStream input)
+      throws IOException {
+    byte[] start = new byte[MAX_MAGIC_LENGTH];
+    return Arrays.copyOf(start, input.readNBytes(start, 0, start.length));
+  }
+
+  private static Compression ofContent(byte[] start) {
+    for (Compression compression : values()) {
+      if (compression.magic.length > 0 && start.length >= compression.magic.length
+          && Arrays.equals(compression.magic, Arrays.copyOf(start, compression.magic.length))) {
+        return compression;
+      }
+    }
+    return NONE;
+  }
+
+  /**
+   * Opens a file for reading, decompressing it in the background if it is compressed
+   * @throws IOException if the file can't be opened or its compression is not supported
+   */
+  public static InputStream openInput(File file)
+      throws IOException {
+    BufferedInputStream input = new BufferedInputStream(new FileInputStream(file), BUFFER_SIZE);
+    try {
+      input.mark(MAX_MAGIC_LENGTH);
+      byte[] start = readStart(input);
+      input.reset();
+      return ofContent(start).decompress(input);
+    } catch (IOException e) {
+      input.close();
+      throw e;
+    }
+  }
+
+  /**
+   * Opens a file for writing, compressing it in the background if its extension asks for it
+   * @throws IOException if the file can't be created or its compression is not supported
+   */
+  public static OutputStream openOutput(File file)
+      throws IOException {
+    Compression compression = ofName(file.getName());
+    compression.checkSupported();
+    return compression.compress(new FileOutputStream(file));
+  }
+
+  /**
+   * @param input compressed stream, closed with the returned stream
+   */
+  public InputStream decompress(InputStream input)
+      throws IOException {
+    checkSupported();
+    if (this == NONE) {
+      return input;
+    }
+    return new BackgroundInputStream(new GZIPInputStream(input, BUFFER_SIZE), BUFFER_SIZE, "decompress");
+  }
+
+  /**
+   * @param output stream for the compressed bytes, closed with the returned stream
+   */
+  public OutputStream compress(OutputStream output)
+      throws IOException {
+    checkSupported();
+    if (this == NONE) {
+      return output;
+    }
+    return new BackgroundOutputStream(new GZIPOutputStream(output, BUFFER_SIZE), BUFFER_SIZE, "compress");
+  }
+
+  /**
+   * @return false for formats that are only recognized
+   */
+  public boolean isSupported() {
+    return this != ZSTD;
+  }
+
+  private void checkSupported()
+      throws IOException {
+    if (!isSupported()) {
+      throw new IOException(name().toLowerCase(Locale.ROOT) + " compression is not supported, use gzip");
+    }
+  }
+}
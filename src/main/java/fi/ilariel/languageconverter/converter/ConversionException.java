@@ -5,11 +5,46 @@ import java.io.IOException;
 
 public class ConversionException extends Exception {
 
+  /**
+   * Value of {@link #getOffset()} and {@link #getLine()} when the position is not known
+   */
+  public static final long UNKNOWN_POSITION = -1;
+
+  private final long offset;
+  private final long line;
+
   public ConversionException(String message) {
+    this(message, UNKNOWN_POSITION, UNKNOWN_POSITION);
+  }
+
+  /**
+   * @param offset position of the failing input counted from the start of the input. Characters for readers and
+   * bytes for byte streams
+   * @param line line of the failing input, starting from 1
+   */
+  public ConversionException(String message, long offset, long line) {
     super(message);
+    this.offset = offset;
+    this.line = line;
   }
 
   public ConversionException(Throwable e) {
     super(e);
+    this.offset = UNKNOWN_POSITION;
+    this.line = UNKNOWN_POSITION;
+  }
+
+  /**
+   * @return offset of the failing input in characters or bytes or {@link #UNKNOWN_POSITION}
+   */
+  public long getOffset() {
+    return offset;
+  }
+
+  /**
+   * @return line of the failing input or {@link #UNKNOWN_POSITION}
+   */
+  public long getLine() {
+    return line;
   }
 }
@@ -0,0 +1,260 @@
+package fi.ilariel.languageconverter.converter;
+
+import java.io.FilterReader;
+import java.io.FilterWriter;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+
+/**
+ * Converter made of other converters, each stage reading what the previous one wrote. Stages are connected by bounded
+ * ring buffers and run at the same time on their own threads, the last one on the thread calling {@link #convert()},
+ * so the intermediate results are never held whole and memory use doesn't depend on the size of the input. A round
+ * trip check of a file is e.g.
+ * <pre>
+ * ConversionPipeline.builder()
+ *     .then((in, out) -&gt; new MorseConverter(new BufferedReader(in), out, Mode.TEXT_TO_MORSE))
+ *     .then((in, out) -&gt; new MorseConverter(new BufferedReader(in), out, Mode.MORSE_TO_TEXT))
+ *     .build(reader, writer)
+ * </pre>
+ * A pipeline is a converter itself, so it can be a stage of another pipeline. If a stage fails, the others are stopped
+ * and its error is thrown.
+ */
+public final class ConversionPipeline extends LanguageConverter {
+
+  /**
+   * Characters buffered between two stages unless set with {@link Builder#bufferSize(int)}
+   */
+  public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+  private final List<Stage> stages;
+  private final int bufferSize;
+
+  private ConversionPipeline(Reader reader, Writer writer, Builder builder) {
+    super(reader, writer);
+    this.stages = new ArrayList<>(builder.stages);
+    this.bufferSize = builder.bufferSize;
+  }
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  /**
+   * Runs all stages until the input is converted or a stage fails.
+   * @throws ConversionException the error of the stage that failed first in pipeline order
+   */
+  @Override
+  public void convert()
+      throws ConversionException {
+    long start = System.nanoTime();
+    int count = stages.size();
+    List<CharRingBuffer> buffers = new ArrayList<>(count - 1);
+    for (int i = 1; i < count; i++) {
+      buffers.add(new CharRingBuffer(bufferSize));
+    }
+    ExecutorService executor = count > 1 ? Executors.newFixedThreadPool(count - 1, task -> {
+      Thread thread = new Thread(task, "conversion-pipeline");
+      thread.setDaemon(true);
+      return thread;
+    }) : null;
+    List<Future<?>> running = new ArrayList<>(count - 1);
+    Throwable[] errors = new Throwable[count];
+    boolean success = false;
+
+    try {
+      for (int i = 0; i < count - 1; i++) {
+        int index = i;
+        running.add(executor.submit(() -> {
+          runStage(index, buffers);
+          return null;
+        }));
+      }
+      try {
+        runStage(count - 1, buffers);
+      } catch (ConversionException | RuntimeException | Error e) {
+        errors[count - 1] = e;
+      }
+      for (int i = 0; i < count - 1; i++) {
+        try {
+          running.get(i).get();
+        } catch (ExecutionException e) {
+          errors[i] = e.getCause();
+        }
+      }
+      throwFirstError(errors);
+      success = true;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      buffers.forEach(CharRingBuffer::abort);
+      throw new ConversionException(e);
+    } finally {
+      if (executor != null) {
+        executor.shutdownNow();
+      }
+      if (metrics != MetricsListener.NONE) {
+        metrics.conversionFinished(System.nanoTime() - start, success);
+      }
+    }
+  }
+
+  /**
+   * Converts with one stage and closes its ends of the buffers, or aborts them if the stage fails
+   */
+  private void runStage(int index, List<CharRingBuffer> buffers)
+      throws ConversionException {
+    CharRingBuffer input = index > 0 ? buffers.get(index - 1) : null;
+    CharRingBuffer output = index < buffers.size() ? buffers.get(index) : null;
+    //The ends of the pipeline belong to the caller, so the stages must not close them
+    Reader in = input != null ? input.getReader() : new UnclosedReader(reader);
+    Writer out = output != null ? output.getWriter() : new UnclosedWriter(writer);
+    boolean success = false;
+    LanguageConverter converter = null;
+
+    try {
+      converter = stages.get(index).create(in, out);
+      converter.convert();
+      success = true;
+    } finally {
+      if (!success) {
+        if (input != null) {
+          input.abort();
+        }
+        if (output != null) {
+          output.abort();
+        }
+      }
+      try {
+        if (converter != null) {
+          converter.close();
+        } else {
+          in.close();
+          out.close();
+        }
+      } catch (IOException e) {
+        if (success) {
+          throw new ConversionException(e);
+        }
+      }
+    }
+  }
+
+  /**
+   * Errors caused by another stage failing are only thrown if there is nothing else to throw
+   */
+  private static void throwFirstError(Throwable[] errors)
+      throws ConversionException {
+    Throwable first = null;
+    for (Throwable error : errors) {
+      if (error != null && (first == null || isAborted(first) && !isAborted(error))) {
+        first = error;
+      }
+    }
+    if (first instanceof ConversionException) {
+      throw (ConversionException) first;
+    } else if (first instanceof RuntimeException) {
+      throw (RuntimeException) first;
+    } else if (first instanceof Error) {
+      throw (Error) first;
+    } else if (first != null) {
+      throw new ConversionException(first);
+    }
+  }
+
+  private static boolean isAborted(Throwable error) {
+    for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+      if (cause instanceof CharRingBuffer.AbortedException) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Creates the converter of one stage of a pipeline, e.g. {@link ConverterProvider#newConverter(Reader, Writer)}
+   */
+  @FunctionalInterface
+  public interface Stage {
+
+    /**
+     * @param reader output of the previous stage or the input of the pipeline
+     * @param writer input of the next stage or the output of the pipeline
+     */
+    LanguageConverter create(Reader reader, Writer writer);
+  }
+
+  public static final class Builder {
+
+    private final List<Stage> stages = new ArrayList<>();
+    private int bufferSize = DEFAULT_BUFFER_SIZE;
+
+    private Builder() {
+    }
+
+    /**
+     * Adds a stage after the ones added so far
+     */
+    public Builder then(Stage stage) {
+      if (stage == null) {
+        throw new IllegalArgumentException("Stage must not be null");
+      }
+      stages.add(stage);
+      return this;
+    }
+
+    /**
+     * @param bufferSize characters buffered between two stages, bounds the memory used for intermediate results
+     */
+    public Builder bufferSize(int bufferSize) {
+      if (bufferSize < 1) {
+        throw new IllegalArgumentException("Buffer size must be positive");
+      }
+      this.bufferSize = bufferSize;
+      return this;
+    }
+
+    public ConversionPipeline build(Reader reader, Writer writer) {
+      if (stages.isEmpty()) {
+        throw new IllegalStateException("Pipeline needs at least one stage");
+      }
+      return new ConversionPipeline(reader, writer, this);
+    }
+  }
+
+  /**
+   * Input of the first stage, left open for the caller
+   */
+  private static final class UnclosedReader extends FilterReader {
+
+    UnclosedReader(Reader reader) {
+      super(reader);
+    }
+
+    @Override
+    public void close() {
+    }
+  }
+
+  /**
+   * Output of the last stage, flushed but left open for the caller
+   */
+  private static final class UnclosedWriter extends FilterWriter {
+
+    UnclosedWriter(Writer writer) {
+      super(writer);
+    }
+
+    @Override
+    public void close()
+        throws IOException {
+      flush();
+    }
+  }
+}
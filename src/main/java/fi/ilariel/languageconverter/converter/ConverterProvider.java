@@ -0,0 +1,28 @@
+package fi.ilariel.languageconverter.converter;
+
+import java.io.Reader;
+import java.io.Writer;
+
+
+/**
+ * Named factory of {@link LanguageConverter}s. Providers are found by name through a {@link ConverterRegistry}, other
+ * jars add their own by listing them in META-INF/services/fi.ilariel.languageconverter.converter.ConverterProvider.
+ * Implementations need a public constructor without arguments to be loaded as services.
+ */
+public interface ConverterProvider {
+
+  /**
+   * @return unique name used to pick the converter, e.g. "morse-encode"
+   */
+  String getName();
+
+  /**
+   * @return one line description for listings
+   */
+  String getDescription();
+
+  /**
+   * @return a new converter from the reader to the writer
+   */
+  LanguageConverter newConverter(Reader reader, Writer writer);
+}
@@ -0,0 +1,81 @@
+package fi.ilariel.languageconverter.converter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.ServiceLoader;
+
+
+/**
+ * Converters by name. Providers registered directly are found without reflection, which keeps the common case cheap
+ * at startup and free of configuration for ahead of time compilation. Providers of other jars are loaded with
+ * {@link ServiceLoader} only when a name isn't registered or all providers are listed.
+ */
+public final class ConverterRegistry {
+
+  private final Map<String, ConverterProvider> providers = new LinkedHashMap<>();
+  private final ClassLoader classLoader;
+  private boolean servicesLoaded;
+
+  /**
+   * Registry that loads services with the class loader of the registry
+   */
+  public ConverterRegistry() {
+    this(ConverterRegistry.class.getClassLoader());
+  }
+
+  /**
+   * @param classLoader class loader of the service providers
+   */
+  public ConverterRegistry(ClassLoader classLoader) {
+    this.classLoader = classLoader;
+  }
+
+  /**
+   * @return this registry, for chaining
+   * @throws IllegalArgumentException if another provider already has the same name
+   */
+  public synchronized ConverterRegistry register(ConverterProvider provider) {
+    ConverterProvider previous = providers.putIfAbsent(provider.getName(), provider);
+    if (previous != null && previous != provider) {
+      throw new IllegalArgumentException(String.format("Converter \"%s\" is already registered",
+          provider.getName()));
+    }
+    return this;
+  }
+
+  /**
+   * @return provider with the name or null if there is none, registered or as a service
+   */
+  public synchronized ConverterProvider get(String name) {
+    ConverterProvider provider = providers.get(name);
+    if (provider == null && !servicesLoaded) {
+      loadServices();
+      provider = providers.get(name);
+    }
+    return provider;
+  }
+
+  /**
+   * @return all providers in registration order, followed by services
+   */
+  public synchronized List<ConverterProvider> getProviders() {
+    if (!servicesLoaded) {
+      loadServices();
+    }
+    return Collections.unmodifiableList(new ArrayList<>(providers.values()));
+  }
+
+  /**
+   * Adds service providers whose names are not registered yet, a registered provider wins over a service with the
+   * same name, e.g. when the jar itself is on the class path and lists its built in providers
+   */
+  private void loadServices() {
+    servicesLoaded = true;
+    for (ConverterProvider provider : ServiceLoader.load(ConverterProvider.class, classLoader)) {
+      providers.putIfAbsent(provider.getName(), provider);
+    }
+  }
+}
@@ -11,12 +11,20 @@ public abstract class LanguageConverter implements Closeable, AutoCloseable {
 
   protected final Reader reader;
   protected final Writer writer;
+  protected MetricsListener metrics = MetricsListener.NONE;
 
   public LanguageConverter(Reader reader, Writer writer)  {
     this.reader = reader;
     this.writer = writer;
   }
 
+  /**
+   * @param metrics receives measurements of the conversion, {@link MetricsListener#NONE} to measure nothing
+   */
+  public void setMetricsListener(MetricsListener metrics) {
+    this.metrics = metrics;
+  }
+
   @Override
   public void close()
       throws IOException {
@@ -0,0 +1,59 @@
+package fi.ilariel.languageconverter.converter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+
+/**
+ * Byte stream counterpart of {@link MeteredWriter}
+ */
+public final class MeteredOutputStream extends OutputStream {
+
+  private final OutputStream output;
+  private final MetricsListener metrics;
+  private long nanos;
+
+  public MeteredOutputStream(OutputStream output, MetricsListener metrics) {
+    this.output = output;
+    this.metrics = metrics;
+  }
+
+  /**
+   * @return total time spent writing so far
+   */
+  public long getNanos() {
+    return nanos;
+  }
+
+  @Override
+  public void write(byte[] buffer, int offset, int length)
+      throws IOException {
+    long start = System.nanoTime();
+    output.write(buffer, offset, length);
+    long elapsed = System.nanoTime() - start;
+    nanos += elapsed;
+    metrics.outputWritten(length, elapsed);
+  }
+
+  @Override
+  public void write(int b)
+      throws IOException {
+    long start = System.nanoTime();
+    output.write(b);
+    long elapsed = System.nanoTime() - start;
+    nanos += elapsed;
+    metrics.outputWritten(1, elapsed);
+  }
+
+  @Override
+  public void flush()
+      throws IOException {
+    output.flush();
+  }
+
+  @Override
+  public void close()
+      throws IOException {
+    output.close();
+  }
+}
@@ -0,0 +1,60 @@
+package fi.ilariel.languageconverter.converter;
+
+import java.io.IOException;
+import java.io.Writer;
+
+
+/**
+ * Writer that reports the time spent in the writes of another writer to a {@link MetricsListener}. Writes are
+ * timed even for {@link MetricsListener#NONE}, so wrap buffered writes rather than single characters.
+ */
+public final class MeteredWriter extends Writer {
+
+  private final Writer writer;
+  private final MetricsListener metrics;
+  private long nanos;
+
+  public MeteredWriter(Writer writer, MetricsListener metrics) {
+    this.writer = writer;
+    this.metrics = metrics;
+  }
+
+  /**
+   * @return total time spent writing so far
+   */
+  public long getNanos() {
+    return nanos;
+  }
+
+  @Override
+  public void write(char[] buffer, int offset, int length)
+      throws IOException {
+    long start = System.nanoTime();
+    writer.write(buffer, offset, length);
+    long elapsed = System.nanoTime() - start;
+    nanos += elapsed;
+    metrics.outputWritten(length, elapsed);
+  }
+
+  @Override
+  public void write(int ch)
+      throws IOException {
+    long start = System.nanoTime();
+    writer.write(ch);
+    long elapsed = System.nanoTime() - start;
+    nanos += elapsed;
+    metrics.outputWritten(1, elapsed);
+  }
+
+  @Override
+  public void flush()
+      throws IOException {
+    writer.flush();
+  }
+
+  @Override
+  public void close()
+      throws IOException {
+    writer.close();
+  }
+}
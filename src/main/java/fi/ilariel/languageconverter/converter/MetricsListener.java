@@ -0,0 +1,62 @@
+package fi.ilariel.languageconverter.converter;
+
+
+/**
+ * Receives measurements from converters. Units are characters for {@link LanguageConverter} and bytes for
+ * {@link ByteLanguageConverter}. Timings are reported per chunk of input and counts once per conversion, so a listener
+ * is called a few times per buffer rather than per character. Converters may call a listener from several threads.
+ * {@link #NONE} does nothing, so converters may report to it unconditionally. Converters whose measurements cost more
+ * than a few clock reads per chunk check for it first.
+ */
+public interface MetricsListener {
+
+  /**
+   * Listener that ignores everything, the default of every converter
+   */
+  MetricsListener NONE = new MetricsListener() {
+  };
+
+  /**
+   * A read from the input returned units after blocking for nanos
+   */
+  default void inputRead(long units, long nanos) {
+  }
+
+  /**
+   * A write of units to the output took nanos
+   */
+  default void outputWritten(long units, long nanos) {
+  }
+
+  /**
+   * Converting a chunk of units took nanos, not counting time spent writing the output
+   */
+  default void chunkConverted(long units, long nanos) {
+  }
+
+  /**
+   * A conversion decoded count Morse code symbols
+   */
+  default void symbolsDecoded(long count) {
+  }
+
+  /**
+   * A conversion found count errors of the type. Fail fast conversions find at most one
+   */
+  default void errors(ErrorType type, long count) {
+  }
+
+  /**
+   * A conversion ended after nanos
+   * @param success false if it ended with an exception
+   */
+  default void conversionFinished(long nanos, boolean success) {
+  }
+
+  /**
+   * Kinds of errors counted by converters
+   */
+  enum ErrorType {
+    INVALID_SEQUENCE, REPEATED_DELIMITER, UNSUPPORTED_CHARACTER, IO
+  }
+}
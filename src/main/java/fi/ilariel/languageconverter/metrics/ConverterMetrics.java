@@ -0,0 +1,233 @@
+package fi.ilariel.languageconverter.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+import fi.ilariel.languageconverter.converter.MetricsListener;
+
+
+/**
+ * Metrics listener that adds up everything reported by converters in striped counters and latency histograms. One
+ * instance can be shared by any number of converters and threads. Readable through JMX after {@link #register()} or as
+ * text from {@link #dump()}.
+ */
+public class ConverterMetrics implements MetricsListener, ConverterMetricsMBean {
+
+  /**
+   * Name used by {@link #register()}
+   */
+  public static final String DEFAULT_OBJECT_NAME = "fi.ilariel.languageconverter:type=ConverterMetrics";
+
+  private final LongAdder conversions = new LongAdder();
+  private final LongAdder failedConversions = new LongAdder();
+  private final LongAdder inputUnits = new LongAdder();
+  private final LongAdder outputUnits = new LongAdder();
+  private final LongAdder symbolsDecoded = new LongAdder();
+  private final LongAdder[] errors = new LongAdder[ErrorType.values().length];
+  private final LongAdder convertNanos = new LongAdder();
+  private final LatencyHistogram readLatency = new LatencyHistogram();
+  private final LatencyHistogram writeLatency = new LatencyHistogram();
+  private final LatencyHistogram chunkLatency = new LatencyHistogram();
+  private final LatencyHistogram conversionLatency = new LatencyHistogram();
+
+  public ConverterMetrics() {
+    for (int i = 0; i < errors.length; i++) {
+      errors[i] = new LongAdder();
+    }
+  }
+
+  /**
+   * Registers the metrics to the platform MBean server as {@link #DEFAULT_OBJECT_NAME}
+   * @throws JMException if the name is taken
+   */
+  public ObjectName register()
+      throws JMException {
+    return register(DEFAULT_OBJECT_NAME);
+  }
+
+  public ObjectName register(String name)
+      throws JMException {
+    ObjectName objectName = new ObjectName(name);
+    ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+    return objectName;
+  }
+
+  @Override
+  public void inputRead(long units, long nanos) {
+    inputUnits.add(units);
+    readLatency.record(nanos);
+  }
+
+  @Override
+  public void outputWritten(long units, long nanos) {
+    outputUnits.add(units);
+    writeLatency.record(nanos);
+  }
+
+  @Override
+  public void chunkConverted(long units, long nanos) {
+    convertNanos.add(nanos);
+    chunkLatency.record(nanos);
+  }
+
+  @Override
+  public void symbolsDecoded(long count) {
+    symbolsDecoded.add(count);
+  }
+
+  @Override
+  public void errors(ErrorType type, long count) {
+    errors[type.ordinal()].add(count);
+  }
+
+  @Override
+  public void conversionFinished(long nanos, boolean success) {
+    conversions.increment();
+    if (!success) {
+      failedConversions.increment();
+    }
+    conversionLatency.record(nanos);
+  }
+
+  public LatencyHistogram getReadLatency() {
+    return readLatency;
+  }
+
+  public LatencyHistogram getWriteLatency() {
+    return writeLatency;
+  }
+
+  public LatencyHistogram getChunkLatency() {
+    return chunkLatency;
+  }
+
+  public LatencyHistogram getConversionLatency() {
+    return conversionLatency;
+  }
+
+  public long getErrors(ErrorType type) {
+    return errors[type.ordinal()].sum();
+  }
+
+  @Override
+  public long getConversions() {
+    return conversions.sum();
+  }
+
+  @Override
+  public long getFailedConversions() {
+    return failedConversions.sum();
+  }
+
+  @Override
+  public long getInputUnits() {
+    return inputUnits.sum();
+  }
+
+  @Override
+  public long getOutputUnits() {
+    return outputUnits.sum();
+  }
+
+  @Override
+  public long getSymbolsDecoded() {
+    return symbolsDecoded.sum();
+  }
+
+  @Override
+  public long getInvalidSequences() {
+    return getErrors(ErrorType.INVALID_SEQUENCE);
+  }
+
+  @Override
+  public long getRepeatedDelimiters() {
+    return getErrors(ErrorType.REPEATED_DELIMITER);
+  }
+
+  @Override
+  public long getUnsupportedCharacters() {
+    return getErrors(ErrorType.UNSUPPORTED_CHARACTER);
+  }
+
+  @Override
+  public long getIoErrors() {
+    return getErrors(ErrorType.IO);
+  }
+
+  @Override
+  public long getReadMillis() {
+    return TimeUnit.NANOSECONDS.toMillis(readLatency.getSum());
+  }
+
+  @Override
+  public long getWriteMillis() {
+    return TimeUnit.NANOSECONDS.toMillis(writeLatency.getSum());
+  }
+
+  @Override
+  public long getConvertMillis() {
+    return TimeUnit.NANOSECONDS.toMillis(convertNanos.sum());
+  }
+
+  @Override
+  public long getChunkLatencyP50Micros() {
+    return TimeUnit.NANOSECONDS.toMicros(chunkLatency.getPercentile(0.5));
+  }
+
+  @Override
+  public long getChunkLatencyP99Micros() {
+    return TimeUnit.NANOSECONDS.toMicros(chunkLatency.getPercentile(0.99));
+  }
+
+  @Override
+  public long getConversionLatencyP50Millis() {
+    return TimeUnit.NANOSECONDS.toMillis(conversionLatency.getPercentile(0.5));
+  }
+
+  @Override
+  public long getConversionLatencyP99Millis() {
+    return TimeUnit.NANOSECONDS.toMillis(conversionLatency.getPercentile(0.99));
+  }
+
+  @Override
+  public long getConversionLatencyMaxMillis() {
+    return TimeUnit.NANOSECONDS.toMillis(conversionLatency.getMax());
+  }
+
+  @Override
+  public void reset() {
+    conversions.reset();
+    failedConversions.reset();
+    inputUnits.reset();
+    outputUnits.reset();
+    symbolsDecoded.reset();
+    for (LongAdder counter : errors) {
+      counter.reset();
+    }
+    convertNanos.reset();
+    readLatency.reset();
+    writeLatency.reset();
+    chunkLatency.reset();
+    conversionLatency.reset();
+  }
+
+  /**
+   * @return the metrics as a few lines of text
+   */
+  public String dump() {
+    return String.format("conversions %d (%d failed), input %d, output %d, symbols %d%n"
+            + "errors: invalid sequences %d, repeated delimiters %d, unsupported characters %d, I/O %d%n"
+            + "time: read %d ms, write %d ms, convert %d ms%n"
+            + "chunk latency: p50 %d us, p99 %d us, max %d us%n"
+            + "conversion latency: p50 %d ms, p99 %d ms, max %d ms%n",
+        getConversions(), getFailedConversions(), getInputUnits(), getOutputUnits(), getSymbolsDecoded(),
+        getInvalidSequences(), getRepeatedDelimiters(), getUnsupportedCharacters(), getIoErrors(),
+        getReadMillis(), getWriteMillis(), getConvertMillis(),
+        getChunkLatencyP50Micros(), getChunkLatencyP99Micros(), TimeUnit.NANOSECONDS.toMicros(chunkLatency.getMax()),
+        getConversionLatencyP50Millis(), getConversionLatencyP99Millis(), getConversionLatencyMaxMillis());
+  }
+}
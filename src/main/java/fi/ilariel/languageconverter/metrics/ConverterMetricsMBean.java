@@ -0,0 +1,44 @@
+package fi.ilariel.languageconverter.metrics;
+
+
+/**
+ * JMX view of {@link ConverterMetrics}. Units are characters or bytes depending on the converters measured
+ */
+public interface ConverterMetricsMBean {
+
+  long getConversions();
+
+  long getFailedConversions();
+
+  long getInputUnits();
+
+  long getOutputUnits();
+
+  long getSymbolsDecoded();
+
+  long getInvalidSequences();
+
+  long getRepeatedDelimiters();
+
+  long getUnsupportedCharacters();
+
+  long getIoErrors();
+
+  long getReadMillis();
+
+  long getWriteMillis();
+
+  long getConvertMillis();
+
+  long getChunkLatencyP50Micros();
+
+  long getChunkLatencyP99Micros();
+
+  long getConversionLatencyP50Millis();
+
+  long getConversionLatencyP99Millis();
+
+  long getConversionLatencyMaxMillis();
+
+  void reset();
+}
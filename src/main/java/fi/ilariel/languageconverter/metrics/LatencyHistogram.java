@@ -0,0 +1,81 @@
+package fi.ilariel.languageconverter.metrics;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+
+/**
+ * Concurrent histogram of durations in nanoseconds. Values are counted in power of two buckets with striped counters,
+ * so recording is a few additions without locks or allocation and percentiles are accurate to a factor of two.
+ */
+public final class LatencyHistogram {
+
+  //Bucket i counts values of bit length i, that is values from 2^(i-1) to 2^i - 1
+  private static final int BUCKETS = Long.SIZE;
+
+  private final LongAdder[] buckets = new LongAdder[BUCKETS];
+  private final LongAdder count = new LongAdder();
+  private final LongAdder sum = new LongAdder();
+  private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+  public LatencyHistogram() {
+    for (int i = 0; i < BUCKETS; i++) {
+      buckets[i] = new LongAdder();
+    }
+  }
+
+  public void record(long nanos) {
+    long value = Math.max(nanos, 0);
+    buckets[Long.SIZE - Long.numberOfLeadingZeros(value)].increment();
+    count.increment();
+    sum.add(value);
+    max.accumulate(value);
+  }
+
+  public long getCount() {
+    return count.sum();
+  }
+
+  public long getSum() {
+    return sum.sum();
+  }
+
+  public long getMax() {
+    return max.get();
+  }
+
+  public long getMean() {
+    long values = count.sum();
+    return values == 0 ? 0 : sum.sum() / values;
+  }
+
+  /**
+   * @param fraction percentile as a fraction, e.g. 0.99
+   * @return upper bound of the bucket holding the percentile, never more than the maximum
+   */
+  public long getPercentile(double fraction) {
+    long values = count.sum();
+    if (values == 0) {
+      return 0;
+    }
+    long target = Math.max(1, (long) Math.ceil(fraction * values));
+    long seen = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      seen += buckets[i].sum();
+      if (seen >= target) {
+        long upperBound = i == BUCKETS - 1 ? Long.MAX_VALUE : (1L << i) - 1;
+        return Math.min(upperBound, max.get());
+      }
+    }
+    return max.get();
+  }
+
+  public void reset() {
+    for (LongAdder bucket : buckets) {
+      bucket.reset();
+    }
+    count.reset();
+    sum.reset();
+    max.reset();
+  }
+}
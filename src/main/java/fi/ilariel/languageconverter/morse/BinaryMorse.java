@@ -0,0 +1,53 @@
+package fi.ilariel.languageconverter.morse;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.Writer;
+
+
+/**
+ * Converts Morse code between UTF-8 characters and the bit-packed {@link BinaryMorseFormat} without decoding it. Any
+ * characters convert back unchanged, but only dits, dahs, delimiters, spaces and line feeds are packed compactly.
+ */
+public final class BinaryMorse {
+
+  private static final int BUFFER_SIZE = 8192;
+
+  private BinaryMorse() {
+  }
+
+  /**
+   * Packs Morse code read from the reader. The output stream is closed once the index has been written.
+   * @throws IOException if reading or writing fails
+   */
+  public static void pack(Reader morse, OutputStream binary)
+      throws IOException {
+    try (BinaryMorseWriter writer = new BinaryMorseWriter(binary)) {
+      copy(morse, writer);
+    }
+  }
+
+  /**
+   * Unpacks a binary Morse file to Morse code characters. The writer is flushed but not closed.
+   * @throws IOException if the input is not a binary Morse file, or reading or writing fails
+   */
+  public static void unpack(InputStream binary, Writer morse)
+      throws IOException {
+    try (BinaryMorseReader reader = new BinaryMorseReader(binary)) {
+      copy(reader, morse);
+    }
+    morse.flush();
+  }
+
+  private static void copy(Reader reader, Writer writer)
+      throws IOException {
+    char[] buffer = new char[BUFFER_SIZE];
+    int read = reader.read(buffer);
+    while (read != -1) {
+      writer.write(buffer, 0, read);
+      read = reader.read(buffer);
+    }
+  }
+}
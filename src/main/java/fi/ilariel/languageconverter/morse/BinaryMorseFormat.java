@@ -0,0 +1,45 @@
+package fi.ilariel.languageconverter.morse;
+
+
+/**
+ * Layout of bit-packed binary Morse files written by {@link BinaryMorseWriter} and read by {@link BinaryMorseReader}.
+ * <pre>
+ * header   magic "MRSB", version byte, 3 reserved bytes, int target block size in Morse characters
+ * blocks   int Morse characters, int byte length, bit-packed tokens padded to a whole byte
+ * end      int -1
+ * index    int block count, per block: long Morse offset, long text offset, long line, long file offset,
+ *          byte 1 if the block starts right after a delimiter dot
+ * trailer  long file offset of the index, magic "MRSI"
+ * </pre>
+ * Tokens start with a 3 bit head. Heads 1−6 are that many dits (0) and dahs (1) and head 7 is a space, both followed by
+ * a bit telling whether a delimiter dot follows. Head 0 is followed by 2 bits for a dot, a line feed, a carriage return
+ * or a literal 16 bit character. A typical letter takes 7−8 bits instead of 10−20 bytes of UTF-8. Symbols longer than
+ * 6 elements or broken by line breaks are split into several tokens, so any text converts back to the same characters.
+ * Blocks only end between symbols, so every block can be decoded on its own with the state kept in the index.
+ * Numbers are big-endian.
+ */
+final class BinaryMorseFormat {
+
+  static final int MAGIC = 0x4D525342;
+  static final int INDEX_MAGIC = 0x4D525349;
+  static final int VERSION = 1;
+  static final int HEADER_SIZE = 12;
+  static final int TRAILER_SIZE = 12;
+  static final int END_OF_BLOCKS = -1;
+  static final int DEFAULT_BLOCK_SIZE = 64 * 1024;
+  static final int INDEX_ENTRY_SIZE = 4 * Long.BYTES + 1;
+
+  static final int HEAD_BITS = 3;
+  static final int CONTROL = 0;
+  static final int MAX_TOKEN_ELEMENTS = 6;
+  static final int SPACE = 7;
+  static final int CONTROL_BITS = 2;
+  static final int CONTROL_DELIMITER = 0;
+  static final int CONTROL_LINE_FEED = 1;
+  static final int CONTROL_CARRIAGE_RETURN = 2;
+  static final int CONTROL_LITERAL = 3;
+  static final int LITERAL_BITS = Character.SIZE;
+
+  private BinaryMorseFormat() {
+  }
+}
@@ -0,0 +1,156 @@
+package fi.ilariel.languageconverter.morse;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+
+
+/**
+ * Reader that unpacks Morse code stored in the {@link BinaryMorseFormat} back to the UTF-8 characters it was written
+ * from. Use it as the reader of a Morse−to−English {@link MorseConverter} to decode binary Morse code directly.
+ * Blocks are read one at a time, the index at the end of the file is not needed for reading from the start.
+ */
+public final class BinaryMorseReader extends Reader {
+
+  private final DataInputStream input;
+  private final BitReader bits = new BitReader();
+  private byte[] block = new byte[0];
+  //Characters of the current block not read yet
+  private int blockCharacters;
+  //Characters of the last token not read yet
+  private final char[] token = new char[BinaryMorseFormat.MAX_TOKEN_ELEMENTS + 1];
+  private int tokenLength;
+  private int tokenPosition;
+  private boolean ended;
+
+  /**
+   * Reads and checks the header
+   * @throws IOException if the stream is not a binary Morse file or has a newer version
+   */
+  public BinaryMorseReader(InputStream input)
+      throws IOException {
+    this(input, true);
+  }
+
+  /**
+   * @param header false to start reading from the start of a block found from the index
+   */
+  BinaryMorseReader(InputStream input, boolean header)
+      throws IOException {
+    this.input = new DataInputStream(input);
+    if (!header) {
+      return;
+    }
+    if (this.input.readInt() != BinaryMorseFormat.MAGIC) {
+      throw new IOException("Not a binary Morse file");
+    }
+    int version = this.input.readUnsignedByte();
+    if (version != BinaryMorseFormat.VERSION) {
+      throw new IOException("Unsupported binary Morse version " + version);
+    }
+    this.input.skipBytes(3);
+    this.input.readInt();
+  }
+
+  @Override
+  public int read(char[] buffer, int offset, int length)
+      throws IOException {
+    if (length == 0) {
+      return 0;
+    }
+    int read = 0;
+    while (read < length) {
+      if (tokenPosition == tokenLength && !readToken()) {
+        break;
+      }
+      int count = Math.min(length - read, tokenLength - tokenPosition);
+      System.arraycopy(token, tokenPosition, buffer, offset + read, count);
+      tokenPosition += count;
+      read += count;
+    }
+    return read == 0 ? -1 : read;
+  }
+
+  @Override
+  public void close()
+      throws IOException {
+    input.close();
+  }
+
+  /**
+   * Unpacks the next token, reading the next block when the current one has been read
+   * @return false at the end of the blocks
+   */
+  private boolean readToken()
+      throws IOException {
+    while (blockCharacters == 0) {
+      if (ended || !readBlock()) {
+        return false;
+      }
+    }
+    try {
+      tokenPosition = 0;
+      tokenLength = 0;
+      int head = bits.read(BinaryMorseFormat.HEAD_BITS);
+      if (head == BinaryMorseFormat.CONTROL) {
+        token[tokenLength++] = readControl();
+      } else {
+        if (head == BinaryMorseFormat.SPACE) {
+          token[tokenLength++] = ' ';
+        } else {
+          int elements = bits.read(head);
+          for (int i = head - 1; i >= 0; i--) {
+            token[tokenLength++] = (elements >>> i & 1) == 1 ? MorseConverter.MORSE_DAH : MorseConverter.MORSE_DIT;
+          }
+        }
+        if (bits.read(1) == 1) {
+          token[tokenLength++] = MorseConverter.MORSE_CODE_CHARACTER_SEPARATOR;
+        }
+      }
+    } catch (IllegalStateException e) {
+      throw new IOException("Corrupt binary Morse block", e);
+    }
+    blockCharacters -= tokenLength;
+    if (blockCharacters < 0) {
+      throw new IOException("Corrupt binary Morse block, tokens overrun the block");
+    }
+    return true;
+  }
+
+  private char readControl() {
+    switch (bits.read(BinaryMorseFormat.CONTROL_BITS)) {
+      case BinaryMorseFormat.CONTROL_DELIMITER:
+        return MorseConverter.MORSE_CODE_CHARACTER_SEPARATOR;
+      case BinaryMorseFormat.CONTROL_LINE_FEED:
+        return '\n';
+      case BinaryMorseFormat.CONTROL_CARRIAGE_RETURN:
+        return '\r';
+      default:
+        return (char) bits.read(BinaryMorseFormat.LITERAL_BITS);
+    }
+  }
+
+  /**
+   * @return false at the end of the blocks
+   */
+  private boolean readBlock()
+      throws IOException {
+    int characters = input.readInt();
+    if (characters == BinaryMorseFormat.END_OF_BLOCKS) {
+      ended = true;
+      return false;
+    }
+    int byteLength = input.readInt();
+    if (characters < 0 || byteLength < 0) {
+      throw new IOException("Corrupt binary Morse block header");
+    }
+    if (block.length < byteLength) {
+      block = new byte[byteLength];
+    }
+    input.readFully(block, 0, byteLength);
+    bits.reset(block, byteLength);
+    blockCharacters = characters;
+    return true;
+  }
+}
@@ -0,0 +1,178 @@
+package fi.ilariel.languageconverter.morse;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+
+
+/**
+ * Writer that stores Morse code in the bit-packed {@link BinaryMorseFormat}. Use it as the writer of an
+ * English−to−Morse {@link MorseConverter} to encode straight to binary, or write UTF-8 Morse code read from elsewhere
+ * into it. Closing the writer writes the block index and closes the stream, an unclosed writer leaves an incomplete
+ * file.
+ */
+public final class BinaryMorseWriter extends Writer {
+
+  private final DataOutputStream output;
+  private final int blockSize;
+  private final BitWriter bits = new BitWriter();
+  private final List<MorseBlock> index = new ArrayList<>();
+  private boolean closed;
+  //Bytes written to the stream, DataOutputStream only counts up to 2 GB
+  private long position = BinaryMorseFormat.HEADER_SIZE;
+
+  //Elements of the symbol or a space not yet written as a token, kept until we know if a delimiter follows
+  private int elements;
+  private int elementCount;
+  private boolean spacePending;
+  private final MorsePosition morsePosition = new MorsePosition();
+  private MorseBlock block = morsePosition.mark(BinaryMorseFormat.HEADER_SIZE);
+  private int blockCharacters;
+
+  public BinaryMorseWriter(OutputStream output)
+      throws IOException {
+    this(output, BinaryMorseFormat.DEFAULT_BLOCK_SIZE);
+  }
+
+  /**
+   * @param blockSize Morse characters per block, blocks end at the first symbol boundary after this
+   */
+  public BinaryMorseWriter(OutputStream output, int blockSize)
+      throws IOException {
+    if (blockSize < 1) {
+      throw new IllegalArgumentException("Block size must be positive");
+    }
+    this.output = new DataOutputStream(output);
+    this.blockSize = blockSize;
+    this.output.writeInt(BinaryMorseFormat.MAGIC);
+    this.output.writeByte(BinaryMorseFormat.VERSION);
+    this.output.write(new byte[3]);
+    this.output.writeInt(blockSize);
+  }
+
+  @Override
+  public void write(char[] buffer, int offset, int length)
+      throws IOException {
+    if (closed) {
+      throw new IOException("Writer is closed");
+    }
+    int end = offset + length;
+    for (int i = offset; i < end; i++) {
+      char ch = buffer[i];
+      switch (ch) {
+        case MorseConverter.MORSE_DIT:
+        case MorseConverter.MORSE_DAH:
+          if (spacePending || elementCount == BinaryMorseFormat.MAX_TOKEN_ELEMENTS) {
+            writePending(false);
+          }
+          elements = (elements << 1) | (ch == MorseConverter.MORSE_DAH ? 1 : 0);
+          elementCount++;
+          break;
+        case MorseConverter.MORSE_CODE_CHARACTER_SEPARATOR:
+          if (!writePending(true)) {
+            writeControl(BinaryMorseFormat.CONTROL_DELIMITER);
+          }
+          break;
+        case ' ':
+          writePending(false);
+          spacePending = true;
+          break;
+        case '\n':
+          //Line breaks don't end symbols
+          writePending(false);
+          writeControl(BinaryMorseFormat.CONTROL_LINE_FEED);
+          break;
+        case '\r':
+          writePending(false);
+          writeControl(BinaryMorseFormat.CONTROL_CARRIAGE_RETURN);
+          break;
+        default:
+          writePending(false);
+          writeControl(BinaryMorseFormat.CONTROL_LITERAL);
+          bits.write(ch, BinaryMorseFormat.LITERAL_BITS);
+          break;
+      }
+      morsePosition.advance(ch);
+      blockCharacters++;
+      if (blockCharacters >= blockSize && morsePosition.isBoundary()) {
+        writeBlock();
+      }
+    }
+  }
+
+  @Override
+  public void flush()
+      throws IOException {
+    output.flush();
+  }
+
+  /**
+   * Writes the last block, the index and the trailer and closes the stream
+   */
+  @Override
+  public void close()
+      throws IOException {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    writeBlock();
+    output.writeInt(BinaryMorseFormat.END_OF_BLOCKS);
+    position += Integer.BYTES;
+
+    long indexOffset = position;
+    output.writeInt(index.size());
+    for (MorseBlock entry : index) {
+      entry.write(output);
+    }
+    output.writeLong(indexOffset);
+    output.writeInt(BinaryMorseFormat.INDEX_MAGIC);
+    output.close();
+  }
+
+  /**
+   * Writes the pending space or symbol elements as a token
+   * @param delimited true if a delimiter dot follows
+   * @return false if nothing was pending
+   */
+  private boolean writePending(boolean delimited) {
+    if (spacePending) {
+      bits.write(BinaryMorseFormat.SPACE, BinaryMorseFormat.HEAD_BITS);
+      spacePending = false;
+    } else if (elementCount > 0) {
+      bits.write(elementCount, BinaryMorseFormat.HEAD_BITS);
+      bits.write(elements, elementCount);
+      elements = 0;
+      elementCount = 0;
+    } else {
+      return false;
+    }
+    bits.write(delimited ? 1 : 0, 1);
+    return true;
+  }
+
+  private void writeControl(int control) {
+    bits.write(BinaryMorseFormat.CONTROL, BinaryMorseFormat.HEAD_BITS);
+    bits.write(control, BinaryMorseFormat.CONTROL_BITS);
+  }
+
+  private void writeBlock()
+      throws IOException {
+    if (blockCharacters == 0) {
+      return;
+    }
+    writePending(false);
+    index.add(block);
+    output.writeInt(blockCharacters);
+    output.writeInt(bits.byteLength());
+    bits.writeTo(output);
+    position += 2 * Integer.BYTES + bits.byteLength();
+    bits.clear();
+
+    blockCharacters = 0;
+    block = morsePosition.mark(position);
+  }
+}
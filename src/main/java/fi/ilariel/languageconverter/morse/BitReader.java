@@ -0,0 +1,41 @@
+package fi.ilariel.languageconverter.morse;
+
+
+/**
+ * Reads bits written by {@link BitWriter} from a byte array
+ */
+final class BitReader {
+
+  private byte[] bytes = new byte[0];
+  private int length;
+  private long accumulator;
+  private int accumulated;
+  private int position;
+
+  /**
+   * Starts reading the first length bytes of the array
+   */
+  void reset(byte[] bytes, int length) {
+    this.bytes = bytes;
+    this.length = length;
+    accumulator = 0;
+    accumulated = 0;
+    position = 0;
+  }
+
+  /**
+   * @return next count bits, at most 32
+   * @throws IllegalStateException if the bits run out
+   */
+  int read(int count) {
+    while (accumulated < count) {
+      if (position == length) {
+        throw new IllegalStateException("Binary Morse block ends in the middle of a token");
+      }
+      accumulator = (accumulator << Byte.SIZE) | (bytes[position++] & 0xFF);
+      accumulated += Byte.SIZE;
+    }
+    accumulated -= count;
+    return (int) ((accumulator >>> accumulated) & ((1L << count) - 1));
+  }
+}
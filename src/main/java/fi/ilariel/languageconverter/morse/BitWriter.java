@@ -0,0 +1,56 @@
+package fi.ilariel.languageconverter.morse;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+
+/**
+ * Growable buffer of bits, written most significant bit first
+ */
+final class BitWriter {
+
+  private byte[] bytes = new byte[1024];
+  private long accumulator;
+  private int accumulated;
+  private int length;
+
+  /**
+   * Appends the lowest count bits of the value
+   */
+  void write(int value, int count) {
+    accumulator = (accumulator << count) | (value & ((1L << count) - 1));
+    accumulated += count;
+    while (accumulated >= Byte.SIZE) {
+      accumulated -= Byte.SIZE;
+      if (length == bytes.length) {
+        bytes = Arrays.copyOf(bytes, bytes.length * 2);
+      }
+      bytes[length++] = (byte) (accumulator >>> accumulated);
+    }
+  }
+
+  /**
+   * @return number of bytes written by {@link #writeTo(DataOutput)}
+   */
+  int byteLength() {
+    return length + (accumulated > 0 ? 1 : 0);
+  }
+
+  /**
+   * Writes the bits padded with zeros to a whole byte
+   */
+  void writeTo(DataOutput output)
+      throws IOException {
+    output.write(bytes, 0, length);
+    if (accumulated > 0) {
+      output.write((int) (accumulator << (Byte.SIZE - accumulated)));
+    }
+  }
+
+  void clear() {
+    accumulator = 0;
+    accumulated = 0;
+    length = 0;
+  }
+}
@@ -0,0 +1,83 @@
+package fi.ilariel.languageconverter.morse;
+
+
+/**
+ * An error found while decoding Morse code with a lenient {@link DecodeErrorPolicy}
+ */
+public final class DecodeError {
+
+  private final Type type;
+  private final String sequence;
+  private final long offset;
+  private final long line;
+  private final char correction;
+  private final double confidence;
+
+  DecodeError(Type type, String sequence, long offset, long line) {
+    this(type, sequence, offset, line, MorseTable.NO_LETTER, 0);
+  }
+
+  DecodeError(Type type, String sequence, long offset, long line, char correction, double confidence) {
+    this.type = type;
+    this.sequence = sequence;
+    this.offset = offset;
+    this.line = line;
+    this.correction = correction;
+    this.confidence = confidence;
+  }
+
+  public Type getType() {
+    return type;
+  }
+
+  /**
+   * @return the offending input, dits and dahs of an invalid sequence or the extra delimiter
+   */
+  public String getSequence() {
+    return sequence;
+  }
+
+  /**
+   * @return offset of the error from the start of the input. Characters for readers and bytes for byte streams
+   */
+  public long getOffset() {
+    return offset;
+  }
+
+  /**
+   * @return line of the error, starting from 1
+   */
+  public long getLine() {
+    return line;
+  }
+
+  /**
+   * @return letter written for a corrected sequence, '\0' for other errors
+   */
+  public char getCorrection() {
+    return correction;
+  }
+
+  /**
+   * @return chance from 0 to 1 that the correction is right, 0 for other errors
+   */
+  public double getConfidence() {
+    return confidence;
+  }
+
+  @Override
+  public String toString() {
+    if (type == Type.CORRECTED_SEQUENCE) {
+      return String.format("line %d, offset %d: %s %s as %c (%.0f %%)", line, offset, type, sequence, correction,
+          confidence * 100);
+    }
+    return String.format("line %d, offset %d: %s %s", line, offset, type, sequence);
+  }
+
+  /**
+   * Kinds of decoding errors
+   */
+  public enum Type {
+    INVALID_SEQUENCE, CORRECTED_SEQUENCE, REPEATED_DELIMITER
+  }
+}
@@ -0,0 +1,174 @@
+package fi.ilariel.languageconverter.morse;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import fi.ilariel.languageconverter.converter.ConversionException;
+
+
+/**
+ * Decides what decoding does with invalid Morse code.
+ * <ul>
+ * <li>{@link #failFast()} throws a {@link ConversionException} with the position of the first error. This is the
+ * default.</li>
+ * <li>{@link #replace(char)} writes a replacement character for every invalid sequence and skips extra delimiters.</li>
+ * <li>{@link #collect(char, int)} replaces like {@link #replace(char)} and also keeps the first errors with their
+ * positions.</li>
+ * <li>{@link #correct(boolean, int)} writes the nearest letter for every invalid sequence and keeps the first
+ * corrections with their confidence.</li>
+ * </ul>
+ * Lenient policies never throw, so bad input doesn't turn into exceptions on the hot path. They count errors and are
+ * meant for a single conversion at a time.
+ */
+public class DecodeErrorPolicy {
+
+  private static final DecodeErrorPolicy FAIL_FAST = new DecodeErrorPolicy(true, '\0', 0);
+
+  private final boolean failFast;
+  private final char replacement;
+  private final int maxReported;
+  private final List<DecodeError> errors;
+  private final boolean correcting;
+  private final boolean frequencyWeighted;
+  private long errorCount;
+  private long correctedCount;
+  private double confidenceSum;
+
+  private DecodeErrorPolicy(boolean failFast, char replacement, int maxReported) {
+    this(failFast, replacement, maxReported, false, false);
+  }
+
+  private DecodeErrorPolicy(boolean failFast, char replacement, int maxReported, boolean correcting,
+      boolean frequencyWeighted) {
+    this.failFast = failFast;
+    this.replacement = replacement;
+    this.maxReported = maxReported;
+    this.errors = maxReported > 0 ? new ArrayList<>() : Collections.emptyList();
+    this.correcting = correcting;
+    this.frequencyWeighted = frequencyWeighted;
+  }
+
+  /**
+   * @return policy that stops at the first error
+   */
+  public static DecodeErrorPolicy failFast() {
+    return FAIL_FAST;
+  }
+
+  /**
+   * @return policy that writes the replacement for invalid sequences and keeps going
+   */
+  public static DecodeErrorPolicy replace(char replacement) {
+    return new DecodeErrorPolicy(false, replacement, 0);
+  }
+
+  /**
+   * @param maxReported number of errors kept in {@link #getErrors()}, later errors are only counted
+   * @return policy that writes the replacement for invalid sequences, keeps going and reports the errors
+   */
+  public static DecodeErrorPolicy collect(char replacement, int maxReported) {
+    if (maxReported < 1) {
+      throw new IllegalArgumentException("At least one error must be reported");
+    }
+    return new DecodeErrorPolicy(false, replacement, maxReported);
+  }
+
+  /**
+   * @param frequencyWeighted true to prefer letters common in English over rare ones the same number of edits away
+   * @param maxReported number of corrections kept in {@link #getErrors()}, 0 to only count them
+   * @return policy that writes the letter nearest to each invalid sequence and keeps going
+   */
+  public static DecodeErrorPolicy correct(boolean frequencyWeighted, int maxReported) {
+    if (maxReported < 0) {
+      throw new IllegalArgumentException("Reported error count can't be negative");
+    }
+    return new DecodeErrorPolicy(false, MorseTable.NO_LETTER, maxReported, true, frequencyWeighted);
+  }
+
+  public boolean isFailFast() {
+    return failFast;
+  }
+
+  public boolean isCorrecting() {
+    return correcting;
+  }
+
+  /**
+   * @return number of invalid sequences corrected
+   */
+  public long getCorrectedCount() {
+    return correctedCount;
+  }
+
+  /**
+   * @return average confidence of the corrections from 0 to 1, 1 if nothing was corrected
+   */
+  public double getMeanConfidence() {
+    return correctedCount == 0 ? 1 : confidenceSum / correctedCount;
+  }
+
+  /**
+   * @return number of errors found, including the ones not kept in {@link #getErrors()}
+   */
+  public long getErrorCount() {
+    return errorCount;
+  }
+
+  /**
+   * @return first errors in input order
+   */
+  public List<DecodeError> getErrors() {
+    return Collections.unmodifiableList(errors);
+  }
+
+  /**
+   * Handles a symbol that is not part of the alphabet
+   * @return replacement or correction to write instead of the sequence
+   * @throws ConversionException if failing fast
+   */
+  char invalidSequence(MorseSymbol symbol)
+      throws ConversionException {
+    if (failFast) {
+      throw new ConversionException(symbol.toMorse() + " is not a valid Morse code sequence", symbol.getOffset(),
+          symbol.getLine());
+    }
+    if (correcting) {
+      return correct(symbol);
+    }
+    if (errors.size() < maxReported) {
+      errors.add(new DecodeError(DecodeError.Type.INVALID_SEQUENCE, symbol.toMorse(), symbol.getOffset(),
+          symbol.getLine()));
+    }
+    errorCount++;
+    return replacement;
+  }
+
+  private char correct(MorseSymbol symbol) {
+    MorseCorrections.Correction correction = symbol.nearest(frequencyWeighted);
+    if (errors.size() < maxReported) {
+      errors.add(new DecodeError(DecodeError.Type.CORRECTED_SEQUENCE, symbol.toMorse(), symbol.getOffset(),
+          symbol.getLine(), correction.getLetter(), correction.getConfidence()));
+    }
+    errorCount++;
+    correctedCount++;
+    confidenceSum += correction.getConfidence();
+    return correction.getLetter();
+  }
+
+  /**
+   * Handles a delimiter dot that follows another one
+   * @throws ConversionException if failing fast
+   */
+  void repeatedDelimiter(long offset, long line)
+      throws ConversionException {
+    if (failFast) {
+      throw new ConversionException(MorseConverter.MORSE_DELIMIT_EXCEPTION_MESSAGE, offset, line);
+    }
+    if (errors.size() < maxReported) {
+      errors.add(new DecodeError(DecodeError.Type.REPEATED_DELIMITER,
+          String.valueOf(MorseConverter.MORSE_CODE_CHARACTER_SEPARATOR), offset, line));
+    }
+    errorCount++;
+  }
+}
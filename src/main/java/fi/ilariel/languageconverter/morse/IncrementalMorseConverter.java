@@ -0,0 +1,153 @@
+package fi.ilariel.languageconverter.morse;
+
+import java.io.IOException;
+import java.io.Writer;
+
+import fi.ilariel.languageconverter.converter.ConversionException;
+
+
+/**
+ * Push based Morse converter for input that arrives in fragments, e.g. from a message queue. Fragments are converted
+ * as they are fed and a symbol cut off at the end of a fragment is kept until the next one, so the output is the same
+ * as converting the concatenated input with {@link MorseConverter}.
+ * Converted characters are buffered until {@link #flush()} or {@link #finish()}, or until the buffer fills up. One
+ * instance converts one stream and is not thread safe.
+ */
+public final class IncrementalMorseConverter {
+
+  private static final int FRAGMENT_BUFFER_SIZE = 8192;
+
+  private final Writer writer;
+  private final MorseEncoder encoder;
+  private final MorseDecoder decoder;
+  private char[] fragmentBuffer;
+  private boolean finished;
+
+  /**
+   * @param writer receives the converted output, it is flushed but not closed by the converter
+   * @param mode {@link MorseConverter.Mode}
+   */
+  public IncrementalMorseConverter(Writer writer, MorseConverter.Mode mode) {
+    this(writer, mode, DecodeErrorPolicy.failFast());
+  }
+
+  /**
+   * @param errorPolicy what to do with invalid Morse code, see {@link DecodeErrorPolicy}
+   */
+  public IncrementalMorseConverter(Writer writer, MorseConverter.Mode mode, DecodeErrorPolicy errorPolicy) {
+    this(writer, mode, errorPolicy, MorseAlphabet.DEFAULT);
+  }
+
+  /**
+   * @param alphabet letters and symbols to convert with, see {@link MorseAlphabet}
+   */
+  public IncrementalMorseConverter(Writer writer, MorseConverter.Mode mode, DecodeErrorPolicy errorPolicy,
+      MorseAlphabet alphabet) {
+    this.writer = writer;
+    if (mode == MorseConverter.Mode.TEXT_TO_MORSE) {
+      encoder = new MorseEncoder(writer, alphabet.getTable());
+      decoder = null;
+    } else {
+      encoder = null;
+      decoder = new MorseDecoder(writer, false, errorPolicy, alphabet.getTable());
+    }
+  }
+
+  /**
+   * Converts a fragment of the input
+   * @throws ConversionException if the fragment contains unsupported text, invalid Morse code when failing fast or
+   * writing fails
+   * @throws IllegalStateException if the converter has been finished
+   */
+  public void feed(char[] fragment, int offset, int length)
+      throws ConversionException {
+    checkNotFinished();
+    try {
+      if (encoder != null) {
+        encoder.encode(fragment, offset, length);
+      } else {
+        decoder.decode(fragment, offset, length);
+      }
+    } catch (IOException e) {
+      throw new ConversionException(e);
+    }
+  }
+
+  /**
+   * @see #feed(char[], int, int)
+   */
+  public void feed(char[] fragment)
+      throws ConversionException {
+    feed(fragment, 0, fragment.length);
+  }
+
+  /**
+   * Converts a fragment of the input, copying it through a reused buffer
+   * @see #feed(char[], int, int)
+   */
+  public void feed(CharSequence fragment)
+      throws ConversionException {
+    if (fragmentBuffer == null) {
+      fragmentBuffer = new char[FRAGMENT_BUFFER_SIZE];
+    }
+    int length = fragment.length();
+    for (int start = 0; start < length; start += fragmentBuffer.length) {
+      int end = Math.min(length, start + fragmentBuffer.length);
+      if (fragment instanceof String) {
+        ((String) fragment).getChars(start, end, fragmentBuffer, 0);
+      } else {
+        for (int i = start; i < end; i++) {
+          fragmentBuffer[i - start] = fragment.charAt(i);
+        }
+      }
+      feed(fragmentBuffer, 0, end - start);
+    }
+  }
+
+  /**
+   * Writes out and flushes everything converted so far. A Morse symbol that hasn't been ended by a delimiter, a
+   * space or another character yet stays pending, because the next fragment may continue it.
+   * @throws ConversionException if writing fails
+   */
+  public void flush()
+      throws ConversionException {
+    checkNotFinished();
+    try {
+      if (encoder != null) {
+        encoder.flush();
+      } else {
+        decoder.flush();
+      }
+      writer.flush();
+    } catch (IOException e) {
+      throw new ConversionException(e);
+    }
+  }
+
+  /**
+   * Converts the pending symbol as the end of the input, then writes out and flushes everything. The converter can't
+   * be fed after this.
+   * @throws ConversionException if the pending symbol is invalid when failing fast or writing fails
+   */
+  public void finish()
+      throws ConversionException {
+    checkNotFinished();
+    finished = true;
+    try {
+      if (encoder != null) {
+        encoder.finish();
+      } else {
+        decoder.finish();
+      }
+      writer.flush();
+    } catch (IOException e) {
+      throw new ConversionException(e);
+    }
+  }
+
+  private void checkNotFinished() {
+    if (finished) {
+      throw new IllegalStateException("Converter has been finished");
+    }
+  }
+}
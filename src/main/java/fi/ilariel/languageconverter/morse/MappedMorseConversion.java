@@ -0,0 +1,92 @@
+package fi.ilariel.languageconverter.morse;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+import fi.ilariel.languageconverter.converter.ByteTranscoder;
+import fi.ilariel.languageconverter.converter.ConversionException;
+
+
+/**
+ * File to file Morse conversion without charset decoding. The input file is memory mapped in windows and converted
+ * byte by byte with a {@link MorseByteConverter#newTranscoder(MorseConverter.Mode)} transcoder. Output is collected
+ * in a direct buffer that is written to the output channel whenever it fills up.
+ */
+public final class MappedMorseConversion {
+
+  private static final long MAP_WINDOW_SIZE = 64L * 1024 * 1024;
+  private static final int OUTPUT_BUFFER_SIZE = 1024 * 1024;
+
+  private MappedMorseConversion() {
+  }
+
+  /**
+   * Converts the input file to the output file. The output file is created or truncated.
+   * @param mode {@link MorseConverter.Mode}
+   * @throws ConversionException, if invalid morse code sequence, unsupported text input or an I/O error
+   */
+  public static void convert(File input, File output, MorseConverter.Mode mode)
+      throws ConversionException {
+    convert(input, output, mode, DecodeErrorPolicy.failFast());
+  }
+
+  /**
+   * @param errorPolicy what to do with invalid Morse code, see {@link DecodeErrorPolicy}
+   * @throws ConversionException, if unsupported text input, an I/O error or invalid morse code sequence when failing
+   * fast
+   */
+  public static void convert(File input, File output, MorseConverter.Mode mode, DecodeErrorPolicy errorPolicy)
+      throws ConversionException {
+    convert(input, output, mode, errorPolicy, MorseAlphabet.DEFAULT);
+  }
+
+  /**
+   * @param alphabet letters and symbols to convert with, see {@link MorseAlphabet}
+   * @throws ConversionException, if unsupported text input, an I/O error or invalid morse code sequence when failing
+   * fast
+   */
+  public static void convert(File input, File output, MorseConverter.Mode mode, DecodeErrorPolicy errorPolicy,
+      MorseAlphabet alphabet)
+      throws ConversionException {
+    ByteTranscoder transcoder = MorseByteConverter.newTranscoder(mode, errorPolicy, alphabet);
+
+    try (FileChannel in = FileChannel.open(input.toPath(), StandardOpenOption.READ);
+        FileChannel out = FileChannel.open(output.toPath(), StandardOpenOption.WRITE, StandardOpenOption.CREATE,
+            StandardOpenOption.TRUNCATE_EXISTING)) {
+      ByteBuffer buffer = ByteBuffer.allocateDirect(OUTPUT_BUFFER_SIZE);
+      long size = in.size();
+      long position = 0;
+      do {
+        long windowSize = Math.min(MAP_WINDOW_SIZE, size - position);
+        boolean endOfInput = position + windowSize == size;
+        MappedByteBuffer window = in.map(FileChannel.MapMode.READ_ONLY, position, windowSize);
+        while (transcoder.transcode(window, buffer, endOfInput)) {
+          write(buffer, out);
+        }
+        //A character cut off at the end of the window is left unread and starts the next window
+        position += window.position();
+      } while (position < size);
+
+      if (buffer.remaining() < ByteTranscoder.FINISH_OUTPUT_SIZE) {
+        write(buffer, out);
+      }
+      transcoder.finish(buffer);
+      write(buffer, out);
+    } catch (IOException e) {
+      throw new ConversionException(e);
+    }
+  }
+
+  private static void write(ByteBuffer buffer, FileChannel channel)
+      throws IOException {
+    buffer.flip();
+    while (buffer.hasRemaining()) {
+      channel.write(buffer);
+    }
+    buffer.clear();
+  }
+}
@@ -0,0 +1,206 @@
+package fi.ilariel.languageconverter.morse;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static fi.ilariel.languageconverter.morse.MorseConverter.*;
+
+
+/**
+ * Letters and their Morse code symbols. An alphabet is validated and compiled to {@link MorseTable} lookup tables
+ * when it is built, so converters using it run as fast as with the default alphabet.
+ * <p>
+ * Alphabet files have one letter per line, followed by white space and its symbol. Symbols are written with dits and
+ * dahs or with '.' and '-'. Letters that are hard to write, like '#', can be given as U+0023. Empty lines and lines
+ * starting with '#' are ignored. Every symbol decodes to a single character, so prosigns are defined with the character
+ * they stand for, e.g. '+' for AR.
+ */
+public final class MorseAlphabet {
+
+  /**
+   * The alphabet of the public MORSE_* members of {@link MorseConverter}
+   */
+  public static final MorseAlphabet DEFAULT = builder()
+      .add('A', MORSE_A).add('B', MORSE_B).add('C', MORSE_C).add('D', MORSE_D).add('E', MORSE_E)
+      .add('F', MORSE_F).add('G', MORSE_G).add('H', MORSE_H).add('I', MORSE_I).add('J', MORSE_J)
+      .add('K', MORSE_K).add('L', MORSE_L).add('M', MORSE_M).add('N', MORSE_N).add('O', MORSE_O)
+      .add('P', MORSE_P).add('Q', MORSE_Q).add('R', MORSE_R).add('S', MORSE_S).add('T', MORSE_T)
+      .add('U', MORSE_U).add('V', MORSE_V).add('W', MORSE_W).add('X', MORSE_X).add('Y', MORSE_Y)
+      .add('Z', MORSE_Z)
+      .add('.', MORSE_DOT).add(',', MORSE_COMMA).add('?', MORSE_QUESTION_MARK).add('/', MORSE_SLASH)
+      .add('@', MORSE_AT_SIGN)
+      .add('1', MORSE_1).add('2', MORSE_2).add('3', MORSE_3).add('4', MORSE_4).add('5', MORSE_5)
+      .add('6', MORSE_6).add('7', MORSE_7).add('8', MORSE_8).add('9', MORSE_9).add('0', MORSE_0)
+      .build();
+
+  private static final String ITU_RESOURCE = "itu.alphabet";
+  private static final String CODE_POINT_PREFIX = "U+";
+  private static final char COMMENT = '#';
+
+  private final Map<Character, String> symbols;
+  private final MorseTable table;
+
+  private MorseAlphabet(Map<Character, String> symbols) {
+    this.symbols = Collections.unmodifiableMap(symbols);
+    this.table = new MorseTable(symbols);
+  }
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  /**
+   * @return the default alphabet extended with the rest of the ITU punctuation and common extensions. Unlike in the
+   * default alphabet, 3 is the standard •••−−
+   */
+  public static MorseAlphabet itu() {
+    try (InputStream input = MorseAlphabet.class.getResourceAsStream(ITU_RESOURCE)) {
+      return load(new InputStreamReader(input, StandardCharsets.UTF_8));
+    } catch (IOException e) {
+      throw new IllegalStateException("Bundled alphabet " + ITU_RESOURCE + " can't be read", e);
+    }
+  }
+
+  /**
+   * Reads an alphabet file in UTF-8
+   * @throws IOException if reading fails or the alphabet is not valid
+   */
+  public static MorseAlphabet load(Path file)
+      throws IOException {
+    try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+      return load(reader);
+    } catch (IOException e) {
+      throw new IOException(String.format("Alphabet \"%s\": %s", file, e.getMessage()), e);
+    }
+  }
+
+  /**
+   * Reads an alphabet, the reader is not closed
+   * @throws IOException if reading fails or the alphabet is not valid
+   */
+  public static MorseAlphabet load(Reader reader)
+      throws IOException {
+    BufferedReader lines = new BufferedReader(reader);
+    Builder builder = builder();
+    int lineNumber = 0;
+    String line;
+    while ((line = lines.readLine()) != null) {
+      lineNumber++;
+      String trimmed = line.trim();
+      if (trimmed.isEmpty() || trimmed.charAt(0) == COMMENT) {
+        continue;
+      }
+      String[] fields = trimmed.split("\\s+");
+      try {
+        if (fields.length != 2) {
+          throw new IllegalArgumentException("expected a letter and its symbol");
+        }
+        builder.add(parseLetter(fields[0]), parseSymbol(fields[1]));
+      } catch (IllegalArgumentException e) {
+        throw new IOException(String.format("Line %d: %s", lineNumber, e.getMessage()), e);
+      }
+    }
+    try {
+      return builder.build();
+    } catch (IllegalArgumentException e) {
+      throw new IOException(e.getMessage(), e);
+    }
+  }
+
+  private static char parseLetter(String field) {
+    if (field.length() == 1) {
+      return field.charAt(0);
+    }
+    if (field.startsWith(CODE_POINT_PREFIX)) {
+      try {
+        int codePoint = Integer.parseInt(field.substring(CODE_POINT_PREFIX.length()), 16);
+        if (codePoint <= Character.MAX_VALUE) {
+          return (char) codePoint;
+        }
+      } catch (NumberFormatException e) {
+        //Reported below
+      }
+    }
+    throw new IllegalArgumentException(field + " is not a single character or a U+XXXX code point");
+  }
+
+  private static String parseSymbol(String field) {
+    return field.replace('.', MORSE_DIT).replace('-', MORSE_DAH);
+  }
+
+  /**
+   * @return letters in the order they were defined and their dits and dahs
+   */
+  public Map<Character, String> getSymbols() {
+    return symbols;
+  }
+
+  MorseTable getTable() {
+    return table;
+  }
+
+  /**
+   * Collects letters for an alphabet. Validation rejects everything that would make conversions ambiguous.
+   */
+  public static final class Builder {
+
+    private final Map<Character, String> symbols = new LinkedHashMap<>();
+    private final Map<String, Character> letters = new HashMap<>();
+
+    private Builder() {
+    }
+
+    /**
+     * @param symbol dits and dahs of the letter
+     * @throws IllegalArgumentException if the letter or the symbol is not valid, or either is already defined
+     */
+    public Builder add(char letter, String symbol) {
+      if (letter == ' ' || letter == '\n' || letter == '\r' || letter == MorseTable.NO_LETTER
+          || Character.isSurrogate(letter)) {
+        throw new IllegalArgumentException(String.format("U+%04X can't be a letter", (int) letter));
+      }
+      if (symbol.isEmpty() || symbol.length() > MorseTable.MAX_SUPPORTED_SYMBOL_LENGTH) {
+        throw new IllegalArgumentException(String.format("Symbol of %c must have 1−%d elements", letter,
+            MorseTable.MAX_SUPPORTED_SYMBOL_LENGTH));
+      }
+      for (int i = 0; i < symbol.length(); i++) {
+        if (symbol.charAt(i) != MORSE_DIT && symbol.charAt(i) != MORSE_DAH) {
+          throw new IllegalArgumentException(String.format("Symbol of %c has %c, only dits and dahs are allowed",
+              letter, symbol.charAt(i)));
+        }
+      }
+      if (symbols.containsKey(letter)) {
+        throw new IllegalArgumentException(String.format("%c is defined twice", letter));
+      }
+      //Two letters with one symbol couldn't be told apart when decoding
+      Character other = letters.get(symbol);
+      if (other != null) {
+        throw new IllegalArgumentException(String.format("%c and %c have the same symbol %s", other, letter,
+            symbol));
+      }
+      symbols.put(letter, symbol);
+      letters.put(symbol, letter);
+      return this;
+    }
+
+    /**
+     * @throws IllegalArgumentException if the alphabet is empty
+     */
+    public MorseAlphabet build() {
+      if (symbols.isEmpty()) {
+        throw new IllegalArgumentException("Alphabet has no letters");
+      }
+      return new MorseAlphabet(new LinkedHashMap<>(symbols));
+    }
+  }
+}
@@ -0,0 +1,158 @@
+package fi.ilariel.languageconverter.morse;
+
+
+/**
+ * Timing and tone of rendered Morse code audio, see {@link MorseAudioWriter}.
+ * <p>
+ * Timing follows the PARIS standard, a dit lasts 1.2 / WPM seconds. A dah is three dits, elements of a symbol are one
+ * dit apart, characters three and words seven. With Farnsworth timing characters are sent at the full speed but the
+ * gaps between characters and words are stretched so the overall speed is the Farnsworth speed, as described by ARRL.
+ */
+public final class MorseAudioFormat {
+
+  public static final MorseAudioFormat DEFAULT = builder().build();
+
+  private static final int MIN_SAMPLE_RATE = 8000;
+  private static final int MAX_SAMPLE_RATE = 192000;
+  private static final int MAX_WPM = 100;
+  //Dits in the word PARIS including the word gap, and the part of it spent in gaps between characters and words
+  private static final int PARIS_UNITS = 50;
+  private static final int PARIS_GAP_UNITS = 19;
+
+  private final int wpm;
+  private final int farnsworthWpm;
+  private final int frequency;
+  private final int sampleRate;
+
+  private MorseAudioFormat(Builder builder) {
+    this.wpm = builder.wpm;
+    this.farnsworthWpm = builder.farnsworthWpm > 0 ? builder.farnsworthWpm : builder.wpm;
+    this.frequency = builder.frequency;
+    this.sampleRate = builder.sampleRate;
+  }
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  public int getWpm() {
+    return wpm;
+  }
+
+  /**
+   * @return overall speed, the same as {@link #getWpm()} without Farnsworth timing
+   */
+  public int getFarnsworthWpm() {
+    return farnsworthWpm;
+  }
+
+  public int getFrequency() {
+    return frequency;
+  }
+
+  public int getSampleRate() {
+    return sampleRate;
+  }
+
+  /**
+   * @return samples in a dit
+   */
+  int getDitSamples() {
+    return (int) Math.round(sampleRate * 1.2 / wpm);
+  }
+
+  /**
+   * @return samples in the gap between characters
+   */
+  int getCharacterGapSamples() {
+    return 3 * getFarnsworthUnitSamples();
+  }
+
+  /**
+   * @return samples in the gap between words
+   */
+  int getWordGapSamples() {
+    return 7 * getFarnsworthUnitSamples();
+  }
+
+  /**
+   * Gap unit stretched so that PARIS takes a minute / Farnsworth WPM with its characters sent at WPM
+   */
+  private int getFarnsworthUnitSamples() {
+    if (farnsworthWpm == wpm) {
+      return getDitSamples();
+    }
+    double gapSeconds = 60.0 / farnsworthWpm - (PARIS_UNITS - PARIS_GAP_UNITS) * 1.2 / wpm;
+    return (int) Math.round(sampleRate * gapSeconds / PARIS_GAP_UNITS);
+  }
+
+  @Override
+  public String toString() {
+    return String.format("%d/%d WPM, %d Hz, %d samples/s", wpm, farnsworthWpm, frequency, sampleRate);
+  }
+
+  public static final class Builder {
+
+    private int wpm = 20;
+    private int farnsworthWpm;
+    private int frequency = 600;
+    private int sampleRate = 44100;
+
+    private Builder() {
+    }
+
+    /**
+     * @param wpm character speed in words per minute, 1−100
+     */
+    public Builder wpm(int wpm) {
+      this.wpm = wpm;
+      return this;
+    }
+
+    /**
+     * @param farnsworthWpm overall speed in words per minute, at most the character speed
+     */
+    public Builder farnsworth(int farnsworthWpm) {
+      this.farnsworthWpm = farnsworthWpm;
+      return this;
+    }
+
+    /**
+     * @param frequency tone in Hz, below half of the sample rate
+     */
+    public Builder frequency(int frequency) {
+      this.frequency = frequency;
+      return this;
+    }
+
+    /**
+     * @param sampleRate samples per second, 8000−192000
+     */
+    public Builder sampleRate(int sampleRate) {
+      this.sampleRate = sampleRate;
+      return this;
+    }
+
+    /**
+     * @throws IllegalArgumentException if a value is out of its range
+     */
+    public MorseAudioFormat build() {
+      if (wpm < 1 || wpm > MAX_WPM) {
+        throw new IllegalArgumentException(String.format("Speed %d WPM is not within 1−%d", wpm, MAX_WPM));
+      }
+      if (farnsworthWpm < 0 || farnsworthWpm > wpm) {
+        throw new IllegalArgumentException(String.format("Farnsworth speed %d WPM is not within 1−%d", farnsworthWpm,
+            wpm));
+      }
+      if (sampleRate < MIN_SAMPLE_RATE || sampleRate > MAX_SAMPLE_RATE) {
+        throw new IllegalArgumentException(String.format("Sample rate %d is not within %d−%d", sampleRate,
+            MIN_SAMPLE_RATE, MAX_SAMPLE_RATE));
+      }
+      if (frequency < 1 || frequency >= sampleRate / 2) {
+        throw new IllegalArgumentException(String.format("Tone %d Hz is not below half of the sample rate",
+            frequency));
+      }
+      return new MorseAudioFormat(this);
+    }
+  }
+}
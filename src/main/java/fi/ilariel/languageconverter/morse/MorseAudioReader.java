@@ -0,0 +1,359 @@
+package fi.ilariel.languageconverter.morse;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+
+
+/**
+ * Reader that decodes Morse code from a PCM WAV stream, the counterpart of {@link MorseAudioWriter}. Use it as the
+ * reader of a Morse−to−English {@link MorseConverter} to decode recordings to text. Audio is read in chunks and
+ * decoded as it is read, so memory use doesn't depend on the length of the recording.
+ * <p>
+ * The level of the tone is measured with the Goertzel algorithm over blocks of 5 ms. A block is tone when its level is
+ * well above the noise floor relative to the recent peak, with hysteresis so noise doesn't toggle it. Runs of tone and
+ * silence are classified by {@link ToneTiming}, which learns the speed from the recording. The tone frequency is found
+ * from the first seconds of audio unless it is given.
+ * <p>
+ * 8 and 16-bit PCM is supported, only the first channel of multichannel audio is decoded.
+ */
+public final class MorseAudioReader extends Reader {
+
+  private static final int FORMAT_PCM = 1;
+  private static final int FORMAT_EXTENSIBLE = 0xFFFE;
+  private static final long UNKNOWN_SIZE = 0xFFFFFFFFL;
+  private static final int CHUNK_FRAMES = 16 * 1024;
+  private static final double BLOCK_SECONDS = 0.005;
+  //Tone detection listens to the start of the audio and searches this range in steps of a quarter of the Goertzel
+  //bandwidth
+  private static final double DETECTION_SECONDS = 4;
+  private static final int MIN_FREQUENCY = 200;
+  private static final int MAX_FREQUENCY = 2000;
+  private static final int DEFAULT_FREQUENCY = 600;
+  //Block levels relative to the span between noise floor and peak that switch the tone on and off
+  private static final double ON_LEVEL = 0.5;
+  private static final double OFF_LEVEL = 0.3;
+  //Peak needed over the floor to hear a tone at all, and the quietest tone as a fraction of full scale
+  private static final double MIN_SIGNAL_TO_NOISE = 4;
+  private static final double MIN_LEVEL = 0.005;
+  private static final double PEAK_HALF_LIFE_SECONDS = 2;
+  private static final double FLOOR_RISE = 0.05;
+  private static final int MIN_CHANGE_BLOCKS = 2;
+
+  private final DataInputStream input;
+  private final int channels;
+  private final int bytesPerSample;
+  private final int sampleRate;
+  private final int blockSize;
+  private final byte[] chunk;
+  private final float[] samples = new float[CHUNK_FRAMES];
+  //Bytes of audio left or -1 when the stream doesn't tell
+  private long remaining;
+  private boolean ended;
+
+  private double coefficient;
+  private double s1;
+  private double s2;
+  private int blockFill;
+  private final double peakDecay;
+  private double peak;
+  private double floor;
+  private boolean tone;
+  private long runBlocks;
+  private int changeBlocks;
+  private long blocks;
+
+  private final StringBuilder pending = new StringBuilder();
+  private int pendingPosition;
+  private final ToneTiming timing = new ToneTiming(pending);
+
+  /**
+   * Reads the header and finds the tone frequency from the start of the audio
+   * @throws IOException if the stream is not a supported WAV stream
+   */
+  public MorseAudioReader(InputStream input)
+      throws IOException {
+    this(input, 0);
+  }
+
+  /**
+   * @param frequency tone in Hz or 0 to find it from the audio
+   * @throws IOException if the stream is not a supported WAV stream
+   */
+  public MorseAudioReader(InputStream input, int frequency)
+      throws IOException {
+    this.input = new DataInputStream(input);
+    if (readTag() != tag("RIFF")) {
+      throw new IOException("Not a WAV file");
+    }
+    readLittleEndianInt();
+    if (readTag() != tag("WAVE")) {
+      throw new IOException("Not a WAV file");
+    }
+    int channels = 0;
+    int bits = 0;
+    int sampleRate = 0;
+    while (true) {
+      int id = readTag();
+      long size = readLittleEndianInt() & 0xFFFFFFFFL;
+      if (id == tag("fmt ")) {
+        int format = readLittleEndianShort();
+        channels = readLittleEndianShort();
+        sampleRate = readLittleEndianInt();
+        this.input.skipBytes(6);
+        bits = readLittleEndianShort();
+        skipChunk(size - 16 + (size & 1));
+        if ((format != FORMAT_PCM && format != FORMAT_EXTENSIBLE) || (bits != 8 && bits != 16) || channels < 1
+            || sampleRate < 1) {
+          throw new IOException(String.format("Unsupported WAV format %d, %d channels of %d bits", format, channels,
+              bits));
+        }
+      } else if (id == tag("data")) {
+        if (channels == 0) {
+          throw new IOException("WAV file has no format before its data");
+        }
+        remaining = size == UNKNOWN_SIZE ? -1 : size;
+        break;
+      } else {
+        skipChunk(size + (size & 1));
+      }
+    }
+    this.channels = channels;
+    this.bytesPerSample = bits / 8;
+    this.sampleRate = sampleRate;
+    this.blockSize = Math.max(1, (int) Math.round(sampleRate * BLOCK_SECONDS));
+    this.chunk = new byte[CHUNK_FRAMES * channels * bytesPerSample];
+    this.peakDecay = Math.pow(0.5, BLOCK_SECONDS / PEAK_HALF_LIFE_SECONDS);
+
+    if (frequency > 0) {
+      tune(frequency);
+    } else {
+      detectFrequency();
+    }
+  }
+
+  /**
+   * Finds the strongest frequency in the first seconds of audio and decodes the audio read for it
+   */
+  private void detectFrequency()
+      throws IOException {
+    float[] start = new float[(int) (DETECTION_SECONDS * sampleRate)];
+    int count = 0;
+    int read;
+    while (count < start.length && (read = readSamples()) > 0) {
+      int copied = Math.min(read, start.length - count);
+      System.arraycopy(samples, 0, start, count, copied);
+      count += copied;
+      if (copied < read) {
+        //Rest of the chunk doesn't fit, keep it in a copy for decoding
+        float[] longer = new float[count + read - copied];
+        System.arraycopy(start, 0, longer, 0, count);
+        System.arraycopy(samples, copied, longer, count, read - copied);
+        start = longer;
+        count = longer.length;
+      }
+    }
+
+    int best = DEFAULT_FREQUENCY;
+    double bestPower = 0;
+    int step = Math.max(1, sampleRate / blockSize / 4);
+    for (int frequency = MIN_FREQUENCY; frequency <= Math.min(MAX_FREQUENCY, sampleRate / 2 - 1);
+        frequency += step) {
+      double power = power(start, count, frequency);
+      if (power > bestPower) {
+        bestPower = power;
+        best = frequency;
+      }
+    }
+    tune(best);
+    decode(start, count);
+  }
+
+  /**
+   * @return total power of the frequency over blocks of the samples
+   */
+  private double power(float[] values, int count, int frequency) {
+    double c = 2 * Math.cos(2 * Math.PI * frequency / sampleRate);
+    double total = 0;
+    for (int block = 0; block + blockSize <= count; block += blockSize) {
+      double q1 = 0;
+      double q2 = 0;
+      for (int i = block; i < block + blockSize; i++) {
+        double q0 = values[i] + c * q1 - q2;
+        q2 = q1;
+        q1 = q0;
+      }
+      total += q1 * q1 + q2 * q2 - c * q1 * q2;
+    }
+    return total;
+  }
+
+  private void tune(int frequency) {
+    coefficient = 2 * Math.cos(2 * Math.PI * frequency / sampleRate);
+  }
+
+  @Override
+  public int read(char[] buffer, int offset, int length)
+      throws IOException {
+    if (length == 0) {
+      return 0;
+    }
+    while (pendingPosition == pending.length()) {
+      pending.setLength(0);
+      pendingPosition = 0;
+      if (ended) {
+        return -1;
+      }
+      int read = readSamples();
+      if (read > 0) {
+        decode(samples, read);
+      } else {
+        endOfAudio();
+      }
+    }
+    int count = Math.min(length, pending.length() - pendingPosition);
+    pending.getChars(pendingPosition, pendingPosition + count, buffer, offset);
+    pendingPosition += count;
+    return count;
+  }
+
+  /**
+   * @return number of samples of the first channel read to {@link #samples}, 0 at the end of the audio
+   */
+  private int readSamples()
+      throws IOException {
+    int frameSize = channels * bytesPerSample;
+    int wanted = remaining >= 0 ? (int) Math.min(chunk.length, remaining - remaining % frameSize) : chunk.length;
+    int filled = 0;
+    while (filled < wanted) {
+      int read = input.read(chunk, filled, wanted - filled);
+      if (read == -1) {
+        break;
+      }
+      filled += read;
+    }
+    if (remaining >= 0) {
+      remaining -= filled;
+    }
+    int frames = filled / frameSize;
+    if (bytesPerSample == 2) {
+      for (int frame = 0, i = 0; frame < frames; frame++, i += frameSize) {
+        samples[frame] = (short) ((chunk[i] & 0xFF) | chunk[i + 1] << 8) / 32768f;
+      }
+    } else {
+      for (int frame = 0, i = 0; frame < frames; frame++, i += frameSize) {
+        samples[frame] = ((chunk[i] & 0xFF) - 128) / 128f;
+      }
+    }
+    return frames;
+  }
+
+  /**
+   * Runs the samples through the Goertzel filter and classifies every full block
+   */
+  private void decode(float[] values, int count) {
+    double c = coefficient;
+    double q1 = s1;
+    double q2 = s2;
+    int fill = blockFill;
+    for (int i = 0; i < count; i++) {
+      double q0 = values[i] + c * q1 - q2;
+      q2 = q1;
+      q1 = q0;
+      if (++fill == blockSize) {
+        double power = q1 * q1 + q2 * q2 - c * q1 * q2;
+        block(2 * Math.sqrt(Math.max(0, power)) / blockSize);
+        q1 = 0;
+        q2 = 0;
+        fill = 0;
+      }
+    }
+    s1 = q1;
+    s2 = q2;
+    blockFill = fill;
+  }
+
+  /**
+   * @param level amplitude of the tone in the block, 1 is full scale
+   */
+  private void block(double level) {
+    blocks++;
+    peak = Math.max(level, peak * peakDecay);
+    if (!tone) {
+      floor = level < floor ? level : floor + (level - floor) * FLOOR_RISE;
+    }
+    boolean on = false;
+    if (peak >= MIN_LEVEL && peak >= floor * MIN_SIGNAL_TO_NOISE) {
+      on = level > floor + (peak - floor) * (tone ? OFF_LEVEL : ON_LEVEL);
+    }
+    //A change must last a few blocks, shorter ones are noise and belong to the run
+    if (on == tone) {
+      runBlocks += changeBlocks + 1;
+      changeBlocks = 0;
+    } else if (++changeBlocks == MIN_CHANGE_BLOCKS) {
+      if (runBlocks > 0) {
+        timing.run(tone, runBlocks);
+      }
+      tone = on;
+      runBlocks = changeBlocks;
+      changeBlocks = 0;
+    }
+  }
+
+  private void endOfAudio() {
+    runBlocks += changeBlocks;
+    if (runBlocks > 0) {
+      timing.run(tone, runBlocks);
+      runBlocks = 0;
+    }
+    timing.finish();
+    ended = true;
+  }
+
+  /**
+   * @return samples of the first channel decoded so far
+   */
+  public long getSamples() {
+    return blocks * blockSize + blockFill;
+  }
+
+  public int getSampleRate() {
+    return sampleRate;
+  }
+
+  @Override
+  public void close()
+      throws IOException {
+    input.close();
+  }
+
+  private static int tag(String name) {
+    return name.charAt(0) << 24 | name.charAt(1) << 16 | name.charAt(2) << 8 | name.charAt(3);
+  }
+
+  private int readTag()
+      throws IOException {
+    return input.readInt();
+  }
+
+  private int readLittleEndianInt()
+      throws IOException {
+    return Integer.reverseBytes(input.readInt());
+  }
+
+  private int readLittleEndianShort()
+      throws IOException {
+    return Short.reverseBytes(input.readShort()) & 0xFFFF;
+  }
+
+  private void skipChunk(long count)
+      throws IOException {
+    for (long left = count; left > 0; left--) {
+      if (input.read() == -1) {
+        throw new EOFException();
+      }
+    }
+  }
+}
@@ -0,0 +1,205 @@
+package fi.ilariel.languageconverter.morse;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+
+/**
+ * Writer that renders Morse code as a 16-bit mono PCM WAV stream. Use it as the writer of an English−to−Morse
+ * {@link MorseConverter} to render text, or write Morse code read from elsewhere into it. Dits, dahs and gaps are
+ * copied from tone and silence buffers computed once, so memory use doesn't depend on the length of the input and
+ * rendering runs far faster than real time.
+ * <p>
+ * Dits and dahs are tones, a '.' or any other character is a gap between characters and ' ' is a gap between words.
+ * Line breaks are ignored. Tones are shaped with a short raised cosine ramp so they don't click.
+ * <p>
+ * The length of a stream isn't known when its header is written, so a stream written to an {@link OutputStream} has
+ * 0xFFFFFFFF as its lengths, which players read as "until the end". Writers opened on a file fill in the real lengths
+ * when they are closed, unless the audio is longer than WAV allows.
+ */
+public final class MorseAudioWriter extends Writer {
+
+  static final int HEADER_SIZE = 44;
+  static final int BYTES_PER_SAMPLE = 2;
+  private static final int RIFF_SIZE_OFFSET = 4;
+  private static final int DATA_SIZE_OFFSET = 40;
+  private static final long MAX_DATA_SIZE = 0xFFFFFFFFL - (HEADER_SIZE - 8);
+  private static final int UNKNOWN_SIZE = -1;
+  private static final int BUFFER_SIZE = 64 * 1024;
+  private static final double RAMP_SECONDS = 0.005;
+  private static final double AMPLITUDE = 0.8 * Short.MAX_VALUE;
+
+  private final OutputStream output;
+  private final FileChannel channel;
+  private final byte[] dit;
+  private final byte[] dah;
+  private final byte[] silence = new byte[BUFFER_SIZE];
+  private final long elementGap;
+  private final long characterGap;
+  private final long wordGap;
+  //Silence owed before the next tone, nothing is owed before the first one
+  private long pendingGap;
+  private boolean started;
+  private long dataSize;
+  private boolean closed;
+
+  public MorseAudioWriter(OutputStream output)
+      throws IOException {
+    this(output, MorseAudioFormat.DEFAULT);
+  }
+
+  public MorseAudioWriter(OutputStream output, MorseAudioFormat format)
+      throws IOException {
+    this(new BufferedOutputStream(output, BUFFER_SIZE), null, format);
+  }
+
+  /**
+   * Creates or overwrites a WAV file
+   */
+  public MorseAudioWriter(Path wavFile, MorseAudioFormat format)
+      throws IOException {
+    this(FileChannel.open(wavFile, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+        StandardOpenOption.WRITE), format);
+  }
+
+  private MorseAudioWriter(FileChannel channel, MorseAudioFormat format)
+      throws IOException {
+    this(new BufferedOutputStream(Channels.newOutputStream(channel), BUFFER_SIZE), channel, format);
+  }
+
+  private MorseAudioWriter(OutputStream output, FileChannel channel, MorseAudioFormat format)
+      throws IOException {
+    this.output = output;
+    this.channel = channel;
+    int ditSamples = format.getDitSamples();
+    this.dit = tone(format, ditSamples);
+    this.dah = tone(format, 3 * ditSamples);
+    this.elementGap = (long) ditSamples * BYTES_PER_SAMPLE;
+    this.characterGap = (long) format.getCharacterGapSamples() * BYTES_PER_SAMPLE;
+    this.wordGap = (long) format.getWordGapSamples() * BYTES_PER_SAMPLE;
+    output.write(header(format.getSampleRate()).array());
+  }
+
+  /**
+   * Samples of a tone as little endian 16-bit values, faded in and out over a few milliseconds
+   */
+  private static byte[] tone(MorseAudioFormat format, int samples) {
+    ByteBuffer tone = ByteBuffer.allocate(samples * BYTES_PER_SAMPLE).order(ByteOrder.LITTLE_ENDIAN);
+    int ramp = Math.max(1, Math.min((int) (format.getSampleRate() * RAMP_SECONDS), samples / 4));
+    double step = 2 * Math.PI * format.getFrequency() / format.getSampleRate();
+    for (int i = 0; i < samples; i++) {
+      double envelope = 1;
+      int edge = Math.min(i, samples - 1 - i);
+      if (edge < ramp) {
+        envelope = 0.5 - 0.5 * Math.cos(Math.PI * edge / ramp);
+      }
+      tone.putShort((short) Math.round(AMPLITUDE * envelope * Math.sin(step * i)));
+    }
+    return tone.array();
+  }
+
+  /**
+   * @return header with unknown lengths
+   */
+  private static ByteBuffer header(int sampleRate) {
+    ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+    header.put(new byte[] {'R', 'I', 'F', 'F'}).putInt(UNKNOWN_SIZE);
+    header.put(new byte[] {'W', 'A', 'V', 'E', 'f', 'm', 't', ' '}).putInt(16);
+    //PCM, mono
+    header.putShort((short) 1).putShort((short) 1);
+    header.putInt(sampleRate).putInt(sampleRate * BYTES_PER_SAMPLE).putShort((short) BYTES_PER_SAMPLE)
+        .putShort((short) (8 * BYTES_PER_SAMPLE));
+    header.put(new byte[] {'d', 'a', 't', 'a'}).putInt(UNKNOWN_SIZE);
+    header.flip();
+    return header;
+  }
+
+  @Override
+  public void write(char[] buffer, int offset, int length)
+      throws IOException {
+    if (closed) {
+      throw new IOException("Writer is closed");
+    }
+    int end = offset + length;
+    for (int i = offset; i < end; i++) {
+      switch (buffer[i]) {
+        case MorseConverter.MORSE_DIT:
+          writeTone(dit);
+          break;
+        case MorseConverter.MORSE_DAH:
+          writeTone(dah);
+          break;
+        case '\n':
+        case '\r':
+          break;
+        case ' ':
+          gap(wordGap);
+          break;
+        default:
+          gap(characterGap);
+          break;
+      }
+    }
+  }
+
+  private void gap(long size) {
+    if (started) {
+      pendingGap = Math.max(pendingGap, size);
+    }
+  }
+
+  private void writeTone(byte[] tone)
+      throws IOException {
+    for (long left = pendingGap; left > 0; left -= silence.length) {
+      output.write(silence, 0, (int) Math.min(left, silence.length));
+    }
+    output.write(tone);
+    dataSize += pendingGap + tone.length;
+    pendingGap = elementGap;
+    started = true;
+  }
+
+  /**
+   * @return samples written so far
+   */
+  public long getSamples() {
+    return dataSize / BYTES_PER_SAMPLE;
+  }
+
+  @Override
+  public void flush()
+      throws IOException {
+    output.flush();
+  }
+
+  /**
+   * Closes the stream, a writer opened on a file writes the length of the audio to the header first
+   */
+  @Override
+  public void close()
+      throws IOException {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    try {
+      output.flush();
+      if (channel != null && dataSize <= MAX_DATA_SIZE) {
+        ByteBuffer size = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN);
+        channel.write(size.putInt(0, (int) (dataSize + HEADER_SIZE - 8)), RIFF_SIZE_OFFSET);
+        size.clear();
+        channel.write(size.putInt(0, (int) dataSize), DATA_SIZE_OFFSET);
+      }
+    } finally {
+      output.close();
+    }
+  }
+}
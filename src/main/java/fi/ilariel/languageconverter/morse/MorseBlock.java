@@ -0,0 +1,77 @@
+package fi.ilariel.languageconverter.morse;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+
+/**
+ * Index entry of a block of Morse code in a file. Holds the decoder state at the start of the block, so the block can
+ * be decoded without reading the ones before it. Used by the {@link BinaryMorseFormat} and by {@link MorseIndex}.
+ */
+final class MorseBlock {
+
+  private final long morseOffset;
+  private final long textOffset;
+  private final long line;
+  private final long fileOffset;
+  private final boolean delimiter;
+
+  MorseBlock(long morseOffset, long textOffset, long line, long fileOffset, boolean delimiter) {
+    this.morseOffset = morseOffset;
+    this.textOffset = textOffset;
+    this.line = line;
+    this.fileOffset = fileOffset;
+    this.delimiter = delimiter;
+  }
+
+  static MorseBlock read(DataInput input)
+      throws IOException {
+    return new MorseBlock(input.readLong(), input.readLong(), input.readLong(), input.readLong(),
+        input.readBoolean());
+  }
+
+  void write(DataOutput output)
+      throws IOException {
+    output.writeLong(morseOffset);
+    output.writeLong(textOffset);
+    output.writeLong(line);
+    output.writeLong(fileOffset);
+    output.writeBoolean(delimiter);
+  }
+
+  /**
+   * @return Morse characters before the block
+   */
+  long getMorseOffset() {
+    return morseOffset;
+  }
+
+  /**
+   * @return characters decoded from the Morse code before the block
+   */
+  long getTextOffset() {
+    return textOffset;
+  }
+
+  /**
+   * @return line of the Morse code the block starts on, starting from 1
+   */
+  long getLine() {
+    return line;
+  }
+
+  /**
+   * @return offset of the block from the start of the file
+   */
+  long getFileOffset() {
+    return fileOffset;
+  }
+
+  /**
+   * @return true if the block starts right after a delimiter dot
+   */
+  boolean isDelimiter() {
+    return delimiter;
+  }
+}
@@ -0,0 +1,153 @@
+package fi.ilariel.languageconverter.morse;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
+import fi.ilariel.languageconverter.converter.ByteLanguageConverter;
+import fi.ilariel.languageconverter.converter.ByteTranscoder;
+import fi.ilariel.languageconverter.converter.ConversionException;
+import fi.ilariel.languageconverter.converter.MeteredOutputStream;
+import fi.ilariel.languageconverter.converter.MetricsListener;
+
+
+/**
+ * Morse converter for UTF-8 encoded byte streams and buffers. Text is encoded through a precomputed table from ASCII
+ * characters to the UTF-8 bytes of their Morse code and Morse code is decoded by matching the three byte dit and dah
+ * sequences, so no charset decoding or encoding takes place.
+ * For buffer based callers, e.g. a network layer with direct buffers, {@link #newTranscoder(MorseConverter.Mode)}
+ * gives access to the conversion without streams or copying.
+ */
+public class MorseByteConverter extends ByteLanguageConverter {
+
+  private static final int BUFFER_SIZE = 64 * 1024;
+
+  private final MorseConverter.Mode mode;
+  private final DecodeErrorPolicy errorPolicy;
+  private final MorseAlphabet alphabet;
+
+  /**
+   * @param input UTF-8 encoded input
+   * @param output UTF-8 encoded output
+   * @param mode {@link MorseConverter.Mode}
+   */
+  public MorseByteConverter(InputStream input, OutputStream output, MorseConverter.Mode mode) {
+    this(input, output, mode, DecodeErrorPolicy.failFast());
+  }
+
+  /**
+   * @param errorPolicy what to do with invalid Morse code, see {@link DecodeErrorPolicy}
+   */
+  public MorseByteConverter(InputStream input, OutputStream output, MorseConverter.Mode mode,
+      DecodeErrorPolicy errorPolicy) {
+    this(input, output, mode, errorPolicy, MorseAlphabet.DEFAULT);
+  }
+
+  /**
+   * @param alphabet letters and symbols to convert with, see {@link MorseAlphabet}
+   */
+  public MorseByteConverter(InputStream input, OutputStream output, MorseConverter.Mode mode,
+      DecodeErrorPolicy errorPolicy, MorseAlphabet alphabet) {
+    super(input, output);
+    this.mode = mode;
+    this.errorPolicy = errorPolicy;
+    this.alphabet = alphabet;
+  }
+
+  /**
+   * @param mode {@link MorseConverter.Mode}
+   * @return a new transcoder for a single stream of UTF-8 bytes. Works on heap and direct buffers
+   */
+  public static ByteTranscoder newTranscoder(MorseConverter.Mode mode) {
+    return newTranscoder(mode, DecodeErrorPolicy.failFast());
+  }
+
+  /**
+   * @param errorPolicy what to do with invalid Morse code, see {@link DecodeErrorPolicy}
+   * @return a new transcoder for a single stream of UTF-8 bytes. Works on heap and direct buffers
+   */
+  public static ByteTranscoder newTranscoder(MorseConverter.Mode mode, DecodeErrorPolicy errorPolicy) {
+    return newTranscoder(mode, errorPolicy, MorseAlphabet.DEFAULT);
+  }
+
+  /**
+   * @param alphabet letters and symbols to convert with, see {@link MorseAlphabet}
+   * @return a new transcoder for a single stream of UTF-8 bytes. Works on heap and direct buffers
+   */
+  public static ByteTranscoder newTranscoder(MorseConverter.Mode mode, DecodeErrorPolicy errorPolicy,
+      MorseAlphabet alphabet) {
+    MorseTable table = alphabet.getTable();
+    return mode == MorseConverter.Mode.TEXT_TO_MORSE
+        ? new Utf8MorseEncoder(table)
+        : new Utf8MorseDecoder(errorPolicy, table, false, 0, 1);
+  }
+
+  /**
+   * Converts based on mode specified in constructor. Reads, writes and buffers are reported to the metrics listener,
+   * which costs a few clock reads per buffer when measuring nothing
+   * @throws ConversionException, if invalid morse code sequence, unsupported text input or an I/O error
+   */
+  @Override
+  public void convert()
+      throws ConversionException {
+    long start = System.nanoTime();
+    ByteTranscoder transcoder = newTranscoder(mode, errorPolicy, alphabet);
+    ByteBuffer in = ByteBuffer.allocate(BUFFER_SIZE);
+    ByteBuffer out = ByteBuffer.allocate(BUFFER_SIZE);
+    MeteredOutputStream meteredOutput = new MeteredOutputStream(output, metrics);
+    boolean success = false;
+
+    try {
+      boolean endOfInput = false;
+      while (!endOfInput) {
+        long readStart = System.nanoTime();
+        int read = input.read(in.array(), in.position(), in.remaining());
+        metrics.inputRead(Math.max(read, 0), System.nanoTime() - readStart);
+        if (read == -1) {
+          endOfInput = true;
+        } else {
+          in.position(in.position() + read);
+        }
+        in.flip();
+        long chunkStart = System.nanoTime();
+        long writeNanos = meteredOutput.getNanos();
+        int units = in.remaining();
+        while (transcoder.transcode(in, out, endOfInput)) {
+          write(out, meteredOutput);
+        }
+        units -= in.remaining();
+        metrics.chunkConverted(units, System.nanoTime() - chunkStart - (meteredOutput.getNanos() - writeNanos));
+        //Keep a partial character for the next read
+        in.compact();
+      }
+      if (out.remaining() < ByteTranscoder.FINISH_OUTPUT_SIZE) {
+        write(out, meteredOutput);
+      }
+      transcoder.finish(out);
+      write(out, meteredOutput);
+      success = true;
+    } catch (IOException e) {
+      metrics.errors(MetricsListener.ErrorType.IO, 1);
+      throw new ConversionException(e);
+    } catch (ConversionException e) {
+      if (mode == MorseConverter.Mode.TEXT_TO_MORSE) {
+        metrics.errors(MetricsListener.ErrorType.UNSUPPORTED_CHARACTER, 1);
+      }
+      throw e;
+    } finally {
+      if (transcoder instanceof Utf8MorseDecoder) {
+        Utf8MorseDecoder decoder = (Utf8MorseDecoder) transcoder;
+        MorseConverter.reportDecoded(metrics, decoder.getSymbols(), decoder.getInvalidSequences(),
+            decoder.getRepeatedDelimiters());
+      }
+      metrics.conversionFinished(System.nanoTime() - start, success);
+    }
+  }
+
+  private static void write(ByteBuffer out, OutputStream output)
+      throws IOException {
+    output.write(out.array(), 0, out.position());
+    out.clear();
+  }
+}
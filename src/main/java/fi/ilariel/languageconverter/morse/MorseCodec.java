@@ -0,0 +1,288 @@
+package fi.ilariel.languageconverter.morse;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+
+import fi.ilariel.languageconverter.converter.ConversionException;
+
+
+/**
+ * Thread safe Morse codec for in-memory messages. Follows the same rules as {@link MorseConverter} but works directly
+ * on strings without readers, writers or buffers to set up. The codec holds no mutable state, so a single instance can
+ * be shared by any number of threads without locking.
+ * <p>
+ * Messages that repeat the same words can be converted through a {@link MorseWordCache}, which is safe to share
+ * between threads as well.
+ */
+public final class MorseCodec {
+
+  /**
+   * Shared instance for the default alphabet
+   */
+  public static final MorseCodec INSTANCE = new MorseCodec(MorseAlphabet.DEFAULT);
+
+  //Dits and dahs of the default alphabet are 1−6 characters plus the delimiter, most letters take about 4
+  private static final int ENCODED_LENGTH_ESTIMATE = 5;
+  //Output buffered by the encoder and decoder before it is appended, smaller for short messages
+  private static final int MAX_BUFFER_SIZE = 8192;
+
+  private final MorseTable table;
+  private final MorseWordCache cache;
+
+  /**
+   * @param alphabet letters and symbols used by the codec
+   */
+  public MorseCodec(MorseAlphabet alphabet) {
+    this.table = alphabet.getTable();
+    this.cache = null;
+  }
+
+  /**
+   * Codec that converts whole words through a cache, for messages that repeat the same words
+   * @param cache cache of converted words, can be shared by codecs of the same alphabet
+   * @throws IllegalArgumentException if the cache is already used with another alphabet
+   */
+  public MorseCodec(MorseAlphabet alphabet, MorseWordCache cache) {
+    this.table = alphabet.getTable();
+    this.cache = cache;
+    cache.attach(table);
+  }
+
+  /**
+   * @return text encoded to Morse code where characters are separated with '.'
+   * @throws ConversionException if the text contains an unsupported character
+   */
+  public String encode(CharSequence text)
+      throws ConversionException {
+    StringBuilder builder = new StringBuilder(text.length() * ENCODED_LENGTH_ESTIMATE);
+    encode(text, builder);
+    return builder.toString();
+  }
+
+  /**
+   * @return Morse code decoded to text
+   * @throws ConversionException if the input contains an invalid sequence or consecutive delimiters
+   */
+  public String decode(CharSequence morse)
+      throws ConversionException {
+    StringBuilder builder = new StringBuilder(morse.length() / ENCODED_LENGTH_ESTIMATE + 1);
+    decode(morse, builder);
+    return builder.toString();
+  }
+
+  /**
+   * Encodes a batch of messages, reusing one work buffer for all of them
+   * @return encoded messages in the same order
+   * @throws ConversionException for the first message that contains an unsupported character
+   */
+  public List<String> encodeAll(List<? extends CharSequence> messages)
+      throws ConversionException {
+    List<String> results = new ArrayList<>(messages.size());
+    StringBuilder builder = new StringBuilder();
+    for (CharSequence message : messages) {
+      builder.setLength(0);
+      encode(message, builder);
+      results.add(builder.toString());
+    }
+    return results;
+  }
+
+  /**
+   * Decodes a batch of messages, reusing one work buffer for all of them
+   * @return decoded messages in the same order
+   * @throws ConversionException for the first message that contains an invalid sequence or consecutive delimiters
+   */
+  public List<String> decodeAll(List<? extends CharSequence> messages)
+      throws ConversionException {
+    List<String> results = new ArrayList<>(messages.size());
+    StringBuilder builder = new StringBuilder();
+    for (CharSequence message : messages) {
+      builder.setLength(0);
+      decode(message, builder);
+      results.add(builder.toString());
+    }
+    return results;
+  }
+
+  void encode(CharSequence text, StringBuilder builder)
+      throws ConversionException {
+    if (cache != null) {
+      encodeWords(text, builder);
+      return;
+    }
+    encodeCharacters(text, builder);
+  }
+
+  void decode(CharSequence morse, StringBuilder builder)
+      throws ConversionException {
+    if (cache != null) {
+      decodeWords(morse, builder);
+      return;
+    }
+    decodeSymbols(morse, builder);
+  }
+
+  /**
+   * Encodes words through the cache. Every character, spaces included, is separated from the next with a delimiter,
+   * so a cached word is its characters joined with delimiters
+   */
+  private void encodeWords(CharSequence text, StringBuilder builder)
+      throws ConversionException {
+    boolean first = true;
+    int length = text.length();
+    int wordStart = 0;
+    while (wordStart < length) {
+      String morse;
+      int wordEnd = wordStart + 1;
+      if (text.charAt(wordStart) == ' ') {
+        morse = " ";
+      } else {
+        while (wordEnd < length && text.charAt(wordEnd) != ' ') {
+          wordEnd++;
+        }
+        String word = text.subSequence(wordStart, wordEnd).toString();
+        morse = cache.get(true, word);
+        if (morse == null) {
+          StringBuilder encoded = new StringBuilder(word.length() * ENCODED_LENGTH_ESTIMATE);
+          try {
+            encodeCharacters(word, encoded);
+          } catch (ConversionException e) {
+            long offset = wordStart + e.getOffset();
+            throw new ConversionException(e.getMessage(), offset, lineOf(text, (int) offset));
+          }
+          morse = encoded.toString();
+          cache.put(true, word, morse);
+        }
+      }
+      //Words of only line breaks have no Morse code
+      if (!morse.isEmpty()) {
+        if (!first) {
+          builder.append(MorseConverter.MORSE_CODE_CHARACTER_SEPARATOR);
+        }
+        builder.append(morse);
+        first = false;
+      }
+      wordStart = wordEnd;
+    }
+  }
+
+  /**
+   * Decodes words through the cache. A space ends a symbol and clears the delimiter, so the Morse words between spaces
+   * decode on their own
+   */
+  private void decodeWords(CharSequence morse, StringBuilder builder)
+      throws ConversionException {
+    int length = morse.length();
+    int wordStart = 0;
+    while (wordStart < length) {
+      if (morse.charAt(wordStart) == ' ') {
+        builder.append(' ');
+        wordStart++;
+        continue;
+      }
+      int wordEnd = wordStart + 1;
+      while (wordEnd < length && morse.charAt(wordEnd) != ' ') {
+        wordEnd++;
+      }
+      String word = morse.subSequence(wordStart, wordEnd).toString();
+      String text = cache.get(false, word);
+      if (text == null) {
+        StringBuilder decoded = new StringBuilder(word.length() / ENCODED_LENGTH_ESTIMATE + 1);
+        try {
+          decodeSymbols(word, decoded);
+        } catch (ConversionException e) {
+          long offset = wordStart + e.getOffset();
+          throw new ConversionException(e.getMessage(), offset, lineOf(morse, (int) offset));
+        }
+        text = decoded.toString();
+        cache.put(false, word, text);
+      }
+      builder.append(text);
+      wordStart = wordEnd;
+    }
+  }
+
+  /**
+   * Encodes with {@link MorseEncoder}, so messages follow the same rules as streams
+   */
+  private void encodeCharacters(CharSequence text, StringBuilder builder)
+      throws ConversionException {
+    char[] input = toChars(text);
+    MorseEncoder encoder = new MorseEncoder(new BuilderWriter(builder), table,
+        Math.min(MAX_BUFFER_SIZE, input.length * ENCODED_LENGTH_ESTIMATE));
+    try {
+      encoder.encode(input, 0, input.length);
+      encoder.finish();
+    } catch (IOException e) {
+      throw new ConversionException(e);
+    }
+  }
+
+  /**
+   * Decodes with {@link MorseDecoder} failing fast, so messages follow the same rules as streams
+   */
+  private void decodeSymbols(CharSequence morse, StringBuilder builder)
+      throws ConversionException {
+    char[] input = toChars(morse);
+    MorseDecoder decoder = new MorseDecoder(new BuilderWriter(builder), false, DecodeErrorPolicy.failFast(), table, 0,
+        1, Math.min(MAX_BUFFER_SIZE, input.length / ENCODED_LENGTH_ESTIMATE + 1));
+    try {
+      decoder.decode(input, 0, input.length);
+      decoder.finish();
+    } catch (IOException e) {
+      throw new ConversionException(e);
+    }
+  }
+
+  private static char[] toChars(CharSequence text) {
+    if (text instanceof String) {
+      return ((String) text).toCharArray();
+    }
+    char[] chars = new char[text.length()];
+    for (int i = 0; i < chars.length; i++) {
+      chars[i] = text.charAt(i);
+    }
+    return chars;
+  }
+
+  /**
+   * Lines are only counted on the error path, so valid messages don't pay for positions
+   * @return line of the index, starting from 1
+   */
+  private static long lineOf(CharSequence text, int index) {
+    long line = 1;
+    for (int i = 0; i < index; i++) {
+      if (text.charAt(i) == '\n') {
+        line++;
+      }
+    }
+    return line;
+  }
+
+  /**
+   * Appends the output of an encoder or decoder to the builder of the caller
+   */
+  private static final class BuilderWriter extends Writer {
+
+    private final StringBuilder builder;
+
+    BuilderWriter(StringBuilder builder) {
+      this.builder = builder;
+    }
+
+    @Override
+    public void write(char[] buffer, int offset, int length) {
+      builder.append(buffer, offset, length);
+    }
+
+    @Override
+    public void flush() {
+    }
+
+    @Override
+    public void close() {
+    }
+  }
+}
@@ -0,0 +1,64 @@
+package fi.ilariel.languageconverter.morse;
+
+import java.io.BufferedReader;
+import java.io.Reader;
+import java.io.Writer;
+
+import fi.ilariel.languageconverter.converter.ConverterProvider;
+import fi.ilariel.languageconverter.converter.LanguageConverter;
+
+
+/**
+ * {@link ConverterProvider} of {@link MorseConverter}s with the default alphabet. {@link Encoder} and {@link Decoder}
+ * are the service forms with constructors without arguments.
+ */
+public class MorseConverterProvider implements ConverterProvider {
+
+  public static final String ENCODE = "morse-encode";
+  public static final String DECODE = "morse-decode";
+
+  private final MorseConverter.Mode mode;
+
+  /**
+   * @param mode {@link MorseConverter.Mode}
+   */
+  public MorseConverterProvider(MorseConverter.Mode mode) {
+    this.mode = mode;
+  }
+
+  @Override
+  public String getName() {
+    return mode == MorseConverter.Mode.TEXT_TO_MORSE ? ENCODE : DECODE;
+  }
+
+  @Override
+  public String getDescription() {
+    return mode == MorseConverter.Mode.TEXT_TO_MORSE ? "English to Morse code" : "Morse code to English";
+  }
+
+  @Override
+  public LanguageConverter newConverter(Reader reader, Writer writer) {
+    return new MorseConverter(reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader),
+        writer, mode);
+  }
+
+  /**
+   * English to Morse code
+   */
+  public static final class Encoder extends MorseConverterProvider {
+
+    public Encoder() {
+      super(MorseConverter.Mode.TEXT_TO_MORSE);
+    }
+  }
+
+  /**
+   * Morse code to English
+   */
+  public static final class Decoder extends MorseConverterProvider {
+
+    public Decoder() {
+      super(MorseConverter.Mode.MORSE_TO_TEXT);
+    }
+  }
+}
@@ -0,0 +1,149 @@
+package fi.ilariel.languageconverter.morse;
+
+import java.util.ArrayList;
+import java.util.List;
+
+
+/**
+ * Nearest letters for invalid symbols, used by {@link DecodeErrorPolicy#correct(boolean, int)}. A symbol is matched
+ * to the letters of the alphabet by edit distance over dits and dahs, where dropping, adding or flipping an element
+ * is one edit. Each letter is scored by the chance of that many edits, optionally times how common the letter is in
+ * English, and the confidence of a correction is the share of its score of all scores.
+ * <p>
+ * Corrections of every packed symbol up to the longest symbol of the alphabet are computed the first time an alphabet
+ * corrects a symbol, so decoding with corrections is one more array lookup per invalid symbol. Only symbols longer
+ * than any letter are matched when they are found.
+ */
+final class MorseCorrections {
+
+  //Chance of one edit, every further edit makes a letter ten times less likely
+  private static final double EDIT_PROBABILITY = 0.1;
+  //Letters of English text from the most to the least common and their shares in percent
+  private static final String ENGLISH_LETTERS = "ETAOINSHRDLCUMWFGYPBVKJXQZ";
+  private static final double[] ENGLISH_PERCENTAGES = {12.7, 9.1, 8.2, 7.5, 7.0, 6.7, 6.3, 6.1, 6.0, 4.3, 4.0, 2.8,
+      2.8, 2.4, 2.4, 2.2, 2.0, 2.0, 1.9, 1.5, 1.0, 0.8, 0.15, 0.15, 0.1, 0.07};
+  //Digits, punctuation and letters of other languages
+  private static final double OTHER_PERCENTAGE = 0.5;
+
+  private final char[] letters;
+  private final boolean[][] elements;
+  private final double[] weights;
+  private final Correction[] corrections;
+
+  /**
+   * @param frequencyWeighted true to prefer letters that are common in English over rare ones at the same distance
+   */
+  MorseCorrections(MorseTable table, boolean frequencyWeighted) {
+    List<Integer> codes = new ArrayList<>();
+    for (int code = MorseTable.EMPTY_CODE + 1; code < table.getCodeLimit(); code++) {
+      if (table.decode(code) != MorseTable.NO_LETTER) {
+        codes.add(code);
+      }
+    }
+    letters = new char[codes.size()];
+    elements = new boolean[codes.size()][];
+    weights = new double[codes.size()];
+    for (int i = 0; i < letters.length; i++) {
+      letters[i] = table.decode(codes.get(i));
+      elements[i] = elementsOf(MorseTable.toMorse(codes.get(i)));
+      weights[i] = frequencyWeighted ? percentageOf(letters[i]) : 1;
+    }
+
+    corrections = new Correction[table.getCodeLimit()];
+    for (int code = MorseTable.EMPTY_CODE + 1; code < corrections.length; code++) {
+      if (table.decode(code) == MorseTable.NO_LETTER) {
+        corrections[code] = nearest(elementsOf(MorseTable.toMorse(code)));
+      }
+    }
+  }
+
+  /**
+   * @param code packed symbol that is not a letter of the alphabet
+   */
+  Correction correct(int code) {
+    return corrections[code];
+  }
+
+  /**
+   * @param morse dits and dahs of a symbol longer than any letter of the alphabet
+   */
+  Correction correct(String morse) {
+    return nearest(elementsOf(morse));
+  }
+
+  private Correction nearest(boolean[] symbol) {
+    int best = 0;
+    double bestScore = -1;
+    double total = 0;
+    for (int i = 0; i < letters.length; i++) {
+      int distance = distance(symbol, elements[i]);
+      double score = weights[i] * Math.pow(EDIT_PROBABILITY, distance);
+      total += score;
+      if (score > bestScore) {
+        best = i;
+        bestScore = score;
+      }
+    }
+    return new Correction(letters[best], bestScore / total);
+  }
+
+  /**
+   * Levenshtein distance of two symbols, true elements are dahs
+   */
+  private static int distance(boolean[] a, boolean[] b) {
+    int[] previous = new int[b.length + 1];
+    int[] current = new int[b.length + 1];
+    for (int j = 0; j <= b.length; j++) {
+      previous[j] = j;
+    }
+    for (int i = 1; i <= a.length; i++) {
+      current[0] = i;
+      for (int j = 1; j <= b.length; j++) {
+        int flip = previous[j - 1] + (a[i - 1] == b[j - 1] ? 0 : 1);
+        current[j] = Math.min(flip, Math.min(previous[j], current[j - 1]) + 1);
+      }
+      int[] swap = previous;
+      previous = current;
+      current = swap;
+    }
+    return previous[b.length];
+  }
+
+  private static boolean[] elementsOf(String morse) {
+    boolean[] dahs = new boolean[morse.length()];
+    for (int i = 0; i < dahs.length; i++) {
+      dahs[i] = morse.charAt(i) == MorseConverter.MORSE_DAH;
+    }
+    return dahs;
+  }
+
+  private static double percentageOf(char letter) {
+    int index = ENGLISH_LETTERS.indexOf(Character.toUpperCase(letter));
+    return index >= 0 ? ENGLISH_PERCENTAGES[index] : OTHER_PERCENTAGE;
+  }
+
+  /**
+   * Letter chosen for an invalid symbol
+   */
+  static final class Correction {
+
+    private final char letter;
+    private final double confidence;
+
+    Correction(char letter, double confidence) {
+      this.letter = letter;
+      this.confidence = confidence;
+    }
+
+    char getLetter() {
+      return letter;
+    }
+
+    /**
+     * @return chance from 0 to 1 that the letter is the one meant
+     */
+    double getConfidence() {
+      return confidence;
+    }
+  }
+}
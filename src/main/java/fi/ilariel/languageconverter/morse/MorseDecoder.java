@@ -0,0 +1,180 @@
+package fi.ilariel.languageconverter.morse;
+
+import java.io.IOException;
+import java.io.Writer;
+
+import fi.ilariel.languageconverter.converter.ConversionException;
+
+
+/**
+ * Incremental Morse−to−English decoder. The symbol being read and the delimiter state are kept between calls, so the
+ * input can be fed in chunks of any size and symbols may straddle chunk boundaries.
+ * Invalid input is handled by a {@link DecodeErrorPolicy}. Positions are counted in characters and lines from the
+ * start of the input.
+ * Symbols are packed into an int as they are read and looked up from {@link MorseTable}, so decoding valid input
+ * allocates nothing per symbol. Decoded characters are buffered and written to the writer whenever the buffer fills up.
+ */
+final class MorseDecoder {
+
+  private static final int OUTPUT_BUFFER_SIZE = 8192;
+
+  private final Writer writer;
+  private final char[] output;
+  private int outputLength;
+  private final MorseSymbol symbol;
+  private final DecodeErrorPolicy errorPolicy;
+  private boolean delimiter;
+  //Characters in the chunks before the current one and lines seen so far
+  private long consumed;
+  private long line = 1;
+  //Counted for metrics, errors only on the error path
+  private long symbols;
+  private long invalidSequences;
+  private long repeatedDelimiters;
+
+  MorseDecoder(Writer writer) {
+    this(writer, false, DecodeErrorPolicy.failFast());
+  }
+
+  MorseDecoder(Writer writer, boolean delimiter, DecodeErrorPolicy errorPolicy, MorseTable table) {
+    this(writer, delimiter, errorPolicy, table, 0, 1);
+  }
+
+  /**
+   * @param delimiter true when the input continues right after a delimiter dot, so a leading dot is an error
+   */
+  MorseDecoder(Writer writer, boolean delimiter, DecodeErrorPolicy errorPolicy) {
+    this(writer, delimiter, errorPolicy, MorseAlphabet.DEFAULT.getTable(), 0, 1);
+  }
+
+  /**
+   * @param offset position of the input in a larger input, errors are reported from its start
+   * @param line line of the larger input the input starts on
+   */
+  MorseDecoder(Writer writer, boolean delimiter, DecodeErrorPolicy errorPolicy, MorseTable table, long offset,
+      long line) {
+    this(writer, delimiter, errorPolicy, table, offset, line, OUTPUT_BUFFER_SIZE);
+  }
+
+  /**
+   * @param bufferSize characters buffered before writing
+   */
+  MorseDecoder(Writer writer, boolean delimiter, DecodeErrorPolicy errorPolicy, MorseTable table, long offset,
+      long line, int bufferSize) {
+    this.writer = writer;
+    this.output = new char[Math.max(bufferSize, 1)];
+    this.symbol = new MorseSymbol(table);
+    this.delimiter = delimiter;
+    this.errorPolicy = errorPolicy;
+    this.consumed = offset;
+    this.line = line;
+  }
+
+  /**
+   * Decodes a chunk of Morse code. Line breaks are ignored so that symbols may continue on the next line and other
+   * unknown characters end the current symbol.
+   * @throws ConversionException if failing fast and the chunk completes an invalid sequence or contains consecutive
+   * delimiters
+   */
+  void decode(char[] input, int offset, int length)
+      throws ConversionException, IOException {
+    int end = offset + length;
+    long base = consumed - offset;
+    for (int i = offset; i < end; i++) {
+      char ch = input[i];
+      switch (ch) {
+        case MorseConverter.MORSE_DIT:
+        case MorseConverter.MORSE_DAH:
+          symbol.append(ch, base + i, line);
+          break;
+        case '\n':
+          line++;
+          break;
+        case '\r':
+          break;
+        case ' ':
+          endSymbol();
+          emit(' ');
+          delimiter = false;
+          break;
+        case MorseConverter.MORSE_CODE_CHARACTER_SEPARATOR:
+          endSymbol();
+          //Accept only single dot delimitation
+          if (delimiter) {
+            repeatedDelimiters++;
+            errorPolicy.repeatedDelimiter(base + i, line);
+          }
+          delimiter = true;
+          break;
+        default:
+          endSymbol();
+          break;
+      }
+    }
+    consumed += length;
+  }
+
+  /**
+   * @return number of line breaks seen so far
+   */
+  long getLineBreaks() {
+    return line - 1;
+  }
+
+  /**
+   * @return number of symbols ended so far, valid or not
+   */
+  long getSymbols() {
+    return symbols;
+  }
+
+  long getInvalidSequences() {
+    return invalidSequences;
+  }
+
+  long getRepeatedDelimiters() {
+    return repeatedDelimiters;
+  }
+
+  /**
+   * Decodes the last pending symbol and writes out everything decoded so far
+   * @throws ConversionException if failing fast and the pending symbol is not a valid sequence
+   */
+  void finish()
+      throws ConversionException, IOException {
+    endSymbol();
+    flush();
+  }
+
+  private void endSymbol()
+      throws ConversionException, IOException {
+    if (!symbol.isEmpty()) {
+      char letter = symbol.letter();
+      symbols++;
+      if (letter == MorseTable.NO_LETTER) {
+        invalidSequences++;
+        letter = errorPolicy.invalidSequence(symbol);
+      }
+      emit(letter);
+      symbol.clear();
+      delimiter = false;
+    }
+  }
+
+  private void emit(char ch)
+      throws IOException {
+    if (outputLength == output.length) {
+      flush();
+    }
+    output[outputLength++] = ch;
+  }
+
+  /**
+   * Writes out the characters completed so far
+   */
+  void flush()
+      throws IOException {
+    writer.write(output, 0, outputLength);
+    outputLength = 0;
+  }
+}
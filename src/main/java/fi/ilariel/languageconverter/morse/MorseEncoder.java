@@ -0,0 +1,102 @@
+package fi.ilariel.languageconverter.morse;
+
+import java.io.IOException;
+import java.io.Writer;
+
+import fi.ilariel.languageconverter.converter.ConversionException;
+
+
+/**
+ * Incremental English−to−Morse encoder. Characters are looked up from {@link MorseTable} and copied to an output buffer
+ * that is written to the writer whenever it fills up. Line breaks are dropped, so lines are joined into one stream of
+ * characters delimited with '.'
+ */
+final class MorseEncoder {
+
+  private static final int OUTPUT_BUFFER_SIZE = 8192;
+
+  private final Writer writer;
+  private final MorseTable table;
+  private final char[] output;
+  private int outputLength;
+  private boolean first = true;
+  //Characters in the chunks before the current one and lines seen so far
+  private long consumed;
+  private long line = 1;
+
+  MorseEncoder(Writer writer) {
+    this(writer, MorseAlphabet.DEFAULT.getTable());
+  }
+
+  MorseEncoder(Writer writer, MorseTable table) {
+    this(writer, table, OUTPUT_BUFFER_SIZE);
+  }
+
+  /**
+   * @param bufferSize characters buffered before writing, at least one more than the longest symbol of the table
+   */
+  MorseEncoder(Writer writer, MorseTable table, int bufferSize) {
+    this.writer = writer;
+    this.table = table;
+    this.output = new char[Math.max(bufferSize, table.getMaxSymbolLength() + 1)];
+  }
+
+  /**
+   * Encodes a chunk of text
+   * @throws ConversionException if the chunk contains an unsupported character
+   */
+  void encode(char[] input, int offset, int length)
+      throws ConversionException, IOException {
+    int end = offset + length;
+    for (int i = offset; i < end; i++) {
+      char ch = input[i];
+      if (ch == '\n' || ch == '\r') {
+        if (ch == '\n') {
+          line++;
+        }
+        continue;
+      }
+
+      char[] morse = table.encode(ch);
+      if (morse == null) {
+        throw new ConversionException("Conversion for " + ch + "is not supported", consumed + i - offset, line);
+      }
+      //Reserve room for the delimiter and the longest symbol
+      if (outputLength + table.getMaxSymbolLength() + 1 > output.length) {
+        flush();
+      }
+      if (!first) {
+        output[outputLength++] = MorseConverter.MORSE_CODE_CHARACTER_SEPARATOR;
+      } else {
+        first = false;
+      }
+      System.arraycopy(morse, 0, output, outputLength, morse.length);
+      outputLength += morse.length;
+    }
+    consumed += length;
+  }
+
+  /**
+   * @return number of line breaks seen so far
+   */
+  long getLineBreaks() {
+    return line - 1;
+  }
+
+  /**
+   * Writes out everything encoded so far
+   */
+  void finish()
+      throws IOException {
+    flush();
+  }
+
+  /**
+   * Writes out the characters completed so far
+   */
+  void flush()
+      throws IOException {
+    writer.write(output, 0, outputLength);
+    outputLength = 0;
+  }
+}
@@ -0,0 +1,255 @@
+package fi.ilariel.languageconverter.morse;
+
+import java.io.CharArrayWriter;
+import java.io.IOException;
+import java.nio.CharBuffer;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import fi.ilariel.languageconverter.converter.ConversionException;
+
+
+/**
+ * Reactive Morse converter. Every chunk received from upstream is converted to one output chunk, a symbol cut off at
+ * the end of a chunk is kept until the next one, so the concatenated output is the same as with {@link MorseConverter}.
+ * Chunks are requested from upstream one at a time and only while the subscriber has demand, so at most one converted
+ * chunk waits for demand. Nothing blocks, signals are serialized with a lock free drain loop and delivered on the
+ * thread of whoever caused them. A processor converts one stream and accepts a single subscriber.
+ * Conversion errors are delivered with {@link Flow.Subscriber#onError(Throwable)} after the chunks converted before
+ * them.
+ */
+public final class MorseFlowProcessor implements Flow.Processor<CharBuffer, CharBuffer> {
+
+  //Given to extra subscribers just before they are told they can't subscribe
+  private static final Flow.Subscription REJECTED_SUBSCRIPTION = new Flow.Subscription() {
+    @Override
+    public void request(long n) {
+    }
+
+    @Override
+    public void cancel() {
+    }
+  };
+
+  private final CharArrayWriter output = new CharArrayWriter();
+  private final MorseEncoder encoder;
+  private final MorseDecoder decoder;
+  private char[] chunkBuffer = new char[0];
+
+  private final Queue<CharBuffer> queue = new ConcurrentLinkedQueue<>();
+  private final AtomicInteger wip = new AtomicInteger();
+  private final AtomicLong requested = new AtomicLong();
+  private final AtomicReference<Flow.Subscription> upstream = new AtomicReference<>();
+  private final AtomicReference<Flow.Subscriber<? super CharBuffer>> downstream = new AtomicReference<>();
+  private volatile boolean upstreamPending;
+  private volatile boolean done;
+  private volatile boolean cancelled;
+  private volatile Throwable error;
+  //Only accessed in the drain loop
+  private boolean terminated;
+
+  /**
+   * @param mode {@link MorseConverter.Mode}
+   */
+  public MorseFlowProcessor(MorseConverter.Mode mode) {
+    this(mode, DecodeErrorPolicy.failFast());
+  }
+
+  /**
+   * @param errorPolicy what to do with invalid Morse code, see {@link DecodeErrorPolicy}
+   */
+  public MorseFlowProcessor(MorseConverter.Mode mode, DecodeErrorPolicy errorPolicy) {
+    this(mode, errorPolicy, MorseAlphabet.DEFAULT);
+  }
+
+  /**
+   * @param alphabet letters and symbols to convert with, see {@link MorseAlphabet}
+   */
+  public MorseFlowProcessor(MorseConverter.Mode mode, DecodeErrorPolicy errorPolicy, MorseAlphabet alphabet) {
+    if (mode == MorseConverter.Mode.TEXT_TO_MORSE) {
+      encoder = new MorseEncoder(output, alphabet.getTable());
+      decoder = null;
+    } else {
+      encoder = null;
+      decoder = new MorseDecoder(output, false, errorPolicy, alphabet.getTable());
+    }
+  }
+
+  @Override
+  public void subscribe(Flow.Subscriber<? super CharBuffer> subscriber) {
+    if (!downstream.compareAndSet(null, subscriber)) {
+      subscriber.onSubscribe(REJECTED_SUBSCRIPTION);
+      subscriber.onError(new IllegalStateException("Only one subscriber is supported"));
+      return;
+    }
+    subscriber.onSubscribe(new DownstreamSubscription());
+    drain();
+  }
+
+  @Override
+  public void onSubscribe(Flow.Subscription subscription) {
+    if (cancelled || !upstream.compareAndSet(null, subscription)) {
+      subscription.cancel();
+      return;
+    }
+    drain();
+  }
+
+  @Override
+  public void onNext(CharBuffer chunk) {
+    if (done) {
+      return;
+    }
+    try {
+      int length = chunk.remaining();
+      if (encoder != null) {
+        encoder.encode(chars(chunk), offset(chunk), length);
+        encoder.flush();
+      } else {
+        decoder.decode(chars(chunk), offset(chunk), length);
+        decoder.flush();
+      }
+      emitOutput();
+    } catch (ConversionException | IOException e) {
+      fail(e);
+    }
+    upstreamPending = false;
+    drain();
+  }
+
+  @Override
+  public void onError(Throwable throwable) {
+    if (done) {
+      return;
+    }
+    error = throwable;
+    done = true;
+    drain();
+  }
+
+  @Override
+  public void onComplete() {
+    if (done) {
+      return;
+    }
+    try {
+      if (encoder != null) {
+        encoder.finish();
+      } else {
+        decoder.finish();
+      }
+      emitOutput();
+    } catch (ConversionException | IOException e) {
+      error = e;
+    }
+    done = true;
+    drain();
+  }
+
+  /**
+   * @return array holding the chunk, chunks without an accessible array are copied to a reused buffer
+   */
+  private char[] chars(CharBuffer chunk) {
+    if (chunk.hasArray()) {
+      return chunk.array();
+    }
+    if (chunkBuffer.length < chunk.remaining()) {
+      chunkBuffer = new char[chunk.remaining()];
+    }
+    chunk.duplicate().get(chunkBuffer, 0, chunk.remaining());
+    return chunkBuffer;
+  }
+
+  private static int offset(CharBuffer chunk) {
+    return chunk.hasArray() ? chunk.arrayOffset() + chunk.position() : 0;
+  }
+
+  private void emitOutput() {
+    if (output.size() > 0) {
+      queue.offer(CharBuffer.wrap(output.toCharArray()));
+      output.reset();
+    }
+  }
+
+  private void fail(Throwable throwable) {
+    Flow.Subscription subscription = upstream.get();
+    if (subscription != null) {
+      subscription.cancel();
+    }
+    error = throwable;
+    done = true;
+  }
+
+  /**
+   * Delivers queued chunks while there is demand, terminates the subscriber and requests more from upstream. Only one
+   * thread runs the loop at a time, others just tell it to go around once more.
+   */
+  private void drain() {
+    if (wip.getAndIncrement() != 0) {
+      return;
+    }
+    int missed = 1;
+    do {
+      Flow.Subscriber<? super CharBuffer> subscriber = downstream.get();
+      if (cancelled) {
+        queue.clear();
+      } else if (subscriber != null && !terminated) {
+        long demand = requested.get();
+        long emitted = 0;
+        CharBuffer chunk;
+        while (emitted < demand && !cancelled && (chunk = queue.poll()) != null) {
+          subscriber.onNext(chunk);
+          emitted++;
+        }
+        if (emitted > 0 && demand != Long.MAX_VALUE) {
+          requested.addAndGet(-emitted);
+        }
+
+        if (!cancelled && done && queue.isEmpty()) {
+          terminated = true;
+          if (error != null) {
+            subscriber.onError(error);
+          } else {
+            subscriber.onComplete();
+          }
+        } else if (!cancelled && !done && !upstreamPending && queue.isEmpty() && requested.get() > 0) {
+          Flow.Subscription subscription = upstream.get();
+          if (subscription != null) {
+            upstreamPending = true;
+            subscription.request(1);
+          }
+        }
+      }
+      missed = wip.addAndGet(-missed);
+    } while (missed != 0);
+  }
+
+  private final class DownstreamSubscription implements Flow.Subscription {
+
+    @Override
+    public void request(long n) {
+      if (n <= 0) {
+        //Rule 3.9, the error goes out right away
+        queue.clear();
+        fail(new IllegalArgumentException("Requested " + n + " chunks, the request must be positive"));
+      } else {
+        requested.getAndAccumulate(n, (current, add) -> current + add < 0 ? Long.MAX_VALUE : current + add);
+      }
+      drain();
+    }
+
+    @Override
+    public void cancel() {
+      cancelled = true;
+      Flow.Subscription subscription = upstream.get();
+      if (subscription != null) {
+        subscription.cancel();
+      }
+      drain();
+    }
+  }
+}
@@ -0,0 +1,257 @@
+package fi.ilariel.languageconverter.morse;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+
+/**
+ * Index of the positions in a Morse code file where decoding can start, used by {@link MorseRangeDecoder} to seek
+ * close to a position of the decoded text. UTF-8 Morse code files get a sidecar index file written by
+ * {@link MorseIndexWriter} or {@link #build(Path, int)}, binary files of {@link BinaryMorseWriter} carry their own.
+ * <p>
+ * A sidecar index file has the magic "MRSX", a version byte, an int interval, a long length of the indexed file in
+ * bytes and an int count of blocks, followed by the blocks.
+ */
+public final class MorseIndex {
+
+  /**
+   * Default characters of decoded text between index entries
+   */
+  public static final int DEFAULT_INTERVAL = 64 * 1024;
+  static final int MAGIC = 0x4D525358;
+  static final int VERSION = 1;
+  private static final String SIDECAR_SUFFIX = ".idx";
+  private static final int BUFFER_SIZE = 8192;
+
+  private final List<MorseBlock> blocks;
+  private final int interval;
+  private final long morseLength;
+  private final boolean binary;
+
+  MorseIndex(List<MorseBlock> blocks, int interval, long morseLength, boolean binary) {
+    this.blocks = blocks;
+    this.interval = interval;
+    this.morseLength = morseLength;
+    this.binary = binary;
+  }
+
+  /**
+   * @return path of the sidecar index of a UTF-8 Morse code file
+   */
+  public static Path sidecarOf(Path morseFile) {
+    return morseFile.resolveSibling(morseFile.getFileName() + SIDECAR_SUFFIX);
+  }
+
+  /**
+   * Opens the index of a Morse code file. Binary files have their index at the end, UTF-8 files use their sidecar
+   * index if there is one. Without a sidecar the index only has the start of the file.
+   * @throws IOException if the index can't be read or the sidecar is not for this version of the file
+   */
+  public static MorseIndex open(Path morseFile)
+      throws IOException {
+    try (FileChannel channel = FileChannel.open(morseFile, StandardOpenOption.READ)) {
+      ByteBuffer magic = ByteBuffer.allocate(Integer.BYTES);
+      if (readFully(channel, magic, 0) && magic.getInt(0) == BinaryMorseFormat.MAGIC) {
+        return readBinary(channel);
+      }
+
+      Path sidecar = sidecarOf(morseFile);
+      if (!Files.exists(sidecar)) {
+        return new MorseIndex(Collections.singletonList(new MorsePosition().mark(0)), 0, channel.size(), false);
+      }
+      MorseIndex index = read(sidecar);
+      if (index.morseLength != channel.size()) {
+        throw new IOException(String.format("Index \"%s\" is for a file of %d bytes, \"%s\" has %d bytes", sidecar,
+            index.morseLength, morseFile, channel.size()));
+      }
+      return index;
+    }
+  }
+
+  /**
+   * Indexes an existing UTF-8 Morse code file
+   * @param interval characters of decoded text between index entries
+   * @throws IOException if reading fails
+   */
+  public static MorseIndex build(Path morseFile, int interval)
+      throws IOException {
+    Builder builder = new Builder(interval);
+    try (BufferedReader reader = Files.newBufferedReader(morseFile, StandardCharsets.UTF_8)) {
+      char[] buffer = new char[BUFFER_SIZE];
+      int read = reader.read(buffer);
+      while (read != -1) {
+        builder.add(buffer, 0, read);
+        read = reader.read(buffer);
+      }
+    }
+    return builder.build();
+  }
+
+  /**
+   * Reads a sidecar index file
+   * @throws IOException if the file is not a sidecar index or reading fails
+   */
+  public static MorseIndex read(Path indexFile)
+      throws IOException {
+    try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(indexFile)))) {
+      if (input.readInt() != MAGIC) {
+        throw new IOException(String.format("\"%s\" is not a Morse index", indexFile));
+      }
+      int version = input.readUnsignedByte();
+      if (version != VERSION) {
+        throw new IOException("Unsupported Morse index version " + version);
+      }
+      int interval = input.readInt();
+      long morseLength = input.readLong();
+      return new MorseIndex(readBlocks(input), interval, morseLength, false);
+    }
+  }
+
+  /**
+   * Writes the index as a sidecar index file
+   * @throws IOException if writing fails
+   */
+  public void write(Path indexFile)
+      throws IOException {
+    if (binary) {
+      throw new IllegalStateException("Binary Morse files carry their own index");
+    }
+    try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(indexFile)))) {
+      output.writeInt(MAGIC);
+      output.writeByte(VERSION);
+      output.writeInt(interval);
+      output.writeLong(morseLength);
+      output.writeInt(blocks.size());
+      for (MorseBlock block : blocks) {
+        block.write(output);
+      }
+    }
+  }
+
+  private static MorseIndex readBinary(FileChannel channel)
+      throws IOException {
+    ByteBuffer trailer = ByteBuffer.allocate(BinaryMorseFormat.TRAILER_SIZE);
+    long trailerOffset = channel.size() - BinaryMorseFormat.TRAILER_SIZE;
+    if (trailerOffset < BinaryMorseFormat.HEADER_SIZE || !readFully(channel, trailer, trailerOffset)
+        || trailer.getInt(Long.BYTES) != BinaryMorseFormat.INDEX_MAGIC) {
+      throw new IOException("Binary Morse file has no index, it may not have been closed");
+    }
+    InputStream input = Channels.newInputStream(channel.position(trailer.getLong(0)));
+    return new MorseIndex(readBlocks(new DataInputStream(new BufferedInputStream(input))), 0, channel.size(), true);
+  }
+
+  /**
+   * @return false if the channel ends before the buffer is full
+   */
+  private static boolean readFully(FileChannel channel, ByteBuffer buffer, long position)
+      throws IOException {
+    while (buffer.hasRemaining()) {
+      if (channel.read(buffer, position + buffer.position()) == -1) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static List<MorseBlock> readBlocks(DataInputStream input)
+      throws IOException {
+    int count = input.readInt();
+    if (count < 1) {
+      throw new IOException("Corrupt Morse index, it has " + count + " blocks");
+    }
+    List<MorseBlock> blocks = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      blocks.add(MorseBlock.read(input));
+    }
+    return blocks;
+  }
+
+  /**
+   * @return number of places where decoding can start
+   */
+  public int size() {
+    return blocks.size();
+  }
+
+  /**
+   * @return characters of decoded text between entries of a sidecar index, 0 if the index has no fixed interval
+   */
+  public int getInterval() {
+    return interval;
+  }
+
+  /**
+   * @return true if this is the index of a binary Morse file
+   */
+  public boolean isBinary() {
+    return binary;
+  }
+
+  /**
+   * @return the last block starting at or before the position of the decoded text
+   */
+  MorseBlock find(long textOffset) {
+    int low = 0;
+    int high = blocks.size() - 1;
+    while (low < high) {
+      int middle = (low + high + 1) >>> 1;
+      if (blocks.get(middle).getTextOffset() <= textOffset) {
+        low = middle;
+      } else {
+        high = middle - 1;
+      }
+    }
+    return blocks.get(low);
+  }
+
+  /**
+   * Collects blocks at fixed intervals of decoded text while Morse code goes by
+   */
+  static final class Builder {
+
+    private final int interval;
+    private final MorsePosition position = new MorsePosition();
+    private final List<MorseBlock> blocks = new ArrayList<>();
+    private long nextTextOffset;
+
+    Builder(int interval) {
+      if (interval < 1) {
+        throw new IllegalArgumentException("Index interval must be positive");
+      }
+      this.interval = interval;
+      blocks.add(position.mark(0));
+      nextTextOffset = interval;
+    }
+
+    void add(char[] buffer, int offset, int length) {
+      int end = offset + length;
+      for (int i = offset; i < end; i++) {
+        position.advance(buffer[i]);
+        //A block can only start between symbols
+        if (position.getTextOffset() >= nextTextOffset && position.isBoundary()) {
+          blocks.add(position.mark(position.getByteOffset()));
+          nextTextOffset = position.getTextOffset() + interval;
+        }
+      }
+    }
+
+    MorseIndex build() {
+      return new MorseIndex(new ArrayList<>(blocks), interval, position.getByteOffset(), false);
+    }
+  }
+}
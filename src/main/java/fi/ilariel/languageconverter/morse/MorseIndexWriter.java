@@ -0,0 +1,70 @@
+package fi.ilariel.languageconverter.morse;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Path;
+
+
+/**
+ * Writer that indexes Morse code on its way to a UTF-8 encoded file. Use it as the writer of an English−to−Morse
+ * {@link MorseConverter}. Closing the writer closes the file and writes the sidecar index for it.
+ * @see MorseIndex
+ */
+public final class MorseIndexWriter extends Writer {
+
+  private final Writer writer;
+  private final Path indexFile;
+  private final MorseIndex.Builder builder;
+  private MorseIndex index;
+
+  /**
+   * @param writer writer of the Morse code file, must encode UTF-8
+   * @param indexFile where the index is written, usually {@link MorseIndex#sidecarOf(Path)} of the Morse code file
+   */
+  public MorseIndexWriter(Writer writer, Path indexFile) {
+    this(writer, indexFile, MorseIndex.DEFAULT_INTERVAL);
+  }
+
+  /**
+   * @param interval characters of decoded text between index entries
+   */
+  public MorseIndexWriter(Writer writer, Path indexFile, int interval) {
+    this.writer = writer;
+    this.indexFile = indexFile;
+    this.builder = new MorseIndex.Builder(interval);
+  }
+
+  @Override
+  public void write(char[] buffer, int offset, int length)
+      throws IOException {
+    writer.write(buffer, offset, length);
+    builder.add(buffer, offset, length);
+  }
+
+  @Override
+  public void flush()
+      throws IOException {
+    writer.flush();
+  }
+
+  /**
+   * Closes the Morse code file and writes the index
+   */
+  @Override
+  public void close()
+      throws IOException {
+    if (index != null) {
+      return;
+    }
+    writer.close();
+    index = builder.build();
+    index.write(indexFile);
+  }
+
+  /**
+   * @return the index written on close, null before that
+   */
+  public MorseIndex getIndex() {
+    return index;
+  }
+}
@@ -0,0 +1,98 @@
+package fi.ilariel.languageconverter.morse;
+
+
+/**
+ * Follows Morse code character by character like {@link MorseDecoder} does, without decoding it, to know where in
+ * the decoded text and in the UTF-8 encoded file each position of the Morse code is.
+ */
+final class MorsePosition {
+
+  private long morseOffset;
+  private long byteOffset;
+  private long textOffset;
+  private long line = 1;
+  private boolean symbolOpen;
+  private boolean delimiter;
+
+  /**
+   * Moves past the next character of Morse code
+   */
+  void advance(char ch) {
+    switch (ch) {
+      case MorseConverter.MORSE_DIT:
+      case MorseConverter.MORSE_DAH:
+        symbolOpen = true;
+        break;
+      case '\n':
+        line++;
+        break;
+      case '\r':
+        break;
+      case ' ':
+        endSymbol();
+        textOffset++;
+        delimiter = false;
+        break;
+      case MorseConverter.MORSE_CODE_CHARACTER_SEPARATOR:
+        endSymbol();
+        delimiter = true;
+        break;
+      default:
+        endSymbol();
+        break;
+    }
+    morseOffset++;
+    byteOffset += utf8Length(ch);
+  }
+
+  private void endSymbol() {
+    if (symbolOpen) {
+      symbolOpen = false;
+      delimiter = false;
+      textOffset++;
+    }
+  }
+
+  /**
+   * @return bytes of the character in UTF-8, a surrogate pair is counted on its high surrogate
+   */
+  private static int utf8Length(char ch) {
+    if (ch < 0x80) {
+      return 1;
+    } else if (ch < 0x800) {
+      return 2;
+    } else if (Character.isHighSurrogate(ch)) {
+      return 4;
+    } else if (Character.isLowSurrogate(ch)) {
+      return 0;
+    }
+    return 3;
+  }
+
+  /**
+   * @return true between symbols, where decoding can start from the state of this position
+   */
+  boolean isBoundary() {
+    return !symbolOpen;
+  }
+
+  long getMorseOffset() {
+    return morseOffset;
+  }
+
+  long getByteOffset() {
+    return byteOffset;
+  }
+
+  long getTextOffset() {
+    return textOffset;
+  }
+
+  /**
+   * @return block starting at this position
+   * @param fileOffset where the block starts in its file
+   */
+  MorseBlock mark(long fileOffset) {
+    return new MorseBlock(morseOffset, textOffset, line, fileOffset, delimiter);
+  }
+}
@@ -0,0 +1,211 @@
+package fi.ilariel.languageconverter.morse;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import fi.ilariel.languageconverter.converter.ByteTranscoder;
+import fi.ilariel.languageconverter.converter.ConversionException;
+
+
+/**
+ * Decodes a range of the text of a Morse code file without decoding the whole file. Decoding starts from the last
+ * {@link MorseIndex} block before the range and stops at its end, so the time taken depends on the size of the range
+ * and the index interval, not on the size of the file. Works with UTF-8 files with or without a sidecar index and with
+ * binary files. Positions of errors are counted from the start of the file, in bytes for UTF-8 files and in Morse
+ * characters for binary files.
+ */
+public final class MorseRangeDecoder {
+
+  private static final int BUFFER_SIZE = 8192;
+
+  private final Path morseFile;
+  private final MorseIndex index;
+  private final MorseTable table;
+
+  /**
+   * Opens the index of the file with {@link MorseIndex#open(Path)}
+   * @throws IOException if the index can't be read
+   */
+  public MorseRangeDecoder(Path morseFile)
+      throws IOException {
+    this(morseFile, MorseIndex.open(morseFile));
+  }
+
+  public MorseRangeDecoder(Path morseFile, MorseIndex index) {
+    this(morseFile, index, MorseAlphabet.DEFAULT);
+  }
+
+  /**
+   * @param alphabet letters and symbols the file was encoded with, see {@link MorseAlphabet}
+   */
+  public MorseRangeDecoder(Path morseFile, MorseIndex index, MorseAlphabet alphabet) {
+    this.morseFile = morseFile;
+    this.index = index;
+    this.table = alphabet.getTable();
+  }
+
+  /**
+   * @see #decode(long, long, Writer, DecodeErrorPolicy)
+   */
+  public long decode(long start, long end, Writer writer)
+      throws ConversionException {
+    return decode(start, end, writer, DecodeErrorPolicy.failFast());
+  }
+
+  /**
+   * Decodes the characters of text from start up to but not including end. Invalid Morse code after the range is not
+   * reported. The writer is flushed but not closed.
+   * @param errorPolicy what to do with invalid Morse code, see {@link DecodeErrorPolicy}
+   * @return number of characters written, less than asked if the text ends before the end of the range
+   * @throws ConversionException if reading or writing fails or the range contains invalid Morse code when failing
+   * fast
+   */
+  public long decode(long start, long end, Writer writer, DecodeErrorPolicy errorPolicy)
+      throws ConversionException {
+    if (start < 0 || end < start) {
+      throw new IllegalArgumentException(String.format("Invalid range %d-%d", start, end));
+    }
+    MorseBlock block = index.find(start);
+    RangeWriter range = new RangeWriter(writer, start - block.getTextOffset(), end - start);
+    try (FileChannel channel = FileChannel.open(morseFile, StandardOpenOption.READ)) {
+      channel.position(block.getFileOffset());
+      try {
+        if (index.isBinary()) {
+          decodeBinary(channel, block, range, errorPolicy);
+        } else {
+          decodeUtf8(channel, block, range, errorPolicy);
+        }
+      } catch (ConversionException e) {
+        //Errors after the range may be found while decoding a full buffer
+        if (!range.isFull()) {
+          throw e;
+        }
+      }
+      writer.flush();
+    } catch (IOException e) {
+      throw new ConversionException(e);
+    }
+    return range.getWritten();
+  }
+
+  private void decodeUtf8(FileChannel channel, MorseBlock block, RangeWriter range, DecodeErrorPolicy errorPolicy)
+      throws ConversionException, IOException {
+    Utf8MorseDecoder decoder = new Utf8MorseDecoder(errorPolicy, table, block.isDelimiter(), block.getFileOffset(),
+        block.getLine());
+    ByteBuffer in = ByteBuffer.allocate(BUFFER_SIZE);
+    ByteBuffer out = ByteBuffer.allocate(BUFFER_SIZE);
+    CharBuffer chars = CharBuffer.allocate(BUFFER_SIZE);
+    CharsetDecoder charset = StandardCharsets.UTF_8.newDecoder();
+    boolean endOfInput = false;
+    try {
+      while (!endOfInput && !range.isFull()) {
+        endOfInput = channel.read(in) == -1;
+        in.flip();
+        while (decoder.transcode(in, out, endOfInput)) {
+          write(out, chars, charset, range);
+        }
+        in.compact();
+      }
+      if (endOfInput && !range.isFull()) {
+        if (out.remaining() < ByteTranscoder.FINISH_OUTPUT_SIZE) {
+          write(out, chars, charset, range);
+        }
+        decoder.finish(out);
+      }
+    } finally {
+      write(out, chars, charset, range);
+    }
+  }
+
+  /**
+   * Decoded text is mostly ASCII, a letter of another alphabet cut off at the end of the output stays in it
+   */
+  private static void write(ByteBuffer out, CharBuffer chars, CharsetDecoder charset, RangeWriter range)
+      throws IOException {
+    out.flip();
+    charset.decode(out, chars, false);
+    range.write(chars.array(), 0, chars.position());
+    chars.clear();
+    out.compact();
+  }
+
+  private void decodeBinary(FileChannel channel, MorseBlock block, RangeWriter range, DecodeErrorPolicy errorPolicy)
+      throws ConversionException, IOException {
+    MorseDecoder decoder = new MorseDecoder(range, block.isDelimiter(), errorPolicy, table, block.getMorseOffset(),
+        block.getLine());
+    BinaryMorseReader reader = new BinaryMorseReader(new BufferedInputStream(Channels.newInputStream(channel)), false);
+    char[] buffer = new char[BUFFER_SIZE];
+    try {
+      int read = 0;
+      while (read != -1 && !range.isFull()) {
+        read = reader.read(buffer);
+        if (read > 0) {
+          decoder.decode(buffer, 0, read);
+          decoder.flush();
+        }
+      }
+      if (!range.isFull()) {
+        decoder.finish();
+      }
+    } finally {
+      decoder.flush();
+    }
+  }
+
+  /**
+   * Passes on the characters of the range and drops the rest
+   */
+  private static final class RangeWriter extends Writer {
+
+    private final Writer writer;
+    private long skip;
+    private long remaining;
+    private long written;
+
+    RangeWriter(Writer writer, long skip, long length) {
+      this.writer = writer;
+      this.skip = skip;
+      this.remaining = length;
+    }
+
+    @Override
+    public void write(char[] buffer, int offset, int length)
+        throws IOException {
+      int skipped = (int) Math.min(skip, length);
+      skip -= skipped;
+      int count = (int) Math.min(remaining, length - skipped);
+      if (count > 0) {
+        writer.write(buffer, offset + skipped, count);
+        remaining -= count;
+        written += count;
+      }
+    }
+
+    boolean isFull() {
+      return remaining == 0;
+    }
+
+    long getWritten() {
+      return written;
+    }
+
+    @Override
+    public void flush()
+        throws IOException {
+      writer.flush();
+    }
+
+    @Override
+    public void close() {
+    }
+  }
+}
@@ -0,0 +1,60 @@
+package fi.ilariel.languageconverter.morse;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+
+/**
+ * Word at a time scanning of UTF-8 Morse code for {@link Utf8MorseDecoder}. A dit or a dah is three bytes, so one
+ * four byte read both matches an element as a whole and shows whether the byte after it ends the symbol: the bytes of
+ * dits and dahs have their high bit set while delimiters, spaces and line breaks are ASCII. A symbol of four elements
+ * takes four reads and comparisons instead of a dozen single byte reads and branches.
+ */
+final class MorseScanner {
+
+  /**
+   * Returned by {@link #scanSymbol(ByteBuffer, int, int, int)} when the bytes are not a complete symbol
+   */
+  static final long NOT_A_SYMBOL = -1;
+
+  //Dit and dah as the upper three bytes of a big endian int
+  private static final int DIT = (MorseTable.UTF8_LEAD & 0xFF) << 16 | (MorseTable.UTF8_DIT_SECOND & 0xFF) << 8
+      | MorseTable.UTF8_DIT_THIRD & 0xFF;
+  private static final int DAH = (MorseTable.UTF8_LEAD & 0xFF) << 16 | (MorseTable.UTF8_DAH_SECOND & 0xFF) << 8
+      | MorseTable.UTF8_DAH_THIRD & 0xFF;
+  private static final int ASCII_MASK = 0x80;
+
+  private MorseScanner() {
+  }
+
+  /**
+   * Scans dits and dahs from the start up to the first ASCII byte
+   * @param maxLength most elements the symbol may have
+   * @return the index of the ASCII byte in the upper half and the elements packed with
+   * {@link MorseTable#appendElement(int, char)} in the lower half, or {@link #NOT_A_SYMBOL} if the bytes are not only
+   * dits and dahs, there are too many of them or the input ends before an ASCII byte
+   */
+  static long scanSymbol(ByteBuffer buffer, int start, int limit, int maxLength) {
+    boolean bigEndian = buffer.order() == ByteOrder.BIG_ENDIAN;
+    int code = MorseTable.EMPTY_CODE;
+    int length = 0;
+    for (int i = start; i <= limit - Integer.BYTES; i += MorseTable.UTF8_ELEMENT_LENGTH) {
+      int word = bigEndian ? buffer.getInt(i) : Integer.reverseBytes(buffer.getInt(i));
+      int element = word >>> Byte.SIZE;
+      if (element == DIT) {
+        code = code << 1;
+      } else if (element == DAH) {
+        code = code << 1 | 1;
+      } else {
+        return NOT_A_SYMBOL;
+      }
+      if (++length > maxLength) {
+        return NOT_A_SYMBOL;
+      }
+      if ((word & ASCII_MASK) == 0) {
+        return (long) (i + MorseTable.UTF8_ELEMENT_LENGTH) << Integer.SIZE | code;
+      }
+    }
+    return NOT_A_SYMBOL;
+  }
+}
@@ -0,0 +1,84 @@
+package fi.ilariel.languageconverter.morse;
+
+
+/**
+ * Symbol being read by a decoder. Elements are packed with {@link MorseTable#appendElement(int, char)}, the elements
+ * of a symbol that is too long to be valid are only kept for the error message. The position of the first element is
+ * kept for error reporting.
+ */
+final class MorseSymbol {
+
+  private final MorseTable table;
+  private int code = MorseTable.EMPTY_CODE;
+  private int length;
+  private StringBuilder invalid;
+  private long offset;
+  private long line;
+
+  MorseSymbol(MorseTable table) {
+    this.table = table;
+  }
+
+  /**
+   * Appends an element at the given position of the input
+   */
+  void append(char element, long offset, long line) {
+    if (length == 0) {
+      this.offset = offset;
+      this.line = line;
+    }
+    append(element);
+  }
+
+  void append(char element) {
+    if (length < table.getMaxSymbolLength()) {
+      code = MorseTable.appendElement(code, element);
+    } else {
+      if (length == table.getMaxSymbolLength()) {
+        invalid = new StringBuilder(MorseTable.toMorse(code));
+      }
+      invalid.append(element);
+    }
+    length++;
+  }
+
+  boolean isEmpty() {
+    return length == 0;
+  }
+
+  /**
+   * @return decoded letter or {@link MorseTable#NO_LETTER} if the symbol is not valid
+   */
+  char letter() {
+    return length <= table.getMaxSymbolLength() ? table.decode(code) : MorseTable.NO_LETTER;
+  }
+
+  /**
+   * @return nearest letter of the alphabet for a symbol that is not valid
+   */
+  MorseCorrections.Correction nearest(boolean frequencyWeighted) {
+    MorseCorrections corrections = table.corrections(frequencyWeighted);
+    return invalid != null ? corrections.correct(invalid.toString()) : corrections.correct(code);
+  }
+
+  /**
+   * @return dits and dahs of the symbol
+   */
+  String toMorse() {
+    return invalid != null ? invalid.toString() : MorseTable.toMorse(code);
+  }
+
+  long getOffset() {
+    return offset;
+  }
+
+  long getLine() {
+    return line;
+  }
+
+  void clear() {
+    code = MorseTable.EMPTY_CODE;
+    length = 0;
+    invalid = null;
+  }
+}
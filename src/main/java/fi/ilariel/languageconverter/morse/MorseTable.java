@@ -0,0 +1,183 @@
+package fi.ilariel.languageconverter.morse;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static fi.ilariel.languageconverter.morse.MorseConverter.MORSE_DAH;
+import static fi.ilariel.languageconverter.morse.MorseConverter.MORSE_DIT;
+
+
+/**
+ * Lookup tables compiled from a {@link MorseAlphabet}.
+ * Encoding is a direct index from a character to its dits and dahs. Decoding packs a symbol into an int, one bit
+ * per element (dit 0, dah 1) below a leading marker bit, and uses the packed value as an index. With this the hot
+ * paths need no hashing, no matching and no allocations per symbol. Tables are immutable and shared between threads.
+ */
+final class MorseTable {
+
+  /**
+   * Longest symbol an alphabet may have, the decoding table has 2^(length + 1) entries
+   */
+  static final int MAX_SUPPORTED_SYMBOL_LENGTH = 12;
+  /**
+   * Packed value of an empty symbol. Append elements with {@link #appendElement(int, char)}
+   */
+  static final int EMPTY_CODE = 1;
+  /**
+   * Marker returned by {@link #decode(int)} for sequences that are not part of the alphabet
+   */
+  static final char NO_LETTER = '\0';
+  /**
+   * UTF-8 bytes of a dit and a dah. Both are three bytes that only differ in the last two
+   */
+  static final byte UTF8_LEAD = (byte) 0xE2;
+  static final byte UTF8_DIT_SECOND = (byte) 0x80;
+  static final byte UTF8_DIT_THIRD = (byte) 0xA2;
+  static final byte UTF8_DAH_SECOND = (byte) 0x88;
+  static final byte UTF8_DAH_THIRD = (byte) 0x92;
+  static final int UTF8_ELEMENT_LENGTH = 3;
+
+  private static final int ASCII_SIZE = 128;
+
+  private final char[][] encode;
+  private final byte[][] encodeUtf8;
+  private final char[] decode;
+  private final int maxSymbolLength;
+  //Built on first use, building twice in a race only wastes the work
+  private volatile MorseCorrections weightedCorrections;
+  private volatile MorseCorrections plainCorrections;
+
+  /**
+   * @param symbols validated letters and their dits and dahs
+   */
+  MorseTable(Map<Character, String> symbols) {
+    int size = ASCII_SIZE;
+    int longest = 1;
+    for (Map.Entry<Character, String> symbol : symbols.entrySet()) {
+      char letter = symbol.getKey();
+      size = Math.max(size, Math.max(letter, Character.toLowerCase(letter)) + 1);
+      longest = Math.max(longest, symbol.getValue().length());
+    }
+    encode = new char[size][];
+    encodeUtf8 = new byte[size][];
+    decode = new char[1 << (longest + 1)];
+    maxSymbolLength = longest;
+
+    for (Map.Entry<Character, String> symbol : symbols.entrySet()) {
+      register(symbol.getKey(), symbol.getValue().toCharArray());
+    }
+    //Lower case forms are only used when the alphabet doesn't have them
+    for (Map.Entry<Character, String> symbol : symbols.entrySet()) {
+      char lower = Character.toLowerCase(symbol.getKey());
+      if (encode[lower] == null) {
+        encode[lower] = encode[symbol.getKey()];
+      }
+    }
+    //Word separator is written as is
+    encode[' '] = new char[] {' '};
+
+    for (int ch = 0; ch < size; ch++) {
+      if (encode[ch] != null) {
+        encodeUtf8[ch] = new String(encode[ch]).getBytes(StandardCharsets.UTF_8);
+      }
+    }
+  }
+
+  private void register(char letter, char[] elements) {
+    encode[letter] = elements;
+    int code = EMPTY_CODE;
+    for (char element : elements) {
+      code = appendElement(code, element);
+    }
+    decode[code] = letter;
+  }
+
+  /**
+   * @return dits and dahs for the character or null if the character is not supported. The array is shared and must
+   * not be modified
+   */
+  char[] encode(char ch) {
+    if (ch < encode.length && encode[ch] != null) {
+      return encode[ch];
+    }
+    //Characters without their own symbol may have an upper case form that has one, e.g. dotless i
+    char upper = Character.toUpperCase(ch);
+    return upper != ch && upper < encode.length ? encode[upper] : null;
+  }
+
+  /**
+   * @return UTF-8 encoded dits and dahs for the character or null if the character is not supported. The array is
+   * shared and must not be modified
+   */
+  byte[] encodeUtf8(char ch) {
+    if (ch < encodeUtf8.length && encodeUtf8[ch] != null) {
+      return encodeUtf8[ch];
+    }
+    char upper = Character.toUpperCase(ch);
+    return upper != ch && upper < encodeUtf8.length ? encodeUtf8[upper] : null;
+  }
+
+  /**
+   * @param code packed symbol of at most {@link #getMaxSymbolLength()} elements
+   * @return decoded letter or {@link #NO_LETTER}
+   */
+  char decode(int code) {
+    return decode[code];
+  }
+
+  /**
+   * @return number of elements in the longest symbol of the alphabet
+   */
+  int getMaxSymbolLength() {
+    return maxSymbolLength;
+  }
+
+  /**
+   * @return upper bound of the packed symbols of at most {@link #getMaxSymbolLength()} elements
+   */
+  int getCodeLimit() {
+    return decode.length;
+  }
+
+  /**
+   * @param frequencyWeighted true to prefer letters common in English
+   * @return nearest letters of the invalid symbols of this alphabet
+   */
+  MorseCorrections corrections(boolean frequencyWeighted) {
+    MorseCorrections corrections = frequencyWeighted ? weightedCorrections : plainCorrections;
+    if (corrections == null) {
+      corrections = new MorseCorrections(this, frequencyWeighted);
+      if (frequencyWeighted) {
+        weightedCorrections = corrections;
+      } else {
+        plainCorrections = corrections;
+      }
+    }
+    return corrections;
+  }
+
+  /**
+   * @return most bytes a single character encodes to, including the delimiter
+   */
+  int getMaxEncodedUtf8Length() {
+    return 1 + maxSymbolLength * UTF8_ELEMENT_LENGTH;
+  }
+
+  /**
+   * Appends a dit or a dah to a packed symbol
+   */
+  static int appendElement(int code, char element) {
+    return (code << 1) | (element == MORSE_DAH ? 1 : 0);
+  }
+
+  /**
+   * Expands a packed symbol back to dits and dahs. Only used for error messages
+   */
+  static String toMorse(int code) {
+    StringBuilder builder = new StringBuilder();
+    for (int bit = 31 - Integer.numberOfLeadingZeros(code) - 1; bit >= 0; bit--) {
+      builder.append((code & (1 << bit)) != 0 ? MORSE_DAH : MORSE_DIT);
+    }
+    return builder.toString();
+  }
+}
@@ -0,0 +1,222 @@
+package fi.ilariel.languageconverter.morse;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+
+/**
+ * Bounded cache of whole words for {@link MorseCodec}, for traffic that repeats the same callsigns, Q-codes and
+ * phrases. Words are mapped to their Morse code with the delimiters already in place and Morse words back to text, so
+ * a repeated word is one lookup instead of a table lookup per character.
+ * <p>
+ * Entries are spread over segments by hash and each segment is a least recently used map with its own lock, so threads
+ * only contend when they hit the same segment. Every segment holds its share of both limits: the number of entries
+ * and an estimate of the memory used by the keys and values. A cache belongs to the alphabet of the first codec it is
+ * given to.
+ */
+public final class MorseWordCache {
+
+  /**
+   * Segments used by {@link #MorseWordCache(int, long)}
+   */
+  public static final int DEFAULT_SEGMENTS = 16;
+  //Strings, their arrays and the map entry, the characters are counted on top as two bytes each
+  private static final int ENTRY_OVERHEAD_BYTES = 112;
+
+  private final Segment[] segments;
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
+  private MorseTable table;
+
+  /**
+   * @param maxEntries most words kept
+   * @param maxBytes most memory the words are estimated to take
+   */
+  public MorseWordCache(int maxEntries, long maxBytes) {
+    this(maxEntries, maxBytes, DEFAULT_SEGMENTS);
+  }
+
+  /**
+   * @param segments number of independently locked parts, more segments mean less contention between threads
+   */
+  public MorseWordCache(int maxEntries, long maxBytes, int segments) {
+    if (maxEntries < 1 || maxBytes < 1 || segments < 1) {
+      throw new IllegalArgumentException("Cache limits and segment count must be positive");
+    }
+    //Limits are split evenly, so a segment may hold a few words less than its share of a small cache
+    int count = Math.min(segments, maxEntries);
+    this.segments = new Segment[count];
+    for (int i = 0; i < count; i++) {
+      this.segments[i] = new Segment(Math.max(1, maxEntries / count), Math.max(1, maxBytes / count));
+    }
+  }
+
+  /**
+   * @return lookups that found the word
+   */
+  public long getHits() {
+    return hits.sum();
+  }
+
+  /**
+   * @return lookups that had to convert the word
+   */
+  public long getMisses() {
+    return misses.sum();
+  }
+
+  /**
+   * @return words dropped to stay within the limits
+   */
+  public long getEvictions() {
+    return evictions.sum();
+  }
+
+  /**
+   * @return share of lookups that found the word, 0 before the first lookup
+   */
+  public double getHitRate() {
+    long hitCount = getHits();
+    long lookups = hitCount + getMisses();
+    return lookups == 0 ? 0 : (double) hitCount / lookups;
+  }
+
+  /**
+   * @return number of words cached
+   */
+  public int size() {
+    int size = 0;
+    for (Segment segment : segments) {
+      size += segment.size();
+    }
+    return size;
+  }
+
+  /**
+   * @return estimated memory used by the cached words in bytes
+   */
+  public long getBytes() {
+    long bytes = 0;
+    for (Segment segment : segments) {
+      bytes += segment.bytes();
+    }
+    return bytes;
+  }
+
+  /**
+   * Drops all words, statistics are kept
+   */
+  public void clear() {
+    for (Segment segment : segments) {
+      segment.clear();
+    }
+  }
+
+  @Override
+  public String toString() {
+    return String.format("%d words, %d bytes, %d hits, %d misses (%.1f %%), %d evictions", size(), getBytes(),
+        getHits(), getMisses(), getHitRate() * 100, getEvictions());
+  }
+
+  /**
+   * Binds the cache to the table of a codec, words converted with another alphabet would be wrong
+   */
+  synchronized void attach(MorseTable table) {
+    if (this.table != null && this.table != table) {
+      throw new IllegalArgumentException("Word cache is already used with another alphabet");
+    }
+    this.table = table;
+  }
+
+  /**
+   * @param encode true for text words and false for Morse words, the same characters may be both
+   * @return converted word or null if it is not cached
+   */
+  String get(boolean encode, String word) {
+    String converted = segmentOf(word).get(encode, word);
+    if (converted != null) {
+      hits.increment();
+    } else {
+      misses.increment();
+    }
+    return converted;
+  }
+
+  void put(boolean encode, String word, String converted) {
+    segmentOf(word).put(encode, word, converted);
+  }
+
+  private Segment segmentOf(String word) {
+    int hash = word.hashCode();
+    //Spread the high bits, word hashes differ mostly in their low bits
+    return segments[((hash ^ hash >>> 16) & Integer.MAX_VALUE) % segments.length];
+  }
+
+  private static long estimateBytes(String word, String converted) {
+    return ENTRY_OVERHEAD_BYTES + 2L * (word.length() + converted.length());
+  }
+
+  /**
+   * Least recently used words of one segment. The two directions have their own maps but share the limits
+   */
+  private final class Segment {
+
+    private final int maxEntries;
+    private final long maxBytes;
+    private final LinkedHashMap<String, String> encoded = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<String, String> decoded = new LinkedHashMap<>(16, 0.75f, true);
+    private long bytes;
+
+    Segment(int maxEntries, long maxBytes) {
+      this.maxEntries = maxEntries;
+      this.maxBytes = maxBytes;
+    }
+
+    synchronized String get(boolean encode, String word) {
+      return (encode ? encoded : decoded).get(word);
+    }
+
+    synchronized void put(boolean encode, String word, String converted) {
+      long size = estimateBytes(word, converted);
+      if (size > maxBytes) {
+        return;
+      }
+      LinkedHashMap<String, String> map = encode ? encoded : decoded;
+      LinkedHashMap<String, String> other = encode ? decoded : encoded;
+      String previous = map.put(word, converted);
+      if (previous != null) {
+        bytes -= estimateBytes(word, previous);
+      }
+      bytes += size;
+      while (encoded.size() + decoded.size() > maxEntries || bytes > maxBytes) {
+        //Evict from the larger direction, the new word is the most recent of its map so it is never the eldest
+        evictEldest(map.size() > other.size() ? map : other);
+      }
+    }
+
+    private void evictEldest(LinkedHashMap<String, String> map) {
+      Iterator<Map.Entry<String, String>> eldest = map.entrySet().iterator();
+      Map.Entry<String, String> entry = eldest.next();
+      bytes -= estimateBytes(entry.getKey(), entry.getValue());
+      eldest.remove();
+      evictions.increment();
+    }
+
+    synchronized int size() {
+      return encoded.size() + decoded.size();
+    }
+
+    synchronized long bytes() {
+      return bytes;
+    }
+
+    synchronized void clear() {
+      encoded.clear();
+      decoded.clear();
+      bytes = 0;
+    }
+  }
+}
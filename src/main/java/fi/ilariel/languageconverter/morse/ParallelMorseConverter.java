@@ -0,0 +1,283 @@
+package fi.ilariel.languageconverter.morse;
+
+import java.io.CharArrayWriter;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+import fi.ilariel.languageconverter.converter.ConversionException;
+import fi.ilariel.languageconverter.converter.LanguageConverter;
+import fi.ilariel.languageconverter.converter.MeteredWriter;
+import fi.ilariel.languageconverter.converter.MetricsListener;
+
+
+/**
+ * Morse converter that splits the input into chunks and converts them on a {@link ForkJoinPool}. Results are written
+ * in input order and the output is identical to {@link MorseConverter}.
+ * Text is split at any position and the '.' between the last character of a chunk and the first character of the
+ * next one is added when the results are stitched together. Morse code is only split where no symbol is in progress,
+ * and the next chunk is told whether it starts after a delimiter. A symbol that is already longer than any valid one
+ * ends its chunk as it is, so input without delimiters fails like it does in {@link MorseConverter}.
+ * Only a bounded number of chunks is in flight at a time, so memory use doesn't depend on the size of the input.
+ * With a metrics listener reads and writes are measured on the calling thread and chunks on the pool threads.
+ * Decoding always fails fast. Error positions are counted within a chunk and moved to the whole input when the chunk
+ * is written.
+ */
+public class ParallelMorseConverter extends LanguageConverter {
+
+  private static final int DEFAULT_CHUNK_SIZE = 256 * 1024;
+
+  private final MorseConverter.Mode mode;
+  private final int threads;
+  private final int chunkSize;
+  private final MorseTable table;
+  private boolean outputWritten;
+  //Characters and line breaks in the chunks written so far
+  private long inputWritten;
+  private long linesWritten;
+  //The writer or a metered writer around it
+  private Writer output;
+
+  /**
+   * @param reader
+   * @param writer
+   * @param mode {@link MorseConverter.Mode}
+   * @param threads number of threads used for conversion
+   */
+  public ParallelMorseConverter(Reader reader, Writer writer, MorseConverter.Mode mode, int threads) {
+    this(reader, writer, mode, threads, MorseAlphabet.DEFAULT);
+  }
+
+  /**
+   * @param alphabet letters and symbols to convert with, see {@link MorseAlphabet}
+   */
+  public ParallelMorseConverter(Reader reader, Writer writer, MorseConverter.Mode mode, int threads,
+      MorseAlphabet alphabet) {
+    this(reader, writer, mode, threads, alphabet, DEFAULT_CHUNK_SIZE);
+  }
+
+  ParallelMorseConverter(Reader reader, Writer writer, MorseConverter.Mode mode, int threads, int chunkSize) {
+    this(reader, writer, mode, threads, MorseAlphabet.DEFAULT, chunkSize);
+  }
+
+  ParallelMorseConverter(Reader reader, Writer writer, MorseConverter.Mode mode, int threads, MorseAlphabet alphabet,
+      int chunkSize) {
+    super(reader, writer);
+    if (threads < 1) {
+      throw new IllegalArgumentException("Thread count must be positive");
+    }
+    this.mode = mode;
+    this.threads = threads;
+    this.chunkSize = chunkSize;
+    this.table = alphabet.getTable();
+  }
+
+  /**
+   * Converts based on mode specified in constructor.
+   * @throws ConversionException, if invalid morse code sequence or unsupported text input. Output of the chunks
+   * preceding the failing one has been written
+   */
+  @Override
+  public void convert()
+      throws ConversionException {
+    ForkJoinPool pool = new ForkJoinPool(threads);
+    Deque<Future<ChunkResult>> pending = new ArrayDeque<>();
+    int maxPending = threads * 2;
+    boolean measured = metrics != MetricsListener.NONE;
+    long start = measured ? System.nanoTime() : 0;
+    boolean success = false;
+    output = measured ? new MeteredWriter(writer, metrics) : writer;
+
+    try {
+      char[] buffer = new char[chunkSize];
+      int length = 0;
+      boolean delimiter = false;
+      int read = read(buffer, 0, measured);
+      while (read != -1) {
+        length += read;
+        if (length == buffer.length) {
+          int split = splitPoint(buffer, length);
+          if (split == 0) {
+            //No safe place to split, keep reading until there is one
+            buffer = Arrays.copyOf(buffer, buffer.length * 2);
+          } else {
+            pending.add(submit(pool, Arrays.copyOf(buffer, split), delimiter));
+            delimiter = endsAfterDelimiter(buffer, split, delimiter);
+            System.arraycopy(buffer, split, buffer, 0, length - split);
+            length -= split;
+            while (pending.size() >= maxPending) {
+              write(pending.poll());
+            }
+          }
+        }
+        read = read(buffer, length, measured);
+      }
+      if (length > 0) {
+        pending.add(submit(pool, Arrays.copyOf(buffer, length), delimiter));
+      }
+      while (!pending.isEmpty()) {
+        write(pending.poll());
+      }
+      success = true;
+    } catch (IOException e) {
+      if (measured) {
+        metrics.errors(MetricsListener.ErrorType.IO, 1);
+      }
+      throw new ConversionException(e);
+    } finally {
+      pool.shutdownNow();
+      if (measured) {
+        metrics.conversionFinished(System.nanoTime() - start, success);
+      }
+    }
+  }
+
+  private int read(char[] buffer, int offset, boolean measured)
+      throws IOException {
+    if (!measured) {
+      return reader.read(buffer, offset, buffer.length - offset);
+    }
+    long start = System.nanoTime();
+    int read = reader.read(buffer, offset, buffer.length - offset);
+    metrics.inputRead(Math.max(read, 0), System.nanoTime() - start);
+    return read;
+  }
+
+  /**
+   * Morse code can be split after any character that ends a symbol and before the first dit or dah of a symbol. Line
+   * breaks don't end symbols.
+   * @return index right after the last position where the input can be split or 0 if there is none
+   */
+  private int splitPoint(char[] buffer, int length) {
+    if (mode == MorseConverter.Mode.TEXT_TO_MORSE) {
+      return length;
+    }
+    int symbolStart = length;
+    int symbolLength = 0;
+    for (int i = length - 1; i >= 0; i--) {
+      char ch = buffer[i];
+      if (ch == MorseConverter.MORSE_DIT || ch == MorseConverter.MORSE_DAH) {
+        symbolStart = i;
+        symbolLength++;
+      } else if (ch != '\n' && ch != '\r') {
+        return i + 1;
+      }
+    }
+    //Only line breaks and one symbol, which is invalid whatever follows once it is too long
+    if (symbolLength > table.getMaxSymbolLength()) {
+      return length;
+    }
+    return symbolStart;
+  }
+
+  /**
+   * @param delimiter whether the buffer starts after a delimiter
+   * @return whether the input continuing at end starts after a delimiter
+   */
+  private static boolean endsAfterDelimiter(char[] buffer, int end, boolean delimiter) {
+    for (int i = end - 1; i >= 0; i--) {
+      char ch = buffer[i];
+      if (ch == MorseConverter.MORSE_CODE_CHARACTER_SEPARATOR) {
+        return true;
+      }
+      if (ch == ' ' || ch == MorseConverter.MORSE_DIT || ch == MorseConverter.MORSE_DAH) {
+        return false;
+      }
+    }
+    return delimiter;
+  }
+
+  private Future<ChunkResult> submit(ForkJoinPool pool, char[] chunk, boolean delimiter) {
+    MetricsListener metrics = this.metrics;
+    return pool.submit(() -> {
+      long start = metrics != MetricsListener.NONE ? System.nanoTime() : 0;
+      CharArrayWriter output = new CharArrayWriter(chunk.length);
+      long lineBreaks;
+      if (mode == MorseConverter.Mode.TEXT_TO_MORSE) {
+        MorseEncoder encoder = new MorseEncoder(output, table);
+        try {
+          encoder.encode(chunk, 0, chunk.length);
+        } catch (ConversionException e) {
+          metrics.errors(MetricsListener.ErrorType.UNSUPPORTED_CHARACTER, 1);
+          throw e;
+        }
+        encoder.finish();
+        lineBreaks = encoder.getLineBreaks();
+      } else {
+        MorseDecoder decoder = new MorseDecoder(output, delimiter, DecodeErrorPolicy.failFast(), table);
+        try {
+          decoder.decode(chunk, 0, chunk.length);
+          decoder.finish();
+        } finally {
+          MorseConverter.reportDecoded(metrics, decoder.getSymbols(), decoder.getInvalidSequences(),
+              decoder.getRepeatedDelimiters());
+        }
+        lineBreaks = decoder.getLineBreaks();
+      }
+      if (metrics != MetricsListener.NONE) {
+        metrics.chunkConverted(chunk.length, System.nanoTime() - start);
+      }
+      return new ChunkResult(output.toCharArray(), chunk.length, lineBreaks);
+    });
+  }
+
+  private void write(Future<ChunkResult> result)
+      throws ConversionException, IOException {
+    ChunkResult chunk;
+    try {
+      chunk = result.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new ConversionException(e);
+    } catch (ExecutionException e) {
+      //ForkJoinPool wraps checked exceptions of the task, look for the original one
+      for (Throwable cause = e.getCause(); cause != null; cause = cause.getCause()) {
+        if (cause instanceof ConversionException) {
+          throw inInput((ConversionException) cause);
+        }
+      }
+      throw new ConversionException(e.getCause());
+    }
+    inputWritten += chunk.inputLength;
+    linesWritten += chunk.lineBreaks;
+
+    char[] converted = chunk.output;
+    if (converted.length > 0) {
+      //Each encoded chunk starts without a delimiter
+      if (mode == MorseConverter.Mode.TEXT_TO_MORSE && outputWritten) {
+        output.write(MorseConverter.MORSE_CODE_CHARACTER_SEPARATOR);
+      }
+      output.write(converted);
+      outputWritten = true;
+    }
+  }
+
+  /**
+   * @return exception with the position moved from the failing chunk to the whole input
+   */
+  private ConversionException inInput(ConversionException e) {
+    if (e.getOffset() == ConversionException.UNKNOWN_POSITION) {
+      return e;
+    }
+    return new ConversionException(e.getMessage(), inputWritten + e.getOffset(), linesWritten + e.getLine());
+  }
+
+  private static final class ChunkResult {
+
+    private final char[] output;
+    private final int inputLength;
+    private final long lineBreaks;
+
+    ChunkResult(char[] output, int inputLength, long lineBreaks) {
+      this.output = output;
+      this.inputLength = inputLength;
+      this.lineBreaks = lineBreaks;
+    }
+  }
+}
@@ -0,0 +1,268 @@
+package fi.ilariel.languageconverter.morse;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.CharBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+import fi.ilariel.languageconverter.converter.ConversionException;
+import fi.ilariel.languageconverter.converter.LanguageConverter;
+import fi.ilariel.languageconverter.converter.MeteredWriter;
+import fi.ilariel.languageconverter.converter.MetricsListener;
+
+
+/**
+ * Morse converter for line oriented input, every line is a record that is converted on its own. Each input line
+ * becomes one output line with the same line ending, so record boundaries survive encoding and decoding.
+ * <p>
+ * Lines are converted in batches on a {@link ForkJoinPool} and written in input order. Only a bounded number of batches
+ * is in flight at a time, so memory use doesn't depend on the size of the input. A record that can't be converted is
+ * written as an empty line and reported in {@link #getRecordErrors()}, the other records are converted as usual.
+ */
+public class RecordMorseConverter extends LanguageConverter {
+
+  /**
+   * Number of failed records kept in {@link #getRecordErrors()}, later failures are only counted
+   */
+  public static final int MAX_REPORTED_ERRORS = 100;
+  private static final int DEFAULT_BATCH_SIZE = 64 * 1024;
+
+  private final MorseConverter.Mode mode;
+  private final int threads;
+  private final int batchSize;
+  private final MorseCodec codec;
+  private final List<ConversionException> recordErrors = new ArrayList<>();
+  private long failedRecords;
+  //Characters and records in the batches submitted so far
+  private long inputSubmitted;
+  private long recordsSubmitted;
+
+  /**
+   * @param mode {@link MorseConverter.Mode}
+   * @param threads number of threads used for conversion
+   */
+  public RecordMorseConverter(Reader reader, Writer writer, MorseConverter.Mode mode, int threads) {
+    this(reader, writer, mode, threads, MorseAlphabet.DEFAULT);
+  }
+
+  /**
+   * @param alphabet letters and symbols to convert with, see {@link MorseAlphabet}
+   */
+  public RecordMorseConverter(Reader reader, Writer writer, MorseConverter.Mode mode, int threads,
+      MorseAlphabet alphabet) {
+    this(reader, writer, mode, threads, alphabet, DEFAULT_BATCH_SIZE);
+  }
+
+  RecordMorseConverter(Reader reader, Writer writer, MorseConverter.Mode mode, int threads, MorseAlphabet alphabet,
+      int batchSize) {
+    super(reader, writer);
+    if (threads < 1) {
+      throw new IllegalArgumentException("Thread count must be positive");
+    }
+    this.mode = mode;
+    this.threads = threads;
+    this.batchSize = batchSize;
+    this.codec = new MorseCodec(alphabet);
+  }
+
+  /**
+   * Converts all records, failed records don't stop the conversion
+   * @throws ConversionException if reading or writing fails
+   */
+  @Override
+  public void convert()
+      throws ConversionException {
+    ForkJoinPool pool = new ForkJoinPool(threads);
+    Deque<Future<RecordBatch>> pending = new ArrayDeque<>();
+    int maxPending = threads * 2;
+    boolean measured = metrics != MetricsListener.NONE;
+    long start = measured ? System.nanoTime() : 0;
+    boolean success = false;
+    Writer output = measured ? new MeteredWriter(writer, metrics) : writer;
+
+    try {
+      char[] buffer = new char[batchSize];
+      int length = 0;
+      int read = read(buffer, 0, measured);
+      while (read != -1) {
+        length += read;
+        if (length == buffer.length) {
+          int split = splitPoint(buffer, length);
+          if (split == 0) {
+            //A record longer than the buffer, keep reading until it ends
+            buffer = Arrays.copyOf(buffer, buffer.length * 2);
+          } else {
+            pending.add(submit(pool, Arrays.copyOf(buffer, split)));
+            System.arraycopy(buffer, split, buffer, 0, length - split);
+            length -= split;
+            while (pending.size() >= maxPending) {
+              write(pending.poll(), output);
+            }
+          }
+        }
+        read = read(buffer, length, measured);
+      }
+      if (length > 0) {
+        pending.add(submit(pool, Arrays.copyOf(buffer, length)));
+      }
+      while (!pending.isEmpty()) {
+        write(pending.poll(), output);
+      }
+      output.flush();
+      success = true;
+    } catch (IOException e) {
+      if (measured) {
+        metrics.errors(MetricsListener.ErrorType.IO, 1);
+      }
+      throw new ConversionException(e);
+    } finally {
+      pool.shutdownNow();
+      if (measured) {
+        metrics.conversionFinished(System.nanoTime() - start, success);
+      }
+    }
+  }
+
+  /**
+   * @return number of records that couldn't be converted
+   */
+  public long getFailedRecords() {
+    return failedRecords;
+  }
+
+  /**
+   * @return first failures in input order, lines are record numbers and offsets count from the start of the input
+   */
+  public List<ConversionException> getRecordErrors() {
+    return Collections.unmodifiableList(recordErrors);
+  }
+
+  private int read(char[] buffer, int offset, boolean measured)
+      throws IOException {
+    if (!measured) {
+      return reader.read(buffer, offset, buffer.length - offset);
+    }
+    long start = System.nanoTime();
+    int read = reader.read(buffer, offset, buffer.length - offset);
+    metrics.inputRead(Math.max(read, 0), System.nanoTime() - start);
+    return read;
+  }
+
+  /**
+   * @return index right after the last complete line ending or 0 if there is none. A '\r' at the end of the buffer
+   * may be the start of a "\r\n" and is left for the next batch
+   */
+  private static int splitPoint(char[] buffer, int length) {
+    for (int i = length - 1; i >= 0; i--) {
+      if (buffer[i] == '\n' || (buffer[i] == '\r' && i + 1 < length)) {
+        return i + 1;
+      }
+    }
+    return 0;
+  }
+
+  private Future<RecordBatch> submit(ForkJoinPool pool, char[] batch) {
+    long firstRecord = recordsSubmitted + 1;
+    long offset = inputSubmitted;
+    inputSubmitted += batch.length;
+    for (int i = 0; i < batch.length; i++) {
+      if (batch[i] == '\n' || (batch[i] == '\r' && (i + 1 == batch.length || batch[i + 1] != '\n'))) {
+        recordsSubmitted++;
+      }
+    }
+    MetricsListener metrics = this.metrics;
+    return pool.submit(() -> convert(batch, firstRecord, offset, metrics));
+  }
+
+  private RecordBatch convert(char[] batch, long firstRecord, long offset, MetricsListener metrics) {
+    long start = metrics != MetricsListener.NONE ? System.nanoTime() : 0;
+    RecordBatch result = new RecordBatch(batch.length);
+    long record = firstRecord;
+    int recordStart = 0;
+    while (recordStart < batch.length) {
+      int recordEnd = recordStart;
+      while (recordEnd < batch.length && batch[recordEnd] != '\n' && batch[recordEnd] != '\r') {
+        recordEnd++;
+      }
+      int lineEnd = recordEnd;
+      if (lineEnd < batch.length) {
+        lineEnd += batch[lineEnd] == '\r' && lineEnd + 1 < batch.length && batch[lineEnd + 1] == '\n' ? 2 : 1;
+      }
+
+      int outputStart = result.output.length();
+      try {
+        CharBuffer content = CharBuffer.wrap(batch, recordStart, recordEnd - recordStart);
+        if (mode == MorseConverter.Mode.TEXT_TO_MORSE) {
+          codec.encode(content, result.output);
+        } else {
+          codec.decode(content, result.output);
+        }
+      } catch (ConversionException e) {
+        result.output.setLength(outputStart);
+        result.fail(new ConversionException(e.getMessage(), offset + recordStart + e.getOffset(), record), metrics);
+      }
+      result.output.append(batch, recordEnd, lineEnd - recordEnd);
+      recordStart = lineEnd;
+      record++;
+    }
+    if (metrics != MetricsListener.NONE) {
+      metrics.chunkConverted(batch.length, System.nanoTime() - start);
+    }
+    return result;
+  }
+
+  private void write(Future<RecordBatch> result, Writer output)
+      throws ConversionException, IOException {
+    RecordBatch batch;
+    try {
+      batch = result.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new ConversionException(e);
+    } catch (ExecutionException e) {
+      throw new ConversionException(e.getCause());
+    }
+    failedRecords += batch.failed;
+    for (ConversionException error : batch.errors) {
+      if (recordErrors.size() < MAX_REPORTED_ERRORS) {
+        recordErrors.add(error);
+      }
+    }
+    output.append(batch.output);
+  }
+
+  private final class RecordBatch {
+
+    private final StringBuilder output;
+    private final List<ConversionException> errors = new ArrayList<>();
+    private long failed;
+
+    RecordBatch(int inputLength) {
+      //Encoding grows the input about five times and decoding shrinks it as much
+      this.output = new StringBuilder(mode == MorseConverter.Mode.TEXT_TO_MORSE ? inputLength * 5 : inputLength / 4);
+    }
+
+    void fail(ConversionException error, MetricsListener metrics) {
+      failed++;
+      if (errors.size() < MAX_REPORTED_ERRORS) {
+        errors.add(error);
+      }
+      if (mode == MorseConverter.Mode.TEXT_TO_MORSE) {
+        metrics.errors(MetricsListener.ErrorType.UNSUPPORTED_CHARACTER, 1);
+      } else if (MorseConverter.MORSE_DELIMIT_EXCEPTION_MESSAGE.equals(error.getMessage())) {
+        metrics.errors(MetricsListener.ErrorType.REPEATED_DELIMITER, 1);
+      } else {
+        metrics.errors(MetricsListener.ErrorType.INVALID_SEQUENCE, 1);
+      }
+    }
+  }
+}
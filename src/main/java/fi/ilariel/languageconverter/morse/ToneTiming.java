@@ -0,0 +1,196 @@
+package fi.ilariel.languageconverter.morse;
+
+import java.util.Arrays;
+
+
+/**
+ * Classifies runs of tone and silence into dits, dahs and gaps for {@link MorseAudioReader}. Lengths are in any unit,
+ * the classification only depends on their ratios.
+ * <p>
+ * Timing is learned from the first runs: marks are split into dits and dahs at the largest jump in their lengths and
+ * gaps longer than two dits into character and word gaps the same way. After that every classified run nudges the
+ * estimates, so the speed of a hand keyed or drifting recording is followed. Runs much shorter than a dit between two
+ * runs of the other kind are noise and are merged into them.
+ */
+final class ToneTiming {
+
+  private static final int LEARNING_RUNS = 32;
+  //Two lengths further apart than this are of different kinds
+  private static final double CLUSTER_RATIO = 1.6;
+  private static final double ADAPTATION = 0.2;
+  private static final double GLITCH_UNITS = 0.3;
+
+  private final StringBuilder output;
+  //Marks are positive and gaps negative until the timing is learned
+  private final long[] learning = new long[LEARNING_RUNS];
+  private int learned;
+  private double unit;
+  private double characterGap;
+
+  //Last run, held until we know it isn't interrupted by a glitch
+  private boolean heldTone;
+  private long held;
+  private long glitch;
+  private boolean started;
+
+  /**
+   * @param output receives dits, dahs, '.' between characters and ' ' between words
+   */
+  ToneTiming(StringBuilder output) {
+    this.output = output;
+  }
+
+  /**
+   * Adds a run, runs alternate between tone and silence
+   */
+  void run(boolean tone, long length) {
+    if (held == 0) {
+      heldTone = tone;
+      held = length;
+    } else if (tone == heldTone) {
+      //The run after a glitch continues the held run
+      held += glitch + length;
+      glitch = 0;
+    } else if (unit > 0 && length < unit * GLITCH_UNITS && glitch == 0) {
+      glitch = length;
+    } else {
+      classify(heldTone, held);
+      heldTone = tone;
+      held = length;
+    }
+  }
+
+  /**
+   * Classifies what is left after the last run, silence at the end is dropped
+   */
+  void finish() {
+    if (held > 0 && heldTone) {
+      classify(true, held);
+    }
+    held = 0;
+    if (unit == 0) {
+      learn();
+    }
+  }
+
+  private void classify(boolean tone, long length) {
+    if (!started && !tone) {
+      //Silence before the first tone
+      return;
+    }
+    started = true;
+    if (unit == 0) {
+      learning[learned++] = tone ? length : -length;
+      if (learned == LEARNING_RUNS) {
+        learn();
+      }
+    } else if (tone) {
+      mark(length);
+    } else {
+      gap(length);
+    }
+  }
+
+  private void learn() {
+    if (learned == 0) {
+      return;
+    }
+    long[] marks = new long[learned];
+    long[] gaps = new long[learned];
+    int markCount = 0;
+    int gapCount = 0;
+    for (int i = 0; i < learned; i++) {
+      if (learning[i] > 0) {
+        marks[markCount++] = learning[i];
+      } else {
+        gaps[gapCount++] = -learning[i];
+      }
+    }
+    marks = Arrays.copyOf(marks, markCount);
+    gaps = Arrays.copyOf(gaps, gapCount);
+    Arrays.sort(marks);
+    Arrays.sort(gaps);
+
+    int split = split(marks, 0);
+    if (split < marks.length) {
+      unit = (mean(marks, 0, split) + mean(marks, split, marks.length) / 3) / 2;
+    } else {
+      //One kind of marks, they are dahs if they are clearly longer than the gaps between elements
+      double mark = mean(marks, 0, marks.length);
+      unit = gapCount > 0 && mark >= 2 * gaps[0] ? mark / 3 : mark;
+    }
+
+    int first = 0;
+    while (first < gaps.length && gaps[first] < 2 * unit) {
+      first++;
+    }
+    split = split(gaps, first);
+    if (first == gaps.length) {
+      characterGap = 3 * unit;
+    } else if (split < gaps.length) {
+      characterGap = mean(gaps, first, split);
+    } else {
+      double gap = mean(gaps, first, gaps.length);
+      //One kind of gaps, they are word gaps if they are too long for character gaps without Farnsworth timing
+      characterGap = gap < 5 * unit ? gap : 3 * unit;
+    }
+
+    int replayed = learned;
+    learned = 0;
+    for (int i = 0; i < replayed; i++) {
+      if (learning[i] > 0) {
+        mark(learning[i]);
+      } else {
+        gap(-learning[i]);
+      }
+    }
+  }
+
+  /**
+   * @return index of the first value of the upper cluster, or the length if the values are all of one kind
+   */
+  private static int split(long[] sorted, int from) {
+    int split = sorted.length;
+    double largest = CLUSTER_RATIO;
+    for (int i = from + 1; i < sorted.length; i++) {
+      double ratio = (double) sorted[i] / sorted[i - 1];
+      if (ratio >= largest) {
+        largest = ratio;
+        split = i;
+      }
+    }
+    return split;
+  }
+
+  private static double mean(long[] values, int from, int to) {
+    double sum = 0;
+    for (int i = from; i < to; i++) {
+      sum += values[i];
+    }
+    return sum / (to - from);
+  }
+
+  private void mark(long length) {
+    if (length < 2 * unit) {
+      output.append(MorseConverter.MORSE_DIT);
+      unit += (length - unit) * ADAPTATION;
+    } else {
+      output.append(MorseConverter.MORSE_DAH);
+      unit += (length / 3.0 - unit) * ADAPTATION;
+    }
+  }
+
+  private void gap(long length) {
+    if (length < 2 * unit) {
+      return;
+    }
+    //Word gaps are 7/3 of character gaps, split halfway
+    if (length < characterGap * 5 / 3) {
+      output.append(MorseConverter.MORSE_CODE_CHARACTER_SEPARATOR);
+      characterGap += (length - characterGap) * ADAPTATION;
+    } else {
+      output.append(' ');
+      characterGap += (length * 3.0 / 7 - characterGap) * ADAPTATION;
+    }
+  }
+}
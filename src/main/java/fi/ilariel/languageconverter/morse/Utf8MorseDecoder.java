@@ -0,0 +1,230 @@
+package fi.ilariel.languageconverter.morse;
+
+import java.nio.ByteBuffer;
+
+import fi.ilariel.languageconverter.converter.ByteTranscoder;
+import fi.ilariel.languageconverter.converter.ConversionException;
+
+
+/**
+ * Morse−to−English decoder that works on UTF-8 bytes. Dits and dahs are matched as their three byte sequences and
+ * decoded letters are written as ASCII bytes, so no charset decoding or encoding is needed. Follows the same rules as
+ * {@link MorseDecoder}, positions are counted in bytes.
+ */
+final class Utf8MorseDecoder implements ByteTranscoder {
+
+  //A symbol of up to three bytes and a space can be written for one input byte
+  private static final int MAX_OUTPUT_PER_BYTE = 4;
+  private static final int ASCII_LIMIT = 0x80;
+
+  private final MorseTable table;
+  private final MorseSymbol symbol;
+  private final DecodeErrorPolicy errorPolicy;
+  private boolean delimiter;
+  //Bytes consumed in earlier calls and lines seen so far
+  private long consumed;
+  private long line = 1;
+  //Counted for metrics, errors only on the error path
+  private long symbols;
+  private long invalidSequences;
+  private long repeatedDelimiters;
+
+  Utf8MorseDecoder(DecodeErrorPolicy errorPolicy) {
+    this(errorPolicy, MorseAlphabet.DEFAULT.getTable(), false, 0, 1);
+  }
+
+  /**
+   * @param delimiter true when the input continues right after a delimiter dot, so a leading dot is an error
+   * @param offset position of the input in a larger input, errors are reported from its start
+   * @param line line of the larger input the input starts on
+   */
+  Utf8MorseDecoder(DecodeErrorPolicy errorPolicy, MorseTable table, boolean delimiter, long offset, long line) {
+    this.errorPolicy = errorPolicy;
+    this.table = table;
+    this.symbol = new MorseSymbol(table);
+    this.delimiter = delimiter;
+    this.consumed = offset;
+    this.line = line;
+  }
+
+  /**
+   * Decodes as much of the input as fits in the output. A dit or a dah cut off at the end of the input is left in the
+   * input unless this is the end of the input.
+   * @param endOfInput true if there is no more input after this buffer
+   * @return true if decoding stopped because the output buffer is full
+   * @throws ConversionException if the input completes an invalid sequence or contains consecutive delimiters
+   */
+  @Override
+  public boolean transcode(ByteBuffer in, ByteBuffer out, boolean endOfInput)
+      throws ConversionException {
+    int position = in.position();
+    int limit = in.limit();
+    long base = consumed - position;
+    try {
+      while (position < limit) {
+        if (out.remaining() < MAX_OUTPUT_PER_BYTE) {
+          return true;
+        }
+
+        byte b = in.get(position);
+        if (b == MorseTable.UTF8_LEAD && symbol.isEmpty()) {
+          int end = decodeSymbols(in, position, limit, out);
+          if (end != position) {
+            position = end;
+            continue;
+          }
+        }
+        if (b == MorseTable.UTF8_LEAD) {
+          if (limit - position < MorseTable.UTF8_ELEMENT_LENGTH) {
+            if (!endOfInput) {
+              break;
+            }
+            endSymbol(out);
+            position++;
+            continue;
+          }
+          byte second = in.get(position + 1);
+          byte third = in.get(position + 2);
+          if (second == MorseTable.UTF8_DIT_SECOND && third == MorseTable.UTF8_DIT_THIRD) {
+            symbol.append(MorseConverter.MORSE_DIT, base + position, line);
+            position += MorseTable.UTF8_ELEMENT_LENGTH;
+          } else if (second == MorseTable.UTF8_DAH_SECOND && third == MorseTable.UTF8_DAH_THIRD) {
+            symbol.append(MorseConverter.MORSE_DAH, base + position, line);
+            position += MorseTable.UTF8_ELEMENT_LENGTH;
+          } else {
+            endSymbol(out);
+            position++;
+          }
+          continue;
+        }
+
+        switch (b) {
+          case '\n':
+            line++;
+            break;
+          case '\r':
+            break;
+          case ' ':
+            endSymbol(out);
+            out.put((byte) ' ');
+            delimiter = false;
+            break;
+          case MorseConverter.MORSE_CODE_CHARACTER_SEPARATOR:
+            endSymbol(out);
+            //Accept only single dot delimitation
+            if (delimiter) {
+              repeatedDelimiters++;
+              errorPolicy.repeatedDelimiter(base + position, line);
+            }
+            delimiter = true;
+            break;
+          default:
+            //Any other byte, including the rest of other multi-byte characters, ends the symbol
+            endSymbol(out);
+            break;
+        }
+        position++;
+      }
+      return false;
+    } finally {
+      consumed = base + position;
+      in.position(position);
+    }
+  }
+
+  /**
+   * Decodes whole valid symbols and the delimiters and spaces after them with {@link MorseScanner}, walking from one
+   * symbol boundary to the next. Stops at anything else: invalid symbols, repeated delimiters, symbols cut off by the
+   * end of the input or continued on the next line are left for the byte by byte path, which handles their errors and
+   * positions.
+   * @return index after the decoded input, or the start if nothing was decoded
+   */
+  private int decodeSymbols(ByteBuffer in, int start, int limit, ByteBuffer out) {
+    int position = start;
+    while (out.remaining() >= MAX_OUTPUT_PER_BYTE) {
+      long scanned = MorseScanner.scanSymbol(in, position, limit, table.getMaxSymbolLength());
+      if (scanned == MorseScanner.NOT_A_SYMBOL) {
+        break;
+      }
+      int end = (int) (scanned >>> Integer.SIZE);
+      byte next = in.get(end);
+      char letter = table.decode((int) scanned);
+      if (next == '\n' || next == '\r' || letter == MorseTable.NO_LETTER) {
+        break;
+      }
+      if (letter < ASCII_LIMIT) {
+        out.put((byte) letter);
+      } else {
+        putNonAscii(letter, out);
+      }
+      symbols++;
+      position = end;
+      delimiter = false;
+      if (next == MorseConverter.MORSE_CODE_CHARACTER_SEPARATOR) {
+        delimiter = true;
+        position++;
+      } else if (next == ' ') {
+        out.put((byte) ' ');
+        position++;
+      }
+    }
+    return position;
+  }
+
+  /**
+   * @return number of symbols ended so far, valid or not
+   */
+  long getSymbols() {
+    return symbols;
+  }
+
+  long getInvalidSequences() {
+    return invalidSequences;
+  }
+
+  long getRepeatedDelimiters() {
+    return repeatedDelimiters;
+  }
+
+  /**
+   * Decodes the last pending symbol
+   * @throws ConversionException if the pending symbol is not a valid sequence
+   */
+  @Override
+  public void finish(ByteBuffer out)
+      throws ConversionException {
+    endSymbol(out);
+  }
+
+  private void endSymbol(ByteBuffer out)
+      throws ConversionException {
+    if (!symbol.isEmpty()) {
+      char letter = symbol.letter();
+      symbols++;
+      if (letter == MorseTable.NO_LETTER) {
+        invalidSequences++;
+        letter = errorPolicy.invalidSequence(symbol);
+      }
+      if (letter < ASCII_LIMIT) {
+        out.put((byte) letter);
+      } else {
+        putNonAscii(letter, out);
+      }
+      symbol.clear();
+      delimiter = false;
+    }
+  }
+
+  /**
+   * Letters of other alphabets are written as two or three UTF-8 bytes, surrogates are not valid letters
+   */
+  private static void putNonAscii(char letter, ByteBuffer out) {
+    if (letter < 0x800) {
+      out.put((byte) (0xC0 | letter >> 6));
+    } else {
+      out.put((byte) (0xE0 | letter >> 12));
+      out.put((byte) (0x80 | (letter >> 6 & 0x3F)));
+    }
+    out.put((byte) (0x80 | (letter & 0x3F)));
+  }
+}
@@ -0,0 +1,151 @@
+package fi.ilariel.languageconverter.morse;
+
+import java.nio.ByteBuffer;
+
+import fi.ilariel.languageconverter.converter.ByteTranscoder;
+import fi.ilariel.languageconverter.converter.ConversionException;
+
+
+/**
+ * English−to−Morse encoder that works on UTF-8 bytes. ASCII input bytes are looked up directly and their dits and dahs
+ * are copied to the output as precomputed UTF-8 bytes, other characters are decoded first. Produces the same bytes as
+ * {@link MorseEncoder} followed by UTF-8 encoding. Error positions are counted in bytes.
+ */
+final class Utf8MorseEncoder implements ByteTranscoder {
+
+  private static final int ASCII_LIMIT = 0x80;
+  private static final char REPLACEMENT_CHARACTER = '\uFFFD';
+
+  private final MorseTable table;
+  private boolean first = true;
+  //Bytes consumed in earlier calls and lines seen so far
+  private long consumed;
+  private long line = 1;
+
+  Utf8MorseEncoder() {
+    this(MorseAlphabet.DEFAULT.getTable());
+  }
+
+  Utf8MorseEncoder(MorseTable table) {
+    this.table = table;
+  }
+
+  /**
+   * Encodes as much of the input as fits in the output. A multi-byte character cut off at the end of the input is left
+   * in the input unless this is the end of the input.
+   * @param endOfInput true if there is no more input after this buffer
+   * @return true if encoding stopped because the output buffer is full
+   * @throws ConversionException if the input contains an unsupported character
+   */
+  @Override
+  public boolean transcode(ByteBuffer in, ByteBuffer out, boolean endOfInput)
+      throws ConversionException {
+    int position = in.position();
+    int limit = in.limit();
+    long base = consumed - position;
+    try {
+      while (position < limit) {
+        if (out.remaining() < table.getMaxEncodedUtf8Length()) {
+          return true;
+        }
+
+        int b = in.get(position);
+        byte[] morse;
+        if (b >= 0) {
+          if (b == '\n' || b == '\r') {
+            if (b == '\n') {
+              line++;
+            }
+            position++;
+            continue;
+          }
+          morse = table.encodeUtf8((char) b);
+          if (morse == null) {
+            throw unsupported((char) b, base + position);
+          }
+          position++;
+        } else {
+          int length = sequenceLength(b);
+          if (limit - position < length && !endOfInput) {
+            break;
+          }
+          morse = encodeNonAscii(in, position, Math.min(length, limit - position), base + position);
+          position += Math.min(length, limit - position);
+        }
+
+        if (!first) {
+          out.put((byte) MorseConverter.MORSE_CODE_CHARACTER_SEPARATOR);
+        } else {
+          first = false;
+        }
+        out.put(morse);
+      }
+      return false;
+    } finally {
+      consumed = base + position;
+      in.position(position);
+    }
+  }
+
+  @Override
+  public void finish(ByteBuffer out) {
+    //Every character is written as soon as it is read
+  }
+
+  /**
+   * Non-ASCII characters are looked up as characters, directly or through their upper case form
+   */
+  private byte[] encodeNonAscii(ByteBuffer in, int position, int length, long offset)
+      throws ConversionException {
+    int codePoint = decodeCodePoint(in, position, length);
+    if (codePoint < 0) {
+      throw unsupported(REPLACEMENT_CHARACTER, offset);
+    }
+    if (codePoint > Character.MAX_VALUE) {
+      throw unsupported(Character.highSurrogate(codePoint), offset);
+    }
+    byte[] morse = table.encodeUtf8((char) codePoint);
+    if (morse == null) {
+      throw unsupported((char) codePoint, offset);
+    }
+    return morse;
+  }
+
+  /**
+   * @return number of bytes in a UTF-8 sequence starting with the lead byte, 1 for malformed lead bytes
+   */
+  static int sequenceLength(int lead) {
+    if ((lead & 0xE0) == 0xC0) {
+      return 2;
+    } else if ((lead & 0xF0) == 0xE0) {
+      return 3;
+    } else if ((lead & 0xF8) == 0xF0) {
+      return 4;
+    }
+    return 1;
+  }
+
+  /**
+   * @return code point of the sequence or -1 if it is malformed
+   */
+  private static int decodeCodePoint(ByteBuffer in, int position, int length) {
+    int lead = in.get(position) & 0xFF;
+    int expected = sequenceLength(lead);
+    if (expected == 1 || length < expected) {
+      return -1;
+    }
+    int codePoint = lead & (0x7F >> expected);
+    for (int i = 1; i < expected; i++) {
+      int next = in.get(position + i) & 0xFF;
+      if ((next & 0xC0) != 0x80) {
+        return -1;
+      }
+      codePoint = (codePoint << 6) | (next & 0x3F);
+    }
+    return codePoint < ASCII_LIMIT ? -1 : codePoint;
+  }
+
+  private ConversionException unsupported(char ch, long offset) {
+    return new ConversionException("Conversion for " + ch + "is not supported", offset, line);
+  }
+}
@@ -0,0 +1,154 @@
+package fi.ilariel.languageconverter.server;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+import com.sun.net.httpserver.HttpServer;
+
+import fi.ilariel.languageconverter.morse.MorseConverter;
+
+
+/**
+ * Local conversion server, so that many messages can be converted without starting a JVM for each of them.
+ * Serves the length-prefixed frame protocol of {@link FramedConnection} over plain TCP and POST requests to /encode and
+ * /decode over HTTP. Both listen on the loopback interface only. TCP connections and HTTP requests are handled on
+ * separate fixed pools of worker threads, so clients that keep their connection open can't starve HTTP. A TCP
+ * connection that sends nothing for the idle timeout is closed to free its worker. Every request is streamed from the
+ * socket through a byte level converter straight to the response.
+ */
+public class ConversionServer {
+
+  private static final int BACKLOG = 128;
+  //Wait after an accept fails, so that a failure that repeats doesn't keep a core busy
+  private static final long FAILED_ACCEPT_PAUSE_MILLIS = 100;
+  /**
+   * Idle time after which a TCP connection is closed unless set in the constructor
+   */
+  public static final int DEFAULT_IDLE_TIMEOUT_MILLIS = 30_000;
+
+  private final int workerThreads;
+  private final int requestedTcpPort;
+  private final int requestedHttpPort;
+  private final int idleTimeoutMillis;
+  private ExecutorService tcpWorkers;
+  private ExecutorService httpWorkers;
+  private ServerSocket tcpSocket;
+  private Thread acceptor;
+  private HttpServer httpServer;
+
+  /**
+   * @param tcpPort port for the frame protocol, 0 for any free port
+   * @param httpPort port for HTTP, 0 for any free port
+   * @param workerThreads number of TCP connections and, separately, HTTP requests served at a time
+   */
+  public ConversionServer(int tcpPort, int httpPort, int workerThreads) {
+    this(tcpPort, httpPort, workerThreads, DEFAULT_IDLE_TIMEOUT_MILLIS);
+  }
+
+  /**
+   * @param idleTimeoutMillis time a TCP connection may wait for the client before it is closed
+   */
+  public ConversionServer(int tcpPort, int httpPort, int workerThreads, int idleTimeoutMillis) {
+    if (idleTimeoutMillis < 1) {
+      throw new IllegalArgumentException("Idle timeout must be positive");
+    }
+    this.requestedTcpPort = tcpPort;
+    this.requestedHttpPort = httpPort;
+    this.workerThreads = workerThreads;
+    this.idleTimeoutMillis = idleTimeoutMillis;
+  }
+
+  public synchronized void start()
+      throws IOException {
+    InetAddress loopback = InetAddress.getLoopbackAddress();
+    tcpWorkers = Executors.newFixedThreadPool(workerThreads);
+    httpWorkers = Executors.newFixedThreadPool(workerThreads);
+
+    tcpSocket = new ServerSocket(requestedTcpPort, BACKLOG, loopback);
+    acceptor = new Thread(this::accept, "conversion-server-acceptor");
+    acceptor.start();
+
+    httpServer = HttpServer.create(new InetSocketAddress(loopback, requestedHttpPort), BACKLOG);
+    httpServer.createContext("/encode", new HttpConversionHandler(MorseConverter.Mode.TEXT_TO_MORSE));
+    httpServer.createContext("/decode", new HttpConversionHandler(MorseConverter.Mode.MORSE_TO_TEXT));
+    httpServer.setExecutor(httpWorkers);
+    httpServer.start();
+  }
+
+  public synchronized void stop() {
+    if (httpServer != null) {
+      httpServer.stop(0);
+    }
+    if (tcpSocket != null) {
+      try {
+        tcpSocket.close();
+      } catch (IOException e) {
+        //Closing anyway
+      }
+    }
+    if (tcpWorkers != null) {
+      tcpWorkers.shutdownNow();
+    }
+    if (httpWorkers != null) {
+      httpWorkers.shutdownNow();
+    }
+  }
+
+  public int getTcpPort() {
+    return tcpSocket.getLocalPort();
+  }
+
+  public int getHttpPort() {
+    return httpServer.getAddress().getPort();
+  }
+
+  private void accept() {
+    while (!tcpSocket.isClosed() && !Thread.currentThread().isInterrupted()) {
+      Socket socket;
+      try {
+        socket = tcpSocket.accept();
+      } catch (IOException e) {
+        if (!tcpSocket.isClosed()) {
+          //Failures such as running out of file descriptors repeat until connections are closed, so wait a moment
+          System.err.print(String.format("Accepting a TCP connection failed: %s\n", e.getMessage()));
+          pauseAfterFailedAccept();
+        }
+        continue;
+      }
+      boolean handed = false;
+      try {
+        socket.setSoTimeout(idleTimeoutMillis);
+        tcpWorkers.execute(new FramedConnection(socket));
+        handed = true;
+      } catch (IOException | RejectedExecutionException e) {
+        //The connection failed already or stop() has shut the workers down, either way it is closed below
+      } finally {
+        if (!handed) {
+          closeQuietly(socket);
+        }
+      }
+    }
+  }
+
+  private static void pauseAfterFailedAccept() {
+    try {
+      Thread.sleep(FAILED_ACCEPT_PAUSE_MILLIS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private static void closeQuietly(Socket socket) {
+    try {
+      socket.close();
+    } catch (IOException e) {
+      //Nothing more to free
+    }
+  }
+}
@@ -0,0 +1,154 @@
+package fi.ilariel.languageconverter.server;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import fi.ilariel.languageconverter.converter.ByteTranscoder;
+import fi.ilariel.languageconverter.converter.ConversionException;
+import fi.ilariel.languageconverter.morse.MorseByteConverter;
+import fi.ilariel.languageconverter.morse.MorseConverter;
+
+
+/**
+ * Serves conversion requests on one TCP connection. The protocol is length-prefixed frames:
+ * <pre>
+ * request:  mode byte ('m' English to Morse, 'e' Morse to English), then frames of [int length][UTF-8 bytes] ending
+ *           with a frame of length 0
+ * response: frames of [int length][UTF-8 bytes], then 0 on success or -1 followed by a frame with the error message
+ * </pre>
+ * Any number of requests can be sent one after another on the same connection. Each input frame is converted and its
+ * output sent before the next frame is read, so a client that reads slowly holds back its own input and memory use
+ * per connection is bounded by the frame size.
+ */
+class FramedConnection implements Runnable {
+
+  static final int MAX_FRAME_LENGTH = 64 * 1024;
+  static final int SUCCESS = 0;
+  static final int FAILURE = -1;
+
+  private final Socket socket;
+  private final ByteBuffer input = ByteBuffer.allocate(MAX_FRAME_LENGTH + ByteTranscoder.MAX_PENDING_INPUT);
+  private final ByteBuffer output = ByteBuffer.allocate(MAX_FRAME_LENGTH);
+
+  FramedConnection(Socket socket) {
+    this.socket = socket;
+  }
+
+  @Override
+  public void run() {
+    try (Socket socket = this.socket;
+        DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()))) {
+      int mode = in.read();
+      while (mode != -1) {
+        serveRequest(mode, in, out);
+        mode = in.read();
+      }
+    } catch (EOFException | ProtocolException e) {
+      //Client went away or broke the protocol, nothing to answer
+    } catch (IOException e) {
+      //Connection failed or the client was idle longer than the socket timeout, nothing to answer
+    }
+  }
+
+  private void serveRequest(int mode, DataInputStream in, DataOutputStream out)
+      throws IOException, ProtocolException {
+    input.clear();
+    output.clear();
+    boolean inputEnded = false;
+    try {
+      ByteTranscoder transcoder = MorseByteConverter.newTranscoder(parseMode(mode));
+      int length = readFrameLength(in);
+      while (length > 0) {
+        in.readFully(input.array(), input.position(), length);
+        input.position(input.position() + length);
+        input.flip();
+        while (transcoder.transcode(input, output, false)) {
+          writeFrame(out);
+        }
+        input.compact();
+        writeFrame(out);
+        out.flush();
+        length = readFrameLength(in);
+      }
+      inputEnded = true;
+
+      input.flip();
+      while (transcoder.transcode(input, output, true)) {
+        writeFrame(out);
+      }
+      if (output.remaining() < ByteTranscoder.FINISH_OUTPUT_SIZE) {
+        writeFrame(out);
+      }
+      transcoder.finish(output);
+      writeFrame(out);
+      out.writeInt(SUCCESS);
+    } catch (ConversionException e) {
+      if (!inputEnded) {
+        skipRequest(in);
+      }
+      byte[] message = String.valueOf(e.getMessage()).getBytes(StandardCharsets.UTF_8);
+      out.writeInt(FAILURE);
+      out.writeInt(message.length);
+      out.write(message);
+    }
+    out.flush();
+  }
+
+  private static MorseConverter.Mode parseMode(int mode)
+      throws ConversionException {
+    switch (mode) {
+      case 'm':
+        return MorseConverter.Mode.TEXT_TO_MORSE;
+      case 'e':
+        return MorseConverter.Mode.MORSE_TO_TEXT;
+      default:
+        throw new ConversionException((char) mode + " is not a valid mode");
+    }
+  }
+
+  private static int readFrameLength(DataInputStream in)
+      throws IOException, ProtocolException {
+    int length = in.readInt();
+    if (length < 0 || length > MAX_FRAME_LENGTH) {
+      throw new ProtocolException();
+    }
+    return length;
+  }
+
+  /**
+   * Reads and drops the rest of a failed request, so the next one starts at the right place
+   */
+  private void skipRequest(DataInputStream in)
+      throws IOException, ProtocolException {
+    int length = readFrameLength(in);
+    while (length > 0) {
+      in.readFully(input.array(), 0, length);
+      length = readFrameLength(in);
+    }
+  }
+
+  private void writeFrame(DataOutputStream out)
+      throws IOException {
+    if (output.position() > 0) {
+      out.writeInt(output.position());
+      out.write(output.array(), 0, output.position());
+      output.clear();
+    }
+  }
+
+  /**
+   * Frame length out of range, the connection can't be trusted any more
+   */
+  private static class ProtocolException extends Exception {
+
+    private static final long serialVersionUID = 1L;
+  }
+}
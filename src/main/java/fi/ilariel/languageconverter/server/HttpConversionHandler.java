@@ -0,0 +1,106 @@
+package fi.ilariel.languageconverter.server;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+
+import fi.ilariel.languageconverter.converter.ConversionException;
+import fi.ilariel.languageconverter.morse.MorseByteConverter;
+import fi.ilariel.languageconverter.morse.MorseConverter;
+
+
+/**
+ * Converts the body of a POST request and streams the result back as a chunked response. The response headers are sent
+ * only once the first converted bytes are ready, so errors found early are answered with 400. An error found after
+ * that cuts the response short.
+ */
+class HttpConversionHandler implements HttpHandler {
+
+  private static final int OK = 200;
+  private static final int BAD_REQUEST = 400;
+  private static final int METHOD_NOT_ALLOWED = 405;
+  private static final long CHUNKED = 0;
+
+  private final MorseConverter.Mode mode;
+
+  HttpConversionHandler(MorseConverter.Mode mode) {
+    this.mode = mode;
+  }
+
+  @Override
+  public void handle(HttpExchange exchange)
+      throws IOException {
+    try {
+      if (!"POST".equals(exchange.getRequestMethod())) {
+        exchange.sendResponseHeaders(METHOD_NOT_ALLOWED, -1);
+        return;
+      }
+
+      exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+      ResponseStream response = new ResponseStream(exchange);
+      try {
+        new MorseByteConverter(exchange.getRequestBody(), response, mode).convert();
+        response.finish();
+      } catch (ConversionException e) {
+        if (response.started) {
+          throw new IOException(e);
+        }
+        byte[] message = String.valueOf(e.getMessage()).getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(BAD_REQUEST, message.length);
+        exchange.getResponseBody().write(message);
+      }
+    } finally {
+      exchange.close();
+    }
+  }
+
+  /**
+   * Response body that sends the headers on the first write
+   */
+  private static final class ResponseStream extends OutputStream {
+
+    private final HttpExchange exchange;
+    private boolean started;
+
+    private ResponseStream(HttpExchange exchange) {
+      this.exchange = exchange;
+    }
+
+    @Override
+    public void write(int b)
+        throws IOException {
+      write(new byte[] {(byte) b}, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len)
+        throws IOException {
+      if (len > 0) {
+        start();
+        exchange.getResponseBody().write(b, off, len);
+      }
+    }
+
+    private void start()
+        throws IOException {
+      if (!started) {
+        exchange.sendResponseHeaders(OK, CHUNKED);
+        started = true;
+      }
+    }
+
+    /**
+     * Sends the headers of an empty response if nothing was written
+     */
+    void finish()
+        throws IOException {
+      if (!started) {
+        exchange.sendResponseHeaders(OK, -1);
+        started = true;
+      }
+    }
+  }
+}
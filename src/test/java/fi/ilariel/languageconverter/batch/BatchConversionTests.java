@@ -0,0 +1,213 @@
+package fi.ilariel.languageconverter.batch;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import fi.ilariel.languageconverter.converter.ConversionException;
+import fi.ilariel.languageconverter.converter.MetricsListener;
+import fi.ilariel.languageconverter.morse.DecodeErrorPolicy;
+import fi.ilariel.languageconverter.morse.MorseAudioFormat;
+import fi.ilariel.languageconverter.morse.MorseAudioWriter;
+import fi.ilariel.languageconverter.morse.MorseConverter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+
+public class BatchConversionTests {
+
+  private Path directory;
+  private Path input;
+  private Path output;
+
+  @Before
+  public void createFiles()
+      throws IOException {
+    directory = Files.createTempDirectory("batch");
+    input = directory.resolve("input");
+    output = directory.resolve("output");
+    write("sos.txt", "•••.−−−.•••");
+    write("nested/cq.txt", "−•−•.−−•−");
+    write("nested/deeper/de.morse", "−••.•");
+    write("bad.txt", "•••.−−−−−−−");
+  }
+
+  @After
+  public void deleteFiles()
+      throws IOException {
+    try (Stream<Path> paths = Files.walk(directory)) {
+      paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+    }
+  }
+
+  private void write(String name, String content)
+      throws IOException {
+    Path file = input.resolve(name);
+    Files.createDirectories(file.getParent());
+    Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+  }
+
+  private String read(String name)
+      throws IOException {
+    return new String(Files.readAllBytes(output.resolve(name)), StandardCharsets.UTF_8);
+  }
+
+  @Test
+  public void directoryKeepsRelativePaths()
+      throws IOException {
+    List<BatchResult> results = new BatchConversion(MorseConverter.Mode.MORSE_TO_TEXT, output, 3)
+        .convert(Arrays.asList(input.toString()));
+
+    assertEquals(4, results.size());
+    int failed = 0;
+    for (BatchResult result : results) {
+      if (!result.isSuccess()) {
+        failed++;
+        assertEquals(input.resolve("bad.txt"), result.getInput());
+        assertTrue(result.getFailure() instanceof ConversionException);
+      }
+    }
+    assertEquals(1, failed);
+    assertEquals("SOS", read("sos.txt"));
+    assertEquals("CQ", read("nested/cq.txt"));
+    assertEquals("DE", read("nested/deeper/de.morse"));
+  }
+
+  @Test
+  public void globAndManifest()
+      throws IOException {
+    Path manifest = directory.resolve("manifest");
+    Files.write(manifest, Arrays.asList("# inputs", "input/sos.txt", "", "input/missing.txt"));
+
+    List<BatchResult> results = new BatchConversion(MorseConverter.Mode.MORSE_TO_TEXT, output, 2)
+        .convert(Arrays.asList(input + "/nested/**.morse", "@" + manifest));
+
+    assertEquals(3, results.size());
+    assertTrue(results.get(0).isSuccess());
+    assertEquals("DE", read("deeper/de.morse"));
+    assertTrue(results.get(1).isSuccess());
+    assertEquals("SOS", read("sos.txt"));
+    assertFalse(results.get(2).isSuccess());
+    assertTrue(results.get(2).getFailure() instanceof NoSuchFileException);
+  }
+
+  @Test
+  public void policyIsCreatedForEachFile()
+      throws IOException {
+    List<BatchResult> results = new BatchConversion(MorseConverter.Mode.MORSE_TO_TEXT, output, 2,
+        () -> DecodeErrorPolicy.replace('?')).convert(Arrays.asList(input + "/*.txt"));
+
+    assertEquals(2, results.size());
+    assertEquals(1, results.get(0).getDecodeErrors());
+    assertEquals("S?", read("bad.txt"));
+    assertEquals(0, results.get(1).getDecodeErrors());
+  }
+
+  @Test
+  public void inputsAreNeverOverwritten()
+      throws IOException {
+    Path nested = input.resolve("nested");
+    List<BatchResult> results = new BatchConversion(MorseConverter.Mode.MORSE_TO_TEXT, nested, 2)
+        .convert(Arrays.asList(nested.resolve("cq.txt").toString(), input.resolve("nested").toString()));
+
+    //Converting into the directory the inputs are in would write every output over its own input
+    assertEquals(3, results.size());
+    for (BatchResult result : results) {
+      assertFalse(result.isSuccess());
+    }
+    assertTrue(results.get(0).getFailure() instanceof FileAlreadyExistsException);
+    assertEquals("−•−•.−−•−", new String(Files.readAllBytes(nested.resolve("cq.txt")), StandardCharsets.UTF_8));
+  }
+
+  @Test
+  public void invalidInputsFailOnlyThemselves()
+      throws IOException {
+    List<BatchResult> results = new BatchConversion(MorseConverter.Mode.MORSE_TO_TEXT, output.resolve("."), 2)
+        .convert(Arrays.asList("", input.resolve("sos.txt").toString(), "@"));
+
+    assertEquals(3, results.size());
+    assertTrue(results.get(0).getFailure() instanceof NoSuchFileException);
+    assertTrue(results.get(1).isSuccess());
+    assertEquals("SOS", read("sos.txt"));
+    assertFalse(results.get(2).isSuccess());
+  }
+
+  @Test
+  public void audioRecordingsAreDecoded()
+      throws IOException {
+    Path recordings = directory.resolve("recordings");
+    Files.createDirectories(recordings);
+    int[] speeds = {15, 25, 35};
+    for (int speed : speeds) {
+      MorseAudioFormat format = MorseAudioFormat.builder().wpm(speed).sampleRate(8000).build();
+      try (MorseAudioWriter writer = new MorseAudioWriter(recordings.resolve(speed + ".wav"), format)) {
+        writer.write("•••.−−−.••• −−•−.−•");
+      }
+    }
+
+    BatchConversion conversion = new BatchConversion(MorseConverter.Mode.MORSE_TO_TEXT, output, 2);
+    conversion.setAudioInput(0);
+    List<BatchResult> results = conversion.convert(Arrays.asList(recordings.toString()));
+
+    assertEquals(speeds.length, results.size());
+    for (int speed : speeds) {
+      assertEquals("SOS QN", read(speed + ".wav.txt"));
+    }
+  }
+
+  @Test
+  public void smallFilesAreNotHeldBackByLargeOne()
+      throws IOException {
+    int smallFiles = 20;
+    write("mixed/large.txt", String.join(".", Collections.nCopies(1000, "•")));
+    for (int i = 0; i < smallFiles; i++) {
+      write("mixed/small" + i + ".txt", "•••");
+    }
+    CountDownLatch smallFinished = new CountDownLatch(smallFiles);
+    boolean[] finishedFirst = new boolean[1];
+    BatchConversion conversion = new BatchConversion(MorseConverter.Mode.MORSE_TO_TEXT, output, 2);
+    conversion.setMetricsListener(new MetricsListener() {
+      @Override
+      public void chunkConverted(long units, long nanos) {
+        //The large file is converted in one chunk, which waits until every small file is done
+        if (units > 100) {
+          try {
+            finishedFirst[0] = smallFinished.await(5, TimeUnit.SECONDS);
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+        }
+      }
+
+      @Override
+      public void conversionFinished(long nanos, boolean success) {
+        smallFinished.countDown();
+      }
+    });
+    List<BatchResult> results = conversion.convert(Arrays.asList(input.resolve("mixed").toString()));
+
+    assertTrue(finishedFirst[0]);
+    assertEquals(smallFiles + 1, results.size());
+    for (BatchResult result : results) {
+      assertTrue(result.isSuccess());
+    }
+    assertEquals("S", read("small0.txt"));
+    assertEquals(String.join("", Collections.nCopies(1000, "E")), read("large.txt"));
+  }
+}
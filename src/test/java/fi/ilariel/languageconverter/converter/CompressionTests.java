@@ -0,0 +1,132 @@
+package fi.ilariel.languageconverter.converter;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import fi.ilariel.languageconverter.morse.MorseConverter;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+
+public class CompressionTests {
+
+  private static final String TEXT = "cq cq de oh2xx the quick brown fox jumps over the lazy dog? me@mail.com 1/2 ";
+
+  private Path directory;
+
+  @Before
+  public void createDirectory()
+      throws IOException {
+    directory = Files.createTempDirectory("compression");
+  }
+
+  @After
+  public void deleteFiles()
+      throws IOException {
+    for (Path file : Files.newDirectoryStream(directory)) {
+      Files.delete(file);
+    }
+    Files.delete(directory);
+  }
+
+  private static byte[] readAll(InputStream input)
+      throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    byte[] buffer = new byte[1000];
+    int read;
+    while ((read = input.read(buffer)) != -1) {
+      bytes.write(buffer, 0, read);
+    }
+    return bytes.toByteArray();
+  }
+
+  @Test
+  public void gzipIsFoundByContent()
+      throws IOException {
+    StringBuilder text = new StringBuilder();
+    while (text.length() < 1_000_000) {
+      text.append(TEXT);
+    }
+    byte[] bytes = text.toString().getBytes(StandardCharsets.UTF_8);
+    File compressed = directory.resolve("text.gz").toFile();
+    try (OutputStream output = Compression.openOutput(compressed)) {
+      //Odd sized writes cross the buffers handed to the compressing thread
+      for (int i = 0; i < bytes.length; i += 999) {
+        output.write(bytes, i, Math.min(999, bytes.length - i));
+      }
+    }
+    assertEquals(Compression.GZIP, Compression.ofContent(compressed));
+    assertTrue(compressed.length() < bytes.length / 10);
+
+    //The extension of an input doesn't matter
+    File renamed = directory.resolve("text.txt").toFile();
+    assertTrue(compressed.renameTo(renamed));
+    try (InputStream input = Compression.openInput(renamed)) {
+      assertArrayEquals(bytes, readAll(input));
+    }
+
+    File plain = directory.resolve("plain.gz.txt").toFile();
+    Files.write(plain.toPath(), bytes);
+    assertEquals(Compression.NONE, Compression.ofName(plain.getName()));
+    try (InputStream input = Compression.openInput(plain)) {
+      assertArrayEquals(bytes, readAll(input));
+    }
+  }
+
+  @Test
+  public void morseArchiveIsConvertedWithoutUnpacking()
+      throws ConversionException, IOException {
+    File archive = directory.resolve("traffic.morse.gz").toFile();
+    try (MorseConverter converter = new MorseConverter(new BufferedReader(new StringReader(TEXT)),
+        new OutputStreamWriter(Compression.openOutput(archive), StandardCharsets.UTF_8),
+        MorseConverter.Mode.TEXT_TO_MORSE)) {
+      converter.convert();
+    }
+    StringWriter text = new StringWriter();
+    try (MorseConverter converter = new MorseConverter(new BufferedReader(new InputStreamReader(
+        Compression.openInput(archive), StandardCharsets.UTF_8)), text, MorseConverter.Mode.MORSE_TO_TEXT)) {
+      converter.convert();
+    }
+    assertEquals(TEXT.toUpperCase(Locale.ROOT), text.toString());
+  }
+
+  @Test
+  public void zstdIsRecognized()
+      throws IOException {
+    File zstd = directory.resolve("archive").toFile();
+    Files.write(zstd.toPath(), new byte[] {0x28, (byte) 0xB5, 0x2F, (byte) 0xFD, 0});
+    assertEquals(Compression.ZSTD, Compression.ofContent(zstd));
+    assertEquals(Compression.ZSTD, Compression.ofName("ARCHIVE.ZST"));
+    try {
+      Compression.openInput(zstd).close();
+      fail("Opened zstd input");
+    } catch (IOException e) {
+      assertEquals("zstd compression is not supported, use gzip", e.getMessage());
+    }
+    try {
+      Compression.openOutput(directory.resolve("output.zst").toFile()).close();
+      fail("Opened zstd output");
+    } catch (IOException e) {
+      assertEquals("zstd compression is not supported, use gzip", e.getMessage());
+    }
+  }
+}
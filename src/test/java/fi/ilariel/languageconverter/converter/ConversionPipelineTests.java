@@ -0,0 +1,81 @@
+package fi.ilariel.languageconverter.converter;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.Locale;
+
+import org.junit.Test;
+
+import fi.ilariel.languageconverter.morse.MorseConverter;
+import fi.ilariel.languageconverter.morse.MorseConverterProvider;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+
+public class ConversionPipelineTests {
+
+  private static final ConverterProvider ENCODE = new MorseConverterProvider(MorseConverter.Mode.TEXT_TO_MORSE);
+  private static final ConverterProvider DECODE = new MorseConverterProvider(MorseConverter.Mode.MORSE_TO_TEXT);
+
+  private static String convert(ConversionPipeline.Builder builder, String input)
+      throws ConversionException, IOException {
+    StringWriter writer = new StringWriter();
+    try (ConversionPipeline pipeline = builder.build(new StringReader(input), writer)) {
+      pipeline.convert();
+    }
+    return writer.toString();
+  }
+
+  private static String text() {
+    StringBuilder text = new StringBuilder();
+    while (text.length() < 100_000) {
+      text.append("the quick brown fox jumps over the lazy dog 1234567890, me@mail.com? a/b. ");
+    }
+    return text.toString();
+  }
+
+  @Test
+  public void roundTripUppercases()
+      throws ConversionException, IOException {
+    String text = text();
+    //A buffer smaller than a symbol makes the stages wait for each other all the time
+    ConversionPipeline.Builder roundTrip = ConversionPipeline.builder().then(ENCODE::newConverter)
+        .then(DECODE::newConverter).bufferSize(3);
+    assertEquals(text.toUpperCase(Locale.ROOT), convert(roundTrip, text));
+  }
+
+  @Test
+  public void pipelinesAreStages()
+      throws ConversionException, IOException {
+    String text = text();
+    ConversionPipeline.Builder roundTrip = ConversionPipeline.builder().then(ENCODE::newConverter)
+        .then(DECODE::newConverter).bufferSize(1000);
+    ConversionPipeline.Builder nested = ConversionPipeline.builder()
+        .then((reader, writer) -> roundTrip.build(reader, writer)).then(ENCODE::newConverter);
+    assertEquals(convert(ConversionPipeline.builder().then(ENCODE::newConverter), text), convert(nested, text));
+  }
+
+  @Test
+  public void failingStageIsReported()
+      throws IOException {
+    ConversionPipeline.Builder roundTrip = ConversionPipeline.builder().then(ENCODE::newConverter)
+        .then(DECODE::newConverter).bufferSize(16);
+    try {
+      convert(roundTrip, text() + "ø");
+      fail("Converted an unsupported character");
+    } catch (ConversionException e) {
+      assertEquals("Conversion for øis not supported", e.getMessage());
+    }
+
+    ConversionPipeline.Builder decodeFirst = ConversionPipeline.builder().then(DECODE::newConverter)
+        .then(ENCODE::newConverter).bufferSize(16);
+    try {
+      convert(decodeFirst, "•••.−−−.•••.−−−−−−−−−.•••");
+      fail("Decoded an invalid symbol");
+    } catch (ConversionException e) {
+      assertEquals("−−−−−−−−− is not a valid Morse code sequence", e.getMessage());
+    }
+  }
+}
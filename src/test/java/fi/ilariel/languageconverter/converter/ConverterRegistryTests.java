@@ -0,0 +1,62 @@
+package fi.ilariel.languageconverter.converter;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import fi.ilariel.languageconverter.morse.MorseConverter;
+import fi.ilariel.languageconverter.morse.MorseConverterProvider;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+
+public class ConverterRegistryTests {
+
+  @Test
+  public void servicesAreFoundByName()
+      throws ConversionException, IOException {
+    ConverterRegistry registry = new ConverterRegistry();
+    StringWriter morse = new StringWriter();
+    try (LanguageConverter converter = registry.get(MorseConverterProvider.ENCODE).newConverter(
+        new StringReader("sos"), morse)) {
+      converter.convert();
+    }
+    assertEquals("•••.−−−.•••", morse.toString());
+    assertNull(registry.get("klingon"));
+
+    List<String> names = new ArrayList<>();
+    for (ConverterProvider provider : registry.getProviders()) {
+      names.add(provider.getName());
+    }
+    assertEquals(MorseConverterProvider.ENCODE, names.get(0));
+    assertEquals(MorseConverterProvider.DECODE, names.get(1));
+  }
+
+  @Test
+  public void registeredProvidersWinOverServices() {
+    MorseConverterProvider decoder = new MorseConverterProvider(MorseConverter.Mode.MORSE_TO_TEXT);
+    ConverterRegistry registry = new ConverterRegistry().register(decoder);
+    assertSame(decoder, registry.get(MorseConverterProvider.DECODE));
+    assertSame(decoder, registry.getProviders().get(0));
+    assertEquals(2, registry.getProviders().size());
+  }
+
+  @Test
+  public void namesAreUnique() {
+    ConverterRegistry registry = new ConverterRegistry()
+        .register(new MorseConverterProvider(MorseConverter.Mode.TEXT_TO_MORSE));
+    try {
+      registry.register(new MorseConverterProvider.Encoder());
+      fail("Registered two converters with the same name");
+    } catch (IllegalArgumentException e) {
+      assertEquals("Converter \"morse-encode\" is already registered", e.getMessage());
+    }
+  }
+}
@@ -0,0 +1,108 @@
+package fi.ilariel.languageconverter.metrics;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+
+import fi.ilariel.languageconverter.converter.ConversionException;
+import fi.ilariel.languageconverter.converter.LanguageConverter;
+import fi.ilariel.languageconverter.morse.DecodeErrorPolicy;
+import fi.ilariel.languageconverter.morse.MorseByteConverter;
+import fi.ilariel.languageconverter.morse.MorseConverter;
+import fi.ilariel.languageconverter.morse.ParallelMorseConverter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+
+public class ConverterMetricsTests {
+
+  private static final String MORSE = "•••.−−−.•••\n −•−•.−−•−";
+
+  private static void convert(LanguageConverter converter, ConverterMetrics metrics)
+      throws ConversionException, IOException {
+    converter.setMetricsListener(metrics);
+    try (LanguageConverter c = converter) {
+      c.convert();
+    }
+  }
+
+  @Test
+  public void histogramPercentiles() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    for (int i = 1; i <= 100; i++) {
+      histogram.record(i * 1000);
+    }
+    assertEquals(100, histogram.getCount());
+    assertEquals(50500, histogram.getMean());
+    assertEquals(100000, histogram.getMax());
+    //Percentiles are bucket upper bounds, within a factor of two
+    long median = histogram.getPercentile(0.5);
+    assertTrue(median >= 50000 && median < 100000);
+    assertEquals(100000, histogram.getPercentile(0.99));
+    histogram.reset();
+    assertEquals(0, histogram.getPercentile(0.5));
+  }
+
+  @Test
+  public void decodeCounts()
+      throws ConversionException, IOException {
+    ConverterMetrics metrics = new ConverterMetrics();
+    StringWriter writer = new StringWriter();
+    convert(new MorseConverter(new BufferedReader(new StringReader(MORSE + ".−−−−−−−..•")), writer,
+        MorseConverter.Mode.MORSE_TO_TEXT, DecodeErrorPolicy.replace('?')), metrics);
+
+    assertEquals("SOS CQ?E", writer.toString());
+    assertEquals(1, metrics.getConversions());
+    assertEquals(0, metrics.getFailedConversions());
+    assertEquals(MORSE.length() + 11, metrics.getInputUnits());
+    assertEquals(8, metrics.getOutputUnits());
+    assertEquals(7, metrics.getSymbolsDecoded());
+    assertEquals(1, metrics.getInvalidSequences());
+    assertEquals(1, metrics.getRepeatedDelimiters());
+    assertTrue(metrics.getChunkLatency().getCount() > 0);
+  }
+
+  @Test
+  public void failedEncodeIsCounted()
+      throws IOException {
+    ConverterMetrics metrics = new ConverterMetrics();
+    try {
+      convert(new MorseConverter(new BufferedReader(new StringReader("sos ä")), new StringWriter(),
+          MorseConverter.Mode.TEXT_TO_MORSE), metrics);
+      fail("Expected a ConversionException from unsupported input");
+    } catch (ConversionException e) {
+      assertEquals(1, metrics.getFailedConversions());
+      assertEquals(1, metrics.getUnsupportedCharacters());
+    }
+  }
+
+  @Test
+  public void bytesAndParallelConvertersReport()
+      throws ConversionException, IOException {
+    ConverterMetrics metrics = new ConverterMetrics();
+    byte[] morse = MORSE.getBytes(StandardCharsets.UTF_8);
+    try (MorseByteConverter converter = new MorseByteConverter(new ByteArrayInputStream(morse),
+        new ByteArrayOutputStream(), MorseConverter.Mode.MORSE_TO_TEXT)) {
+      converter.setMetricsListener(metrics);
+      converter.convert();
+    }
+    assertEquals(morse.length, metrics.getInputUnits());
+    assertEquals(5, metrics.getSymbolsDecoded());
+
+    metrics.reset();
+    convert(new ParallelMorseConverter(new StringReader(MORSE), new StringWriter(), MorseConverter.Mode.MORSE_TO_TEXT,
+        2), metrics);
+    assertEquals(MORSE.length(), metrics.getInputUnits());
+    assertEquals(6, metrics.getOutputUnits());
+    assertEquals(5, metrics.getSymbolsDecoded());
+    assertEquals(1, metrics.getConversions());
+  }
+}
@@ -0,0 +1,91 @@
+package fi.ilariel.languageconverter.morse;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+
+import fi.ilariel.languageconverter.converter.ConversionException;
+
+import static fi.ilariel.languageconverter.morse.MorseFixtures.TEXT;
+import static fi.ilariel.languageconverter.morse.MorseFixtures.oneShot;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+
+public class BinaryMorseTests {
+
+  private static byte[] pack(String morse, int blockSize)
+      throws IOException {
+    ByteArrayOutputStream binary = new ByteArrayOutputStream();
+    try (BinaryMorseWriter writer = new BinaryMorseWriter(binary, blockSize)) {
+      writer.write(morse);
+    }
+    return binary.toByteArray();
+  }
+
+  private static String unpack(byte[] binary)
+      throws IOException {
+    StringWriter writer = new StringWriter();
+    BinaryMorse.unpack(new ByteArrayInputStream(binary), writer);
+    return writer.toString();
+  }
+
+  @Test
+  public void encodedTextRoundTrips()
+      throws ConversionException, IOException {
+    String morse = oneShot(TEXT, MorseConverter.Mode.TEXT_TO_MORSE);
+    for (int blockSize = 1; blockSize < 100; blockSize += 7) {
+      assertEquals(morse, unpack(pack(morse, blockSize)));
+    }
+  }
+
+  @Test
+  public void anyCharactersRoundTrip()
+      throws IOException {
+    String morse = "••\n•.−−−−−−−−−−−−..\r\n. •x−−\r••ä \n\n.";
+    for (int blockSize = 1; blockSize < 10; blockSize++) {
+      assertEquals(morse, unpack(pack(morse, blockSize)));
+    }
+  }
+
+  @Test
+  public void decodesThroughConverter()
+      throws ConversionException, IOException {
+    ByteArrayOutputStream binary = new ByteArrayOutputStream();
+    try (MorseConverter converter = new MorseConverter(new BufferedReader(new StringReader(TEXT)),
+        new BinaryMorseWriter(binary, 16), MorseConverter.Mode.TEXT_TO_MORSE)) {
+      converter.convert();
+    }
+
+    StringWriter writer = new StringWriter();
+    try (MorseConverter converter = new MorseConverter(new BufferedReader(new BinaryMorseReader(
+        new ByteArrayInputStream(binary.toByteArray()))), writer, MorseConverter.Mode.MORSE_TO_TEXT)) {
+      converter.convert();
+    }
+    assertEquals("CQ CQ DE OH2XXTHE QUICK BROWN FOX, JUMPS OVER THE LAZY DOG?ME@MAIL.COM 1/2", writer.toString());
+  }
+
+  @Test
+  public void packsAnOrderOfMagnitudeSmaller()
+      throws ConversionException, IOException {
+    StringBuilder text = new StringBuilder();
+    for (int i = 0; i < 1000; i++) {
+      text.append(TEXT);
+    }
+    String morse = oneShot(text.toString(), MorseConverter.Mode.TEXT_TO_MORSE);
+    byte[] binary = pack(morse, 4096);
+    assertTrue(morse.getBytes(StandardCharsets.UTF_8).length >= 10 * binary.length);
+  }
+
+  @Test(expected = IOException.class)
+  public void rejectsOtherFiles()
+      throws IOException {
+    new BinaryMorseReader(new ByteArrayInputStream("•••.−−−.•••".getBytes(StandardCharsets.UTF_8)));
+  }
+}
@@ -0,0 +1,158 @@
+package fi.ilariel.languageconverter.morse;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+
+import fi.ilariel.languageconverter.converter.ConversionException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+
+public class DecodeErrorPolicyTests {
+
+  //"SOS" on the first line, an invalid sequence at offset 13 and a repeated delimiter at offset 23 on the second
+  private static final String MORSE = "•••.−−−.•••\n.•••••••.−..•\n";
+
+  private static String decode(String morse, DecodeErrorPolicy errorPolicy)
+      throws ConversionException, IOException {
+    StringWriter writer = new StringWriter();
+    try (MorseConverter converter = new MorseConverter(new BufferedReader(new StringReader(morse)), writer,
+        MorseConverter.Mode.MORSE_TO_TEXT, errorPolicy)) {
+      converter.convert();
+    }
+    return writer.toString();
+  }
+
+  private static String decodeBytes(String morse, DecodeErrorPolicy errorPolicy)
+      throws ConversionException, IOException {
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    try (MorseByteConverter converter = new MorseByteConverter(
+        new ByteArrayInputStream(morse.getBytes(StandardCharsets.UTF_8)), output, MorseConverter.Mode.MORSE_TO_TEXT,
+        errorPolicy)) {
+      converter.convert();
+    }
+    return new String(output.toByteArray(), StandardCharsets.UTF_8);
+  }
+
+  @Test
+  public void failFastReportsPosition()
+      throws IOException {
+    try {
+      decode(MORSE, DecodeErrorPolicy.failFast());
+      fail("Expected a ConversionException from an invalid sequence");
+    } catch (ConversionException e) {
+      assertEquals("••••••• is not a valid Morse code sequence", e.getMessage());
+      assertEquals(13, e.getOffset());
+      assertEquals(2, e.getLine());
+    }
+  }
+
+  @Test
+  public void failFastReportsDelimiterPosition()
+      throws IOException {
+    try {
+      decode("•••\n\n−−−..•••", DecodeErrorPolicy.failFast());
+      fail("Expected a ConversionException from consecutive delimiters");
+    } catch (ConversionException e) {
+      assertEquals(MorseConverter.MORSE_DELIMIT_EXCEPTION_MESSAGE, e.getMessage());
+      assertEquals(9, e.getOffset());
+      assertEquals(3, e.getLine());
+    }
+  }
+
+  @Test
+  public void replaceKeepsGoing()
+      throws ConversionException, IOException {
+    DecodeErrorPolicy errorPolicy = DecodeErrorPolicy.replace('?');
+    assertEquals("SOS?TE", decode(MORSE, errorPolicy));
+    assertEquals(2, errorPolicy.getErrorCount());
+    assertEquals(0, errorPolicy.getErrors().size());
+  }
+
+  @Test
+  public void collectReportsFirstErrors()
+      throws ConversionException, IOException {
+    DecodeErrorPolicy errorPolicy = DecodeErrorPolicy.collect('?', 1);
+    assertEquals("SOS?TE", decode(MORSE, errorPolicy));
+    assertEquals(2, errorPolicy.getErrorCount());
+    assertEquals(1, errorPolicy.getErrors().size());
+
+    DecodeError error = errorPolicy.getErrors().get(0);
+    assertEquals(DecodeError.Type.INVALID_SEQUENCE, error.getType());
+    assertEquals("•••••••", error.getSequence());
+    assertEquals(13, error.getOffset());
+    assertEquals(2, error.getLine());
+  }
+
+  @Test
+  public void bytePositionsMatchUtf8Input()
+      throws ConversionException, IOException {
+    DecodeErrorPolicy errorPolicy = DecodeErrorPolicy.collect('?', 10);
+    assertEquals("SOS?TE", decodeBytes(MORSE, errorPolicy));
+    assertEquals(2, errorPolicy.getErrors().size());
+
+    //Dits and dahs take three bytes each
+    DecodeError error = errorPolicy.getErrors().get(1);
+    assertEquals(DecodeError.Type.REPEATED_DELIMITER, error.getType());
+    assertEquals(MORSE.substring(0, 23).getBytes(StandardCharsets.UTF_8).length, error.getOffset());
+    assertEquals(2, error.getLine());
+  }
+
+  @Test
+  public void correctWritesNearestLetter()
+      throws ConversionException, IOException {
+    //Seven dits are two edits from 5 and three from H, H is so much more common that weighting prefers it
+    assertEquals("SOS5TE", decode(MORSE, DecodeErrorPolicy.correct(false, 0)));
+    DecodeErrorPolicy errorPolicy = DecodeErrorPolicy.correct(true, 10);
+    assertEquals("SOSHTE", decode(MORSE, errorPolicy));
+    assertEquals(2, errorPolicy.getErrorCount());
+    assertEquals(1, errorPolicy.getCorrectedCount());
+
+    DecodeError error = errorPolicy.getErrors().get(0);
+    assertEquals(DecodeError.Type.CORRECTED_SEQUENCE, error.getType());
+    assertEquals("•••••••", error.getSequence());
+    assertEquals('H', error.getCorrection());
+    assertEquals(13, error.getOffset());
+    assertEquals(errorPolicy.getMeanConfidence(), error.getConfidence(), 0);
+    assertEquals("SOSHTE", decodeBytes(MORSE, DecodeErrorPolicy.correct(true, 0)));
+  }
+
+  @Test
+  public void correctionConfidence()
+      throws ConversionException, IOException {
+    //Four dahs are one edit from O, Q, 9 and 0, and O is by far the most common of them
+    DecodeErrorPolicy errorPolicy = DecodeErrorPolicy.correct(true, 10);
+    assertEquals("SOS", decode("•••.−−−−.•••", errorPolicy));
+    assertEquals('O', errorPolicy.getErrors().get(0).getCorrection());
+    assertEquals(0.57, errorPolicy.getMeanConfidence(), 0.01);
+    assertEquals(1, DecodeErrorPolicy.correct(true, 0).getMeanConfidence(), 0);
+  }
+
+  @Test
+  public void parallelPositionsCoverWholeInput()
+      throws IOException {
+    StringBuilder morse = new StringBuilder();
+    for (int i = 0; i < 100; i++) {
+      morse.append("•••.−−−.•••\n ");
+    }
+    int offset = morse.length();
+    morse.append("•−•−•−•−");
+    StringWriter writer = new StringWriter();
+    try (ParallelMorseConverter converter = new ParallelMorseConverter(new StringReader(morse.toString()), writer,
+        MorseConverter.Mode.MORSE_TO_TEXT, 4, 64)) {
+      converter.convert();
+      fail("Expected a ConversionException from an invalid sequence");
+    } catch (ConversionException e) {
+      assertEquals(offset, e.getOffset());
+      assertEquals(101, e.getLine());
+    }
+  }
+}
@@ -0,0 +1,73 @@
+package fi.ilariel.languageconverter.morse;
+
+import java.io.StringWriter;
+
+import org.junit.Test;
+
+import fi.ilariel.languageconverter.converter.ConversionException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+
+public class IncrementalMorseTests {
+
+  /**
+   * Feeds the input in fragments of the given size, flushing after every fragment
+   */
+  private static String fed(String input, MorseConverter.Mode mode, int fragmentSize)
+      throws ConversionException {
+    StringWriter writer = new StringWriter();
+    IncrementalMorseConverter converter = new IncrementalMorseConverter(writer, mode);
+    for (int i = 0; i < input.length(); i += fragmentSize) {
+      converter.feed(input.subSequence(i, Math.min(input.length(), i + fragmentSize)));
+      converter.flush();
+    }
+    converter.finish();
+    return writer.toString();
+  }
+
+  @Test
+  public void matchesOneShot()
+      throws Exception {
+    MorseFixtures.assertMatchesOneShot(IncrementalMorseTests::fed, 1);
+  }
+
+  @Test
+  public void flushKeepsPendingSymbol()
+      throws ConversionException {
+    StringWriter writer = new StringWriter();
+    IncrementalMorseConverter converter = new IncrementalMorseConverter(writer, MorseConverter.Mode.MORSE_TO_TEXT);
+    converter.feed("•••.−−".toCharArray());
+    converter.flush();
+    assertEquals("S", writer.toString());
+    converter.feed("−.••");
+    converter.flush();
+    assertEquals("SO", writer.toString());
+    converter.finish();
+    assertEquals("SOI", writer.toString());
+  }
+
+  @Test
+  public void finishReportsPendingInvalidSymbol() {
+    IncrementalMorseConverter converter = new IncrementalMorseConverter(new StringWriter(),
+        MorseConverter.Mode.MORSE_TO_TEXT);
+    try {
+      converter.feed("•••.−−−−−−");
+      converter.finish();
+      fail("Expected a ConversionException from an invalid sequence");
+    } catch (ConversionException e) {
+      assertEquals("−−−−−− is not a valid Morse code sequence", e.getMessage());
+      assertEquals(4, e.getOffset());
+    }
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void feedAfterFinish()
+      throws ConversionException {
+    IncrementalMorseConverter converter = new IncrementalMorseConverter(new StringWriter(),
+        MorseConverter.Mode.TEXT_TO_MORSE);
+    converter.finish();
+    converter.feed("sos");
+  }
+}
@@ -0,0 +1,104 @@
+package fi.ilariel.languageconverter.morse;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+
+import fi.ilariel.languageconverter.converter.ConversionException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+
+public class MorseAlphabetTests {
+
+  private static final String CYRILLIC = "А .-\nБ -...\nВ .--\nГ --.\nД -..\nЕ .\nИ ..\nК -.-\nЛ .-..\nМ --\n"
+      + "Н -.\nО ---\nП .--.\nР .-.\nС ...\nТ -\nУ ..-\nЯ .-.-\n";
+
+  private static String convert(String input, MorseConverter.Mode mode, MorseAlphabet alphabet)
+      throws ConversionException, IOException {
+    StringWriter writer = new StringWriter();
+    try (MorseConverter converter = new MorseConverter(new BufferedReader(new StringReader(input)), writer, mode,
+        DecodeErrorPolicy.failFast(), alphabet)) {
+      converter.convert();
+    }
+    return writer.toString();
+  }
+
+  private static String convertBytes(String input, MorseConverter.Mode mode, MorseAlphabet alphabet)
+      throws ConversionException, IOException {
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    try (MorseByteConverter converter = new MorseByteConverter(
+        new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)), output, mode, DecodeErrorPolicy.failFast(),
+        alphabet)) {
+      converter.convert();
+    }
+    return new String(output.toByteArray(), StandardCharsets.UTF_8);
+  }
+
+  private static void assertInvalid(String alphabet, String message) {
+    try {
+      MorseAlphabet.load(new StringReader(alphabet));
+      fail("Accepted " + alphabet);
+    } catch (IOException e) {
+      assertTrue(e.getMessage(), e.getMessage().contains(message));
+    }
+  }
+
+  @Test
+  public void ituPunctuationRoundTrips()
+      throws ConversionException, IOException {
+    MorseAlphabet itu = MorseAlphabet.itu();
+    String text = "SAY \"HI\" (OK) = 1+1; A-B: $5 & 'X'_Y!";
+    String morse = convert(text, MorseConverter.Mode.TEXT_TO_MORSE, itu);
+    assertEquals("•••−••−", convert("$", MorseConverter.Mode.TEXT_TO_MORSE, itu));
+    assertEquals(text, convert(morse, MorseConverter.Mode.MORSE_TO_TEXT, itu));
+    assertEquals(morse, convertBytes(text, MorseConverter.Mode.TEXT_TO_MORSE, itu));
+    assertEquals(text, convertBytes(morse, MorseConverter.Mode.MORSE_TO_TEXT, itu));
+  }
+
+  @Test
+  public void defaultAlphabetIsUnchanged()
+      throws ConversionException, IOException {
+    assertEquals(convert("SOS 72", MorseConverter.Mode.TEXT_TO_MORSE, MorseAlphabet.DEFAULT),
+        convert("SOS 72", MorseConverter.Mode.TEXT_TO_MORSE, MorseAlphabet.itu()));
+    try {
+      convert("$", MorseConverter.Mode.TEXT_TO_MORSE, MorseAlphabet.DEFAULT);
+      fail("Default alphabet has no $");
+    } catch (ConversionException e) {
+      assertEquals("Conversion for $is not supported", e.getMessage());
+    }
+  }
+
+  @Test
+  public void nonLatinAlphabetRoundTrips()
+      throws ConversionException, IOException {
+    MorseAlphabet cyrillic = MorseAlphabet.load(new StringReader(CYRILLIC));
+    String text = "ПРИВЕТ МАМА Я ТУТ";
+    String morse = convert(text, MorseConverter.Mode.TEXT_TO_MORSE, cyrillic);
+    assertEquals(morse, convert("привет мама я тут", MorseConverter.Mode.TEXT_TO_MORSE, cyrillic));
+    assertEquals(text, convert(morse, MorseConverter.Mode.MORSE_TO_TEXT, cyrillic));
+    assertEquals(morse, convertBytes(text, MorseConverter.Mode.TEXT_TO_MORSE, cyrillic));
+    assertEquals(text, convertBytes(morse, MorseConverter.Mode.MORSE_TO_TEXT, cyrillic));
+    MorseCodec codec = new MorseCodec(cyrillic);
+    assertEquals(text, codec.decode(codec.encode(text)));
+  }
+
+  @Test
+  public void invalidAlphabetsAreRejected() {
+    assertInvalid("A .-\nB .-\n", "A and B have the same symbol");
+    assertInvalid("A .-\nA -...\n", "A is defined twice");
+    assertInvalid("U+0020 .-\n", "Line 1: U+0020 can't be a letter");
+    assertInvalid("A .-\n\n# comment\nB .x.\n", "Line 4: Symbol of B has x");
+    assertInvalid("A .-.-.-.-.-.-.\n", "must have 1−12 elements");
+    assertInvalid("AB .-\n", "AB is not a single character");
+    assertInvalid("# nothing\n", "Alphabet has no letters");
+  }
+}
@@ -0,0 +1,172 @@
+package fi.ilariel.languageconverter.morse;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+import fi.ilariel.languageconverter.converter.ConversionException;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+
+public class MorseAudioTests {
+
+  private static final String TEXT = "CQ CQ DE OH2XX THE QUICK BROWN FOX, JUMPS OVER THE LAZY DOG? ME@MAIL.COM 1/2";
+
+  private static byte[] render(String text, MorseAudioFormat format)
+      throws ConversionException, IOException {
+    ByteArrayOutputStream wav = new ByteArrayOutputStream();
+    try (MorseConverter converter = new MorseConverter(new BufferedReader(new StringReader(text)),
+        new MorseAudioWriter(wav, format), MorseConverter.Mode.TEXT_TO_MORSE)) {
+      converter.convert();
+    }
+    return wav.toByteArray();
+  }
+
+  private static String decode(byte[] wav, int frequency)
+      throws ConversionException, IOException {
+    StringWriter text = new StringWriter();
+    try (MorseConverter converter = new MorseConverter(new BufferedReader(new MorseAudioReader(
+        new ByteArrayInputStream(wav), frequency)), text, MorseConverter.Mode.MORSE_TO_TEXT)) {
+      converter.convert();
+    }
+    return text.toString();
+  }
+
+  /**
+   * Adds white noise of the given deviation to 16-bit samples
+   */
+  private static byte[] addNoise(byte[] wav, double deviation) {
+    Random random = new Random(1);
+    ByteBuffer samples = ByteBuffer.wrap(wav).order(ByteOrder.LITTLE_ENDIAN);
+    for (int i = MorseAudioWriter.HEADER_SIZE; i < wav.length; i += MorseAudioWriter.BYTES_PER_SAMPLE) {
+      double sample = samples.getShort(i) + random.nextGaussian() * deviation * Short.MAX_VALUE;
+      samples.putShort(i, (short) Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, sample)));
+    }
+    return wav;
+  }
+
+  private static double seconds(String text, MorseAudioFormat format)
+      throws ConversionException, IOException {
+    int bytes = render(text, format).length - MorseAudioWriter.HEADER_SIZE;
+    return (double) bytes / MorseAudioWriter.BYTES_PER_SAMPLE / format.getSampleRate();
+  }
+
+  @Test
+  public void parisTiming()
+      throws ConversionException, IOException {
+    //A word of PARIS with its word gap takes a minute divided by the speed
+    MorseAudioFormat format = MorseAudioFormat.builder().wpm(20).sampleRate(8000).build();
+    assertEquals(3.0, seconds("PARIS PARIS", format) - seconds("PARIS", format), 0.001);
+    //PARIS has 43 dits without the word gap
+    assertEquals(43 * 0.06, seconds("PARIS", format), 0.001);
+  }
+
+  @Test
+  public void farnsworthTiming()
+      throws ConversionException, IOException {
+    MorseAudioFormat format = MorseAudioFormat.builder().wpm(20).farnsworth(10).sampleRate(8000).build();
+    assertEquals(6.0, seconds("PARIS PARIS", format) - seconds("PARIS", format), 0.001);
+    //Characters themselves are sent at full speed
+    assertEquals(seconds("E", MorseAudioFormat.builder().wpm(20).sampleRate(8000).build()), seconds("E", format),
+        0.0);
+  }
+
+  @Test
+  public void fileHeaderHasLength()
+      throws ConversionException, IOException {
+    MorseAudioFormat format = MorseAudioFormat.builder().wpm(25).frequency(700).sampleRate(22050).build();
+    byte[] stream = render("CQ DE OH2XX", format);
+    ByteBuffer header = ByteBuffer.wrap(stream).order(ByteOrder.LITTLE_ENDIAN);
+    assertEquals(0xFFFFFFFF, header.getInt(40));
+    assertEquals(22050, header.getInt(24));
+
+    Path file = Files.createTempFile("morse", ".wav");
+    try {
+      try (MorseAudioWriter writer = new MorseAudioWriter(file, format)) {
+        writer.write(new String(MorseCodec.INSTANCE.encode("CQ DE OH2XX")));
+      }
+      byte[] wav = Files.readAllBytes(file);
+      ByteBuffer fileHeader = ByteBuffer.wrap(wav).order(ByteOrder.LITTLE_ENDIAN);
+      assertEquals(wav.length - 8, fileHeader.getInt(4));
+      assertEquals(wav.length - MorseAudioWriter.HEADER_SIZE, fileHeader.getInt(40));
+      assertArrayEquals(Arrays.copyOfRange(stream, MorseAudioWriter.HEADER_SIZE, stream.length),
+          Arrays.copyOfRange(wav, MorseAudioWriter.HEADER_SIZE, wav.length));
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+  @Test
+  public void tonesStartAndEndSilent()
+      throws ConversionException, IOException {
+    MorseAudioFormat format = MorseAudioFormat.builder().sampleRate(8000).build();
+    ByteBuffer samples = ByteBuffer.wrap(render("T", format)).order(ByteOrder.LITTLE_ENDIAN);
+    int last = samples.limit() - MorseAudioWriter.BYTES_PER_SAMPLE;
+    assertEquals(0, samples.getShort(MorseAudioWriter.HEADER_SIZE));
+    assertTrue(Math.abs(samples.getShort(last)) < 100);
+  }
+
+  @Test
+  public void renderedAudioDecodes()
+      throws ConversionException, IOException {
+    MorseAudioFormat[] formats = {
+        MorseAudioFormat.builder().build(),
+        MorseAudioFormat.builder().wpm(5).frequency(500).sampleRate(8000).build(),
+        MorseAudioFormat.builder().wpm(40).frequency(900).sampleRate(11025).build(),
+        MorseAudioFormat.builder().wpm(25).farnsworth(10).frequency(700).sampleRate(22050).build()};
+    for (MorseAudioFormat format : formats) {
+      assertEquals(format.toString(), TEXT, decode(render(TEXT, format), 0));
+    }
+  }
+
+  @Test
+  public void noisyAudioDecodes()
+      throws ConversionException, IOException {
+    MorseAudioFormat format = MorseAudioFormat.builder().wpm(18).frequency(650).sampleRate(16000).build();
+    byte[] wav = addNoise(render(TEXT, format), 0.3);
+    assertEquals(TEXT, decode(wav, 0));
+    assertEquals(TEXT, decode(wav, 650));
+  }
+
+  @Test
+  public void notWavIsRejected() {
+    try {
+      new MorseAudioReader(new ByteArrayInputStream("•••.−−−.•••".getBytes(StandardCharsets.UTF_8)));
+      fail("Accepted Morse code as audio");
+    } catch (IOException e) {
+      assertEquals("Not a WAV file", e.getMessage());
+    }
+  }
+
+  @Test
+  public void invalidFormatsAreRejected() {
+    try {
+      MorseAudioFormat.builder().wpm(20).farnsworth(25).build();
+      fail("Farnsworth speed above character speed");
+    } catch (IllegalArgumentException e) {
+      assertTrue(e.getMessage().startsWith("Farnsworth speed 25"));
+    }
+    try {
+      MorseAudioFormat.builder().frequency(5000).sampleRate(8000).build();
+      fail("Tone above Nyquist frequency");
+    } catch (IllegalArgumentException e) {
+      assertTrue(e.getMessage().startsWith("Tone 5000 Hz"));
+    }
+  }
+}
@@ -0,0 +1,147 @@
+package fi.ilariel.languageconverter.morse;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+import fi.ilariel.languageconverter.converter.ConversionException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+
+public class MorseCodecTests {
+
+  private static final String SOS_MORSE = "•••.−−−.•••";
+
+  private final MorseCodec codec = MorseCodec.INSTANCE;
+
+  @Test
+  public void encodeAndDecode()
+      throws ConversionException {
+    assertEquals(SOS_MORSE, codec.encode("sos"));
+    assertEquals("SOS", codec.decode(SOS_MORSE));
+    assertEquals("HELLO WORLD", codec.decode(codec.encode("hello\nworld".replace('\n', ' '))));
+  }
+
+  @Test
+  public void batches()
+      throws ConversionException {
+    List<String> morse = codec.encodeAll(Arrays.asList("sos", "me@mail.com", ""));
+    assertEquals(Arrays.asList(SOS_MORSE, "−−.•.•−−•−•.−−.•−.••.•−••.•−•−•−.−•−•.−−−.−−", ""), morse);
+    assertEquals(Arrays.asList("SOS", "ME@MAIL.COM", ""), codec.decodeAll(morse));
+  }
+
+  @Test
+  public void invalidSequence() {
+    try {
+      codec.decode("•••.••••••\n•");
+      fail("Expected a ConversionException from invalid input");
+    } catch (ConversionException e) {
+      assertEquals("••••••• is not a valid Morse code sequence", e.getMessage());
+    }
+  }
+
+  @Test
+  public void multipleDelimiters() {
+    try {
+      codec.decode("•••..−−−");
+      fail("Expected a ConversionException from invalid input");
+    } catch (ConversionException e) {
+      assertEquals(MorseConverter.MORSE_DELIMIT_EXCEPTION_MESSAGE, e.getMessage());
+    }
+  }
+
+  @Test
+  public void sharedBetweenThreads()
+      throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      List<Future<String>> results = new ArrayList<>();
+      for (int i = 0; i < 200; i++) {
+        String message = "message " + i;
+        results.add(executor.submit(() -> codec.decode(codec.encode(message))));
+      }
+      for (int i = 0; i < results.size(); i++) {
+        assertEquals("MESSAGE " + i, results.get(i).get());
+      }
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  public void cachedWordsMatchUncached()
+      throws ConversionException {
+    MorseWordCache cache = new MorseWordCache(1000, 1024 * 1024);
+    MorseCodec cached = new MorseCodec(MorseAlphabet.DEFAULT, cache);
+    String text = "cq cq  de oh2xx\n\r\nqth\nhelsinki cq de oh2xx ";
+    assertEquals(codec.encode(text), cached.encode(text));
+    assertEquals(codec.decode(codec.encode(text)), cached.decode(codec.encode(text)));
+    //Repeated words are hits already on the first round and every word is one on the second
+    long misses = cache.getMisses();
+    assertEquals(misses, cache.size());
+    assertTrue(cache.getHits() > 0);
+    assertEquals(codec.encode(text), cached.encode(text));
+    assertEquals(codec.decode(codec.encode(text)), cached.decode(codec.encode(text)));
+    assertEquals(misses, cache.getMisses());
+  }
+
+  @Test
+  public void cachedErrorsHavePositions() {
+    MorseCodec cached = new MorseCodec(MorseAlphabet.DEFAULT, new MorseWordCache(10, 10000));
+    try {
+      cached.decode("•••.−−−.•••.\n•••.−− •••..−−−");
+      fail("Expected a ConversionException from invalid input");
+    } catch (ConversionException e) {
+      assertEquals(MorseConverter.MORSE_DELIMIT_EXCEPTION_MESSAGE, e.getMessage());
+      assertEquals(24, e.getOffset());
+      assertEquals(2, e.getLine());
+    }
+    try {
+      cached.encode("sos\nsøs");
+      fail("Expected a ConversionException from unsupported input");
+    } catch (ConversionException e) {
+      assertEquals(5, e.getOffset());
+      assertEquals(2, e.getLine());
+    }
+  }
+
+  @Test
+  public void cacheStaysWithinLimits()
+      throws ConversionException {
+    MorseWordCache cache = new MorseWordCache(8, 100000, 2);
+    MorseCodec cached = new MorseCodec(MorseAlphabet.DEFAULT, cache);
+    for (int i = 0; i < 100; i++) {
+      cached.encode("word" + i);
+    }
+    assertEquals(8, cache.size());
+    assertEquals(92, cache.getEvictions());
+
+    MorseWordCache small = new MorseWordCache(1000, 1000, 1);
+    MorseCodec smallCached = new MorseCodec(MorseAlphabet.DEFAULT, small);
+    for (int i = 0; i < 100; i++) {
+      smallCached.encode("longer word number " + i);
+    }
+    assertTrue(small.getBytes() <= 1000);
+    assertTrue(small.getEvictions() > 0);
+  }
+
+  @Test
+  public void cacheBelongsToOneAlphabet() {
+    MorseWordCache cache = new MorseWordCache(10, 10000);
+    new MorseCodec(MorseAlphabet.DEFAULT, cache);
+    try {
+      new MorseCodec(MorseAlphabet.itu(), cache);
+      fail("Shared a cache between alphabets");
+    } catch (IllegalArgumentException e) {
+      assertEquals("Word cache is already used with another alphabet", e.getMessage());
+    }
+  }
+}
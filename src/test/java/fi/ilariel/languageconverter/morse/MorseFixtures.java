@@ -0,0 +1,57 @@
+package fi.ilariel.languageconverter.morse;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+
+import fi.ilariel.languageconverter.converter.ConversionException;
+
+import static org.junit.Assert.assertEquals;
+
+
+/**
+ * Text shared by the tests of the alternative conversion paths and the one-shot conversion they are compared with
+ */
+final class MorseFixtures {
+
+  //Lowercase letters, digits, punctuation and both line separators
+  static final String TEXT = "cq cq de oh2xx\nthe quick brown fox, jumps over the lazy dog?\r\n"
+      + "me@mail.com 1/2\n";
+
+  private MorseFixtures() {
+  }
+
+  /**
+   * Converts the input with {@link MorseConverter} in one go
+   */
+  static String oneShot(String input, MorseConverter.Mode mode)
+      throws ConversionException, IOException {
+    StringWriter writer = new StringWriter();
+    try (MorseConverter converter = new MorseConverter(new BufferedReader(new StringReader(input)), writer, mode)) {
+      converter.convert();
+    }
+    return writer.toString();
+  }
+
+  /**
+   * Asserts that converting {@link #TEXT} and its Morse code in chunks of 1 to 19 characters gives the one-shot result
+   * @param step how much the chunk size grows between conversions
+   */
+  static void assertMatchesOneShot(ChunkedConversion conversion, int step)
+      throws Exception {
+    String morse = oneShot(TEXT, MorseConverter.Mode.TEXT_TO_MORSE);
+    String text = oneShot(morse, MorseConverter.Mode.MORSE_TO_TEXT);
+    for (int chunkSize = 1; chunkSize < 20; chunkSize += step) {
+      assertEquals(morse, conversion.convert(TEXT, MorseConverter.Mode.TEXT_TO_MORSE, chunkSize));
+      assertEquals(text, conversion.convert(morse, MorseConverter.Mode.MORSE_TO_TEXT, chunkSize));
+    }
+  }
+
+  @FunctionalInterface
+  interface ChunkedConversion {
+
+    String convert(String input, MorseConverter.Mode mode, int chunkSize)
+        throws Exception;
+  }
+}
@@ -0,0 +1,171 @@
+package fi.ilariel.languageconverter.morse;
+
+import java.nio.CharBuffer;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.junit.Test;
+
+import fi.ilariel.languageconverter.converter.ConversionException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+
+public class MorseFlowTests {
+
+  /**
+   * Publishes the input in chunks on another thread and collects the output, requesting one chunk at a time
+   */
+  private static String published(String input, MorseConverter.Mode mode, int chunkSize)
+      throws InterruptedException, ExecutionException, TimeoutException {
+    MorseFlowProcessor processor = new MorseFlowProcessor(mode);
+    CollectingSubscriber subscriber = new CollectingSubscriber(1);
+    processor.subscribe(subscriber);
+    try (SubmissionPublisher<CharBuffer> publisher = new SubmissionPublisher<>()) {
+      publisher.subscribe(processor);
+      for (int i = 0; i < input.length(); i += chunkSize) {
+        publisher.submit(CharBuffer.wrap(input.toCharArray(), i, Math.min(chunkSize, input.length() - i)));
+      }
+    }
+    return subscriber.result.get(10, TimeUnit.SECONDS);
+  }
+
+  @Test
+  public void matchesOneShot()
+      throws Exception {
+    MorseFixtures.assertMatchesOneShot(MorseFlowTests::published, 3);
+  }
+
+  @Test
+  public void upstreamIsOnlyRequestedOnDemand() {
+    ListPublisher publisher = new ListPublisher(List.of("sos", " cq", " de"));
+    MorseFlowProcessor processor = new MorseFlowProcessor(MorseConverter.Mode.TEXT_TO_MORSE);
+    CollectingSubscriber subscriber = new CollectingSubscriber(0);
+    processor.subscribe(subscriber);
+    publisher.subscribe(processor);
+    assertEquals(0, publisher.requested);
+
+    subscriber.subscription.request(1);
+    assertEquals(1, publisher.requested);
+    assertEquals("•••.−−−.•••", subscriber.output.toString());
+
+    subscriber.subscription.request(5);
+    assertTrue(subscriber.result.isDone());
+    assertEquals(3, publisher.requested);
+  }
+
+  @Test
+  public void conversionErrorFollowsEarlierOutput()
+      throws InterruptedException {
+    ListPublisher publisher = new ListPublisher(List.of("•••.−−", "−.••••••••.•••"));
+    MorseFlowProcessor processor = new MorseFlowProcessor(MorseConverter.Mode.MORSE_TO_TEXT);
+    CollectingSubscriber subscriber = new CollectingSubscriber(Long.MAX_VALUE);
+    processor.subscribe(subscriber);
+    publisher.subscribe(processor);
+
+    assertEquals("S", subscriber.output.toString());
+    try {
+      subscriber.result.get();
+      fail("Expected a ConversionException from an invalid sequence");
+    } catch (ExecutionException e) {
+      assertTrue(e.getCause() instanceof ConversionException);
+      assertEquals(8, ((ConversionException) e.getCause()).getOffset());
+    }
+    assertTrue(publisher.cancelled);
+  }
+
+  @Test
+  public void secondSubscriberIsRejected() {
+    MorseFlowProcessor processor = new MorseFlowProcessor(MorseConverter.Mode.TEXT_TO_MORSE);
+    processor.subscribe(new CollectingSubscriber(1));
+    CollectingSubscriber second = new CollectingSubscriber(1);
+    processor.subscribe(second);
+    assertTrue(second.result.isCompletedExceptionally());
+  }
+
+  private static final class CollectingSubscriber implements Flow.Subscriber<CharBuffer> {
+
+    private final long batch;
+    private final StringBuilder output = new StringBuilder();
+    private final CompletableFuture<String> result = new CompletableFuture<>();
+    private Flow.Subscription subscription;
+
+    /**
+     * @param batch chunks requested on subscribe and after every chunk, 0 to request manually
+     */
+    CollectingSubscriber(long batch) {
+      this.batch = batch;
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+      this.subscription = subscription;
+      if (batch > 0) {
+        subscription.request(batch);
+      }
+    }
+
+    @Override
+    public void onNext(CharBuffer item) {
+      assertFalse(result.isDone());
+      output.append(item);
+      if (batch > 0 && batch < Long.MAX_VALUE) {
+        subscription.request(batch);
+      }
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+      result.completeExceptionally(throwable);
+    }
+
+    @Override
+    public void onComplete() {
+      result.complete(output.toString());
+    }
+  }
+
+  /**
+   * Emits the items synchronously on the requesting thread
+   */
+  private static final class ListPublisher implements Flow.Publisher<CharBuffer> {
+
+    private final List<String> items;
+    private int next;
+    private long requested;
+    private boolean cancelled;
+
+    ListPublisher(List<String> items) {
+      this.items = items;
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super CharBuffer> subscriber) {
+      subscriber.onSubscribe(new Flow.Subscription() {
+        @Override
+        public void request(long n) {
+          for (long i = 0; i < n && next < items.size() && !cancelled; i++) {
+            requested++;
+            subscriber.onNext(CharBuffer.wrap(items.get(next++)));
+          }
+          if (next == items.size() && !cancelled) {
+            subscriber.onComplete();
+          }
+        }
+
+        @Override
+        public void cancel() {
+          cancelled = true;
+        }
+      });
+    }
+  }
+}
@@ -0,0 +1,137 @@
+package fi.ilariel.languageconverter.morse;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import fi.ilariel.languageconverter.converter.ConversionException;
+
+import static fi.ilariel.languageconverter.morse.MorseFixtures.TEXT;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+
+public class MorseIndexTests {
+
+  private Path directory;
+  private Path morse;
+  private String decoded;
+
+  @Before
+  public void encode()
+      throws ConversionException, IOException {
+    directory = Files.createTempDirectory("index");
+    morse = directory.resolve("text.morse");
+    StringBuilder text = new StringBuilder();
+    for (int i = 0; i < 20; i++) {
+      text.append(TEXT);
+    }
+    try (MorseConverter converter = new MorseConverter(new BufferedReader(new StringReader(text.toString())),
+        new MorseIndexWriter(new OutputStreamWriter(Files.newOutputStream(morse), StandardCharsets.UTF_8),
+            MorseIndex.sidecarOf(morse), 50), MorseConverter.Mode.TEXT_TO_MORSE)) {
+      converter.convert();
+    }
+    StringWriter writer = new StringWriter();
+    try (MorseConverter converter = new MorseConverter(Files.newBufferedReader(morse), writer,
+        MorseConverter.Mode.MORSE_TO_TEXT)) {
+      converter.convert();
+    }
+    decoded = writer.toString();
+  }
+
+  @After
+  public void deleteFiles()
+      throws IOException {
+    for (Path file : Files.newDirectoryStream(directory)) {
+      Files.delete(file);
+    }
+    Files.delete(directory);
+  }
+
+  private static String range(MorseRangeDecoder decoder, long start, long end)
+      throws ConversionException {
+    StringWriter writer = new StringWriter();
+    decoder.decode(start, end, writer);
+    return writer.toString();
+  }
+
+  private void assertRanges(MorseRangeDecoder decoder)
+      throws ConversionException {
+    for (int start = 0; start < decoded.length(); start += 37) {
+      for (int length = 0; length < 120; length += 13) {
+        int end = Math.min(decoded.length(), start + length);
+        assertEquals(decoded.substring(start, end), range(decoder, start, start + length));
+      }
+    }
+  }
+
+  @Test
+  public void rangesMatchFullDecode()
+      throws ConversionException, IOException {
+    MorseIndex index = MorseIndex.open(morse);
+    assertTrue(index.size() > 20);
+    assertEquals(50, index.getInterval());
+    assertRanges(new MorseRangeDecoder(morse, index));
+  }
+
+  @Test
+  public void builtIndexMatchesWrittenIndex()
+      throws ConversionException, IOException {
+    MorseIndex built = MorseIndex.build(morse, 50);
+    assertEquals(MorseIndex.open(morse).size(), built.size());
+    assertRanges(new MorseRangeDecoder(morse, built));
+  }
+
+  @Test
+  public void binaryFilesUseTheirOwnIndex()
+      throws ConversionException, IOException {
+    Path binary = directory.resolve("text.bin");
+    try (BufferedReader reader = Files.newBufferedReader(morse)) {
+      BinaryMorse.pack(reader, Files.newOutputStream(binary));
+    }
+    MorseIndex index = MorseIndex.open(binary);
+    assertTrue(index.isBinary());
+    assertRanges(new MorseRangeDecoder(binary, index));
+  }
+
+  @Test
+  public void withoutIndexDecodesFromStart()
+      throws ConversionException, IOException {
+    Files.delete(MorseIndex.sidecarOf(morse));
+    MorseIndex index = MorseIndex.open(morse);
+    assertEquals(1, index.size());
+    assertEquals(decoded.substring(500, 510), range(new MorseRangeDecoder(morse, index), 500, 510));
+  }
+
+  @Test
+  public void errorsAfterRangeAreIgnored()
+      throws ConversionException, IOException {
+    Files.write(morse, "•••.−−−.•••.−−−−−−−".getBytes(StandardCharsets.UTF_8));
+    Files.delete(MorseIndex.sidecarOf(morse));
+    MorseRangeDecoder decoder = new MorseRangeDecoder(morse);
+    assertEquals("OS", range(decoder, 1, 3));
+    try {
+      range(decoder, 2, 4);
+      fail("Expected a ConversionException from an invalid sequence");
+    } catch (ConversionException e) {
+      assertEquals(30, e.getOffset());
+    }
+  }
+
+  @Test(expected = IOException.class)
+  public void staleIndexIsRejected()
+      throws IOException {
+    Files.write(morse, "•••".getBytes(StandardCharsets.UTF_8));
+    MorseIndex.open(morse);
+  }
+}
@@ -116,4 +116,34 @@ public class MorseTests {
   public void morseStringToEnglish() {
     doTest(SOS_ENGLISH_OUTPUT, SOS_MORSE, stringWriter, MorseConverter.Mode.MORSE_TO_TEXT);
   }
+
+  @Test
+  public void morseSymbolsStraddlingReads() {
+    String morse = "••••.•.•−••.•−••.−−−. .•−−.−−−.•−•.•−••.−••";
+    int[] reads = new int[1];
+    //Reader that hands out one character per read, so every symbol is split between reads. Not being ready stops
+    //BufferedReader from filling the rest of its read with further reads
+    Reader trickle = new StringReader(morse) {
+      @Override
+      public int read(char[] cbuf, int off, int len)
+          throws IOException {
+        reads[0]++;
+        return super.read(cbuf, off, Math.min(len, 1));
+      }
+
+      @Override
+      public boolean ready() {
+        return false;
+      }
+    };
+    doConvert(new BufferedReader(trickle), stringWriter, MorseConverter.Mode.MORSE_TO_TEXT);
+    assertEquals("HELLO WORLD", stringWriter.toString());
+    //One read per character and the one that finds the end
+    assertEquals(morse.length() + 1, reads[0]);
+  }
+
+  @Test
+  public void morseSymbolsContinueOverLineBreaks() {
+    doTest(SOS_ENGLISH_OUTPUT, "••\n•.−−−.\r\n•••", stringWriter, MorseConverter.Mode.MORSE_TO_TEXT);
+  }
 }
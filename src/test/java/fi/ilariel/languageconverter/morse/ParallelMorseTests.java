@@ -0,0 +1,96 @@
+package fi.ilariel.languageconverter.morse;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Test;
+
+import fi.ilariel.languageconverter.converter.ConversionException;
+import fi.ilariel.languageconverter.converter.LanguageConverter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+
+public class ParallelMorseTests {
+
+  private static String convert(LanguageConverter converter, StringWriter writer)
+      throws ConversionException, IOException {
+    try (LanguageConverter c = converter) {
+      c.convert();
+    }
+    return writer.toString();
+  }
+
+  private static String parallel(String input, MorseConverter.Mode mode, int chunkSize)
+      throws ConversionException, IOException {
+    StringWriter writer = new StringWriter();
+    return convert(new ParallelMorseConverter(new StringReader(input), writer, mode, 3, chunkSize), writer);
+  }
+
+  @Test
+  public void matchesSequential()
+      throws Exception {
+    MorseFixtures.assertMatchesOneShot(ParallelMorseTests::parallel, 1);
+  }
+
+  @Test
+  public void doubleDelimiterAcrossChunks()
+      throws IOException {
+    try {
+      parallel("•••.−−−.•••.•••..−−−", MorseConverter.Mode.MORSE_TO_TEXT, 16);
+      fail("Expected a ConversionException from invalid input");
+    } catch (ConversionException e) {
+      assertEquals(MorseConverter.MORSE_DELIMIT_EXCEPTION_MESSAGE, e.getMessage());
+    }
+  }
+
+  @Test
+  public void symbolLongerThanChunkFails()
+      throws IOException {
+    //Dits without end, the converter has to fail before reading all of them
+    Reader dits = new Reader() {
+      private int remaining = 1000;
+
+      @Override
+      public int read(char[] buffer, int offset, int length)
+          throws IOException {
+        if (remaining == 0) {
+          throw new IOException("Read past the invalid symbol");
+        }
+        int count = Math.min(length, remaining);
+        Arrays.fill(buffer, offset, offset + count, MorseConverter.MORSE_DIT);
+        remaining -= count;
+        return count;
+      }
+
+      @Override
+      public void close() {
+      }
+    };
+    StringWriter writer = new StringWriter();
+    try {
+      convert(new ParallelMorseConverter(dits, writer, MorseConverter.Mode.MORSE_TO_TEXT, 3, 16), writer);
+      fail("Expected a ConversionException from invalid input");
+    } catch (ConversionException e) {
+      assertTrue(e.getMessage().endsWith("is not a valid Morse code sequence"));
+      assertEquals(0, e.getOffset());
+    }
+  }
+
+  @Test
+  public void splitsWithoutDelimiters()
+      throws Exception {
+    //Line breaks continue a symbol and other characters end it without a delimiter
+    String input = String.join("", Collections.nCopies(20, "••\n−x.−\r\n−?\n\n"));
+    for (int chunkSize = 1; chunkSize < 20; chunkSize++) {
+      assertEquals(MorseFixtures.oneShot(input, MorseConverter.Mode.MORSE_TO_TEXT),
+          parallel(input, MorseConverter.Mode.MORSE_TO_TEXT, chunkSize));
+    }
+  }
+}
@@ -0,0 +1,84 @@
+package fi.ilariel.languageconverter.morse;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+
+import org.junit.Test;
+
+import fi.ilariel.languageconverter.converter.ConversionException;
+
+import static org.junit.Assert.assertEquals;
+
+
+public class RecordMorseTests {
+
+  private static final String TEXT = "CQ CQ DE OH2XX\nTHE QUICK BROWN FOX\r\n\nJUMPS OVER\rTHE LAZY DOG? "
+      + "ME@MAIL.COM 1/2";
+
+  private static String convert(RecordMorseConverter converter, StringWriter writer)
+      throws ConversionException, IOException {
+    try (RecordMorseConverter c = converter) {
+      c.convert();
+    }
+    return writer.toString();
+  }
+
+  private static RecordMorseConverter converter(String input, StringWriter writer, MorseConverter.Mode mode,
+      int threads, int batchSize) {
+    return new RecordMorseConverter(new StringReader(input), writer, mode, threads, MorseAlphabet.DEFAULT, batchSize);
+  }
+
+  private static String records(String input, MorseConverter.Mode mode, int threads, int batchSize)
+      throws ConversionException, IOException {
+    StringWriter writer = new StringWriter();
+    return convert(converter(input, writer, mode, threads, batchSize), writer);
+  }
+
+  @Test
+  public void lineEndingsArePreserved()
+      throws ConversionException, IOException {
+    String morse = records(TEXT, MorseConverter.Mode.TEXT_TO_MORSE, 1, 1024);
+    assertEquals(MorseCodec.INSTANCE.encode("CQ CQ DE OH2XX") + "\n", morse.substring(0, morse.indexOf('\n') + 1));
+    assertEquals(TEXT.replaceAll("[^\r\n]", ""), morse.replaceAll("[^\r\n]", ""));
+    assertEquals(TEXT, records(morse, MorseConverter.Mode.MORSE_TO_TEXT, 1, 1024));
+  }
+
+  @Test
+  public void batchesMatchSingleBatch()
+      throws ConversionException, IOException {
+    String morse = records(TEXT, MorseConverter.Mode.TEXT_TO_MORSE, 1, 1024);
+    //Small batches split "\r\n" and grow for lines longer than the batch
+    for (int batchSize = 1; batchSize < 20; batchSize++) {
+      assertEquals(morse, records(TEXT, MorseConverter.Mode.TEXT_TO_MORSE, 3, batchSize));
+      assertEquals(TEXT, records(morse, MorseConverter.Mode.MORSE_TO_TEXT, 3, batchSize));
+    }
+  }
+
+  @Test
+  public void invalidLinesAreLeftEmpty()
+      throws ConversionException, IOException {
+    String sos = MorseCodec.INSTANCE.encode("SOS");
+    String morse = sos + "\n•••..−−−\r\n" + sos + "\n−−−−−−−−−\n" + sos;
+    StringWriter writer = new StringWriter();
+    RecordMorseConverter converter = converter(morse, writer, MorseConverter.Mode.MORSE_TO_TEXT, 2, 8);
+    assertEquals("SOS\n\r\nSOS\n\nSOS", convert(converter, writer));
+    assertEquals(2, converter.getFailedRecords());
+    ConversionException first = converter.getRecordErrors().get(0);
+    assertEquals(2, first.getLine());
+    assertEquals(MorseConverter.MORSE_DELIMIT_EXCEPTION_MESSAGE, first.getMessage());
+    assertEquals(4, converter.getRecordErrors().get(1).getLine());
+  }
+
+  @Test
+  public void unsupportedCharacterFailsItsLine()
+      throws ConversionException, IOException {
+    StringWriter writer = new StringWriter();
+    RecordMorseConverter converter = converter("SOS\nSØS\nSOS\n", writer, MorseConverter.Mode.TEXT_TO_MORSE, 1, 1024);
+    String sos = MorseCodec.INSTANCE.encode("SOS");
+    assertEquals(sos + "\n\n" + sos + "\n", convert(converter, writer));
+    ConversionException error = converter.getRecordErrors().get(0);
+    assertEquals(2, error.getLine());
+    assertEquals(5, error.getOffset());
+  }
+}
@@ -0,0 +1,189 @@
+package fi.ilariel.languageconverter.morse;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.junit.Test;
+
+import fi.ilariel.languageconverter.converter.ByteTranscoder;
+import fi.ilariel.languageconverter.converter.ConversionException;
+
+import static fi.ilariel.languageconverter.morse.MorseFixtures.TEXT;
+import static fi.ilariel.languageconverter.morse.MorseFixtures.oneShot;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
+
+
+public class Utf8MorseTests {
+
+  /**
+   * Feeds the input a few bytes at a time through a small output buffer to exercise partial sequences
+   */
+  private static String transcode(ByteTranscoder transcoder, String input, int pieceSize)
+      throws ConversionException {
+    byte[] bytes = input.getBytes(StandardCharsets.UTF_8);
+    ByteBuffer in = ByteBuffer.allocate(bytes.length);
+    ByteBuffer out = ByteBuffer.allocate(MorseAlphabet.DEFAULT.getTable().getMaxEncodedUtf8Length());
+    ByteArrayOutputStream result = new ByteArrayOutputStream();
+
+    in.limit(0);
+    int fed = 0;
+    boolean endOfInput = bytes.length == 0;
+    while (!endOfInput) {
+      int piece = Math.min(pieceSize, bytes.length - fed);
+      in.compact();
+      in.put(bytes, fed, piece);
+      in.flip();
+      fed += piece;
+      endOfInput = fed == bytes.length;
+      while (transcoder.transcode(in, out, endOfInput)) {
+        drain(out, result);
+      }
+    }
+    assertEquals(0, in.remaining());
+    drain(out, result);
+    transcoder.finish(out);
+    drain(out, result);
+    return new String(result.toByteArray(), StandardCharsets.UTF_8);
+  }
+
+  private static void drain(ByteBuffer out, ByteArrayOutputStream result) {
+    out.flip();
+    result.write(out.array(), 0, out.limit());
+    out.clear();
+  }
+
+  @Test
+  public void encodeMatchesCharConverter()
+      throws ConversionException, IOException {
+    String expected = oneShot(TEXT, MorseConverter.Mode.TEXT_TO_MORSE);
+    for (int pieceSize = 1; pieceSize < 8; pieceSize++) {
+      assertEquals(expected,
+          transcode(MorseByteConverter.newTranscoder(MorseConverter.Mode.TEXT_TO_MORSE), TEXT, pieceSize));
+    }
+  }
+
+  @Test
+  public void decodeMatchesCharConverter()
+      throws ConversionException, IOException {
+    String morse = oneShot(TEXT, MorseConverter.Mode.TEXT_TO_MORSE) + "\n.•••x−−−€•••";
+    String expected = oneShot(morse, MorseConverter.Mode.MORSE_TO_TEXT);
+    for (int pieceSize = 1; pieceSize < 8; pieceSize++) {
+      assertEquals(expected,
+          transcode(MorseByteConverter.newTranscoder(MorseConverter.Mode.MORSE_TO_TEXT), morse, pieceSize));
+    }
+  }
+
+  @Test
+  public void wholeSymbolsMatchCharConverter()
+      throws ConversionException, IOException {
+    //Large pieces go through the word at a time scanner, which must leave odd symbols to the byte by byte path
+    String morse = oneShot(TEXT, MorseConverter.Mode.TEXT_TO_MORSE)
+        + "••\n••.−−−−−−−.••••• ••••••••••••.−\r\n−.x−−−€•••.•−−−−−−−−−−−−−−−−•••.−−.•";
+    StringWriter expected = new StringWriter();
+    try (MorseConverter converter = new MorseConverter(new BufferedReader(new StringReader(morse)), expected,
+        MorseConverter.Mode.MORSE_TO_TEXT, DecodeErrorPolicy.replace('?'), MorseAlphabet.DEFAULT)) {
+      converter.convert();
+    }
+    for (int pieceSize = 16; pieceSize < 64; pieceSize += 7) {
+      assertEquals(expected.toString(), transcode(MorseByteConverter.newTranscoder(MorseConverter.Mode.MORSE_TO_TEXT,
+          DecodeErrorPolicy.replace('?'), MorseAlphabet.DEFAULT), morse, pieceSize));
+    }
+
+    ByteBuffer littleEndian = ByteBuffer.wrap(morse.getBytes(StandardCharsets.UTF_8)).order(ByteOrder.LITTLE_ENDIAN);
+    ByteBuffer out = ByteBuffer.allocate(morse.length());
+    ByteTranscoder transcoder = MorseByteConverter.newTranscoder(MorseConverter.Mode.MORSE_TO_TEXT,
+        DecodeErrorPolicy.replace('?'), MorseAlphabet.DEFAULT);
+    assertFalse(transcoder.transcode(littleEndian, out, true));
+    transcoder.finish(out);
+    assertEquals(expected.toString(), new String(out.array(), 0, out.position(), StandardCharsets.UTF_8));
+  }
+
+  @Test
+  public void invalidSymbolPositionInBytes() {
+    try {
+      transcode(MorseByteConverter.newTranscoder(MorseConverter.Mode.MORSE_TO_TEXT), "•••.−−−.•••.−−−−−−−.•••.−−−",
+          1024);
+      fail("Expected a ConversionException from an invalid sequence");
+    } catch (ConversionException e) {
+      assertEquals(30, e.getOffset());
+      assertEquals("−−−−−−− is not a valid Morse code sequence", e.getMessage());
+    }
+  }
+
+  @Test
+  public void unsupportedMultiByteCharacter() {
+    try {
+      transcode(MorseByteConverter.newTranscoder(MorseConverter.Mode.TEXT_TO_MORSE), "sos ä", 2);
+      fail("Expected a ConversionException from unsupported input");
+    } catch (ConversionException e) {
+      assertEquals("Conversion for äis not supported", e.getMessage());
+    }
+  }
+
+  @Test
+  public void directBuffers()
+      throws ConversionException, IOException {
+    byte[] text = TEXT.getBytes(StandardCharsets.UTF_8);
+    ByteBuffer in = ByteBuffer.allocateDirect(text.length);
+    in.put(text).flip();
+    ByteBuffer out =
+        ByteBuffer.allocateDirect(text.length * MorseAlphabet.DEFAULT.getTable().getMaxEncodedUtf8Length());
+
+    ByteTranscoder transcoder = MorseByteConverter.newTranscoder(MorseConverter.Mode.TEXT_TO_MORSE);
+    assertFalse(transcoder.transcode(in, out, true));
+    transcoder.finish(out);
+    out.flip();
+    byte[] morse = new byte[out.remaining()];
+    out.get(morse);
+    assertEquals(oneShot(TEXT, MorseConverter.Mode.TEXT_TO_MORSE), new String(morse, StandardCharsets.UTF_8));
+  }
+
+  @Test
+  public void streamRoundTrip()
+      throws ConversionException, IOException {
+    ByteArrayOutputStream morse = new ByteArrayOutputStream();
+    try (MorseByteConverter converter = new MorseByteConverter(
+        new ByteArrayInputStream(TEXT.getBytes(StandardCharsets.UTF_8)), morse, MorseConverter.Mode.TEXT_TO_MORSE)) {
+      converter.convert();
+    }
+    ByteArrayOutputStream text = new ByteArrayOutputStream();
+    try (MorseByteConverter converter = new MorseByteConverter(
+        new ByteArrayInputStream(morse.toByteArray()), text, MorseConverter.Mode.MORSE_TO_TEXT)) {
+      converter.convert();
+    }
+    assertEquals(TEXT.replaceAll("[\\r\\n]", "").toUpperCase(), new String(text.toByteArray(), StandardCharsets.UTF_8));
+  }
+
+  @Test
+  public void mappedFileRoundTrip()
+      throws ConversionException, IOException {
+    File text = File.createTempFile("mapped", ".txt");
+    File morse = File.createTempFile("mapped", ".morse");
+    File result = File.createTempFile("mapped", ".out");
+    try {
+      Files.write(text.toPath(), TEXT.getBytes(StandardCharsets.UTF_8));
+      MappedMorseConversion.convert(text, morse, MorseConverter.Mode.TEXT_TO_MORSE);
+      MappedMorseConversion.convert(morse, result, MorseConverter.Mode.MORSE_TO_TEXT);
+
+      String expectedMorse = oneShot(TEXT, MorseConverter.Mode.TEXT_TO_MORSE);
+      assertEquals(expectedMorse, new String(Files.readAllBytes(morse.toPath()), StandardCharsets.UTF_8));
+      assertEquals(oneShot(expectedMorse, MorseConverter.Mode.MORSE_TO_TEXT),
+          new String(Files.readAllBytes(result.toPath()), StandardCharsets.UTF_8));
+    } finally {
+      text.delete();
+      morse.delete();
+      result.delete();
+    }
+  }
+}
@@ -0,0 +1,140 @@
+package fi.ilariel.languageconverter.server;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+
+public class ConversionServerTests {
+
+  private static final String SOS_MORSE = "•••.−−−.•••";
+
+  private ConversionServer server;
+
+  @Before
+  public void setup()
+      throws IOException {
+    server = new ConversionServer(0, 0, 4);
+    server.start();
+  }
+
+  @After
+  public void tearDown() {
+    server.stop();
+  }
+
+  private static String request(DataOutputStream out, DataInputStream in, char mode, String... frames)
+      throws IOException {
+    byte[][] bytes = new byte[frames.length][];
+    for (int i = 0; i < frames.length; i++) {
+      bytes[i] = frames[i].getBytes(StandardCharsets.UTF_8);
+    }
+    return request(out, in, mode, bytes);
+  }
+
+  private static String request(DataOutputStream out, DataInputStream in, char mode, byte[]... frames)
+      throws IOException {
+    out.write(mode);
+    for (byte[] frame : frames) {
+      out.writeInt(frame.length);
+      out.write(frame);
+    }
+    out.writeInt(0);
+    out.flush();
+
+    ByteArrayOutputStream result = new ByteArrayOutputStream();
+    int length = in.readInt();
+    while (length > 0) {
+      byte[] bytes = new byte[length];
+      in.readFully(bytes);
+      result.write(bytes);
+      length = in.readInt();
+    }
+    if (length == FramedConnection.FAILURE) {
+      byte[] message = new byte[in.readInt()];
+      in.readFully(message);
+      return "error: " + new String(message, StandardCharsets.UTF_8);
+    }
+    return new String(result.toByteArray(), StandardCharsets.UTF_8);
+  }
+
+  @Test
+  public void framedRequests()
+      throws IOException {
+    try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.getTcpPort());
+        DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+        DataInputStream in = new DataInputStream(socket.getInputStream())) {
+      assertEquals(SOS_MORSE, request(out, in, 'm', "s", "os"));
+      //Second frame starts in the middle of the first dah
+      byte[] morse = SOS_MORSE.getBytes(StandardCharsets.UTF_8);
+      assertEquals("SOS", request(out, in, 'e', Arrays.copyOfRange(morse, 0, 11),
+          Arrays.copyOfRange(morse, 11, morse.length)));
+      assertEquals("error: Morse characters should be delimited with only one dot", request(out, in, 'e', "••..•"));
+      //Connection is still usable after an error
+      assertEquals("SOS", request(out, in, 'e', SOS_MORSE));
+    }
+  }
+
+  @Test
+  public void httpRequests()
+      throws IOException {
+    assertEquals(SOS_MORSE, post("/encode", "sos"));
+    assertEquals("SOS", post("/decode", SOS_MORSE));
+  }
+
+  @Test
+  public void idleConnectionsDontBlockHttp()
+      throws IOException {
+    server.stop();
+    server = new ConversionServer(0, 0, 2, 200);
+    server.start();
+    try (Socket first = new Socket(InetAddress.getLoopbackAddress(), server.getTcpPort());
+        Socket second = new Socket(InetAddress.getLoopbackAddress(), server.getTcpPort())) {
+      //Both TCP workers wait for their clients, HTTP has workers of its own
+      assertEquals(SOS_MORSE, post("/encode", "sos"));
+      //Idle connections are closed by the server
+      first.setSoTimeout(5000);
+      assertEquals(-1, first.getInputStream().read());
+      second.setSoTimeout(5000);
+      assertEquals(-1, second.getInputStream().read());
+    }
+  }
+
+  private String post(String path, String body)
+      throws IOException {
+    URL url = new URL("http", InetAddress.getLoopbackAddress().getHostAddress(), server.getHttpPort(), path);
+    HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+    connection.setConnectTimeout(5000);
+    connection.setReadTimeout(5000);
+    connection.setRequestMethod("POST");
+    connection.setDoOutput(true);
+    try (OutputStream out = connection.getOutputStream()) {
+      out.write(body.getBytes(StandardCharsets.UTF_8));
+    }
+    ByteArrayOutputStream result = new ByteArrayOutputStream();
+    try (InputStream in = connection.getInputStream()) {
+      byte[] buffer = new byte[1024];
+      int read = in.read(buffer);
+      while (read != -1) {
+        result.write(buffer, 0, read);
+        read = in.read(buffer);
+      }
+    }
+    return new String(result.toByteArray(), StandardCharsets.UTF_8);
+  }
+}